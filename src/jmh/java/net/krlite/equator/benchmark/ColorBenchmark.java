@@ -0,0 +1,56 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.color.MixCache;
+import net.krlite.equator.color.PreciseColor;
+import net.krlite.equator.color.PreciseColors;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.geometry.Rect;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColorBenchmark {
+	private PreciseColor first, second;
+	private Rect.Tinted tinted;
+	private double ratio;
+	private final MixCache mixCache = new MixCache();
+
+	@Param({ "#1E90FF", "#FFAA00CC" })
+	public String hex;
+
+	@Setup
+	public void setup() {
+		first = PreciseColor.BLUE;
+		second = PreciseColors.GOLD;
+		tinted = new Rect(0, 0, 64, 64).tint(first, PreciseColor.TRANSPARENT, second, PreciseColor.TRANSPARENT);
+		ratio = 0.37;
+	}
+
+	@Benchmark
+	public BasicRGBA<?> blend() {
+		return first.blend(second, ratio);
+	}
+
+	@Benchmark
+	public BasicRGBA<?> mix() {
+		return first.mix(second, ratio);
+	}
+
+	@Benchmark
+	public BasicRGBA<?> mixCached() {
+		return mixCache.mix(first, second, ratio);
+	}
+
+	@Benchmark
+	public PreciseColor ofString() {
+		return PreciseColor.of(hex);
+	}
+
+	@Benchmark
+	public Rect.Tinted tintedCut() {
+		return tinted.cut();
+	}
+}
@@ -0,0 +1,69 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.color.PreciseColor;
+import net.krlite.equator.color.PreciseColors;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.color.kernel.ColorKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares bulk blending through {@link ColorKernels} against blending {@link PreciseColor}s one by one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColorKernelBenchmark {
+	private ColorKernels kernels;
+	private float[] from, to, ratios, out;
+	private PreciseColor first, second;
+
+	@Param({ "1024" })
+	public int colors;
+
+	@Param({ "true", "false" })
+	public boolean vectorized;
+
+	@Setup
+	public void setup() {
+		kernels = vectorized ? ColorKernels.get() : ColorKernels.scalar();
+		first = PreciseColor.BLUE;
+		second = PreciseColors.GOLD;
+
+		from = new float[4 * colors];
+		to = new float[4 * colors];
+		ratios = new float[4 * colors];
+		out = new float[4 * colors];
+		for (int i = 0; i < 4 * colors; i++) {
+			from[i] = (i % 7) / 7F;
+			to[i] = (i % 5) / 5F;
+			ratios[i] = (i % 11) / 11F;
+		}
+	}
+
+	@Benchmark
+	public float[] kernelBlend() {
+		kernels.blend(from, to, ratios, out, 4 * colors);
+		return out;
+	}
+
+	@Benchmark
+	public float[] kernelPremultiply() {
+		System.arraycopy(from, 0, out, 0, 4 * colors);
+		kernels.premultiply(out, 4 * colors);
+		return out;
+	}
+
+	@Benchmark
+	public float[] preciseColorBlend() {
+		for (int i = 0; i < colors; i++) {
+			BasicRGBA<?> color = first.blend(second, ratios[4 * i]);
+			out[4 * i] = color.getRedFloat();
+			out[4 * i + 1] = color.getGreenFloat();
+			out[4 * i + 2] = color.getBlueFloat();
+			out[4 * i + 3] = color.getAlphaFloat();
+		}
+		return out;
+	}
+}
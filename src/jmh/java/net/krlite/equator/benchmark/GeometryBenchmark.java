@@ -0,0 +1,148 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.geometry.GeometryPool;
+import net.krlite.equator.geometry.MutableRect;
+import net.krlite.equator.geometry.Node;
+import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.geometry.RectBuffer;
+import net.krlite.equator.geometry.Rotation;
+import net.krlite.equator.geometry.Transform2d;
+import net.krlite.equator.math.SineTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+	private Rect rect;
+	private final MutableRect mutableRect = new MutableRect();
+	private Node origin, inside, outside;
+	private double angle, spin;
+	private Rect[] rects;
+	private final RectBuffer buffer = new RectBuffer(GRID * GRID);
+	private final boolean[] hits = new boolean[GRID * GRID];
+
+	private static final int GRID = 16;
+
+	@Setup
+	public void setup() {
+		rect = new Rect(12, 34, 160, 90).rotateByCenter(17);
+		origin = rect.getCenter();
+		inside = origin.shift(3, -2);
+		outside = new Node(-100, -100);
+		angle = 33.3;
+
+		rects = new Rect[GRID * GRID];
+		buffer.clear();
+		for (int i = 0; i < rects.length; i++) {
+			rects[i] = new Rect(18 * (i % GRID), 18 * (i / GRID), 16, 16);
+			buffer.add(rects[i], 0xFF000000 | i);
+		}
+	}
+
+	@Benchmark
+	public Rect rectRotateBy() {
+		return rect.rotateBy(origin, angle);
+	}
+
+	@Benchmark
+	public Rect rectMeshByGrid() {
+		return rect.meshByGrid(8, 6, 3, 4);
+	}
+
+	@Benchmark
+	public boolean rectContainsInside() {
+		return rect.contains(inside);
+	}
+
+	@Benchmark
+	public boolean rectContainsOutside() {
+		return rect.contains(outside);
+	}
+
+	@Benchmark
+	public Node nodeRotate() {
+		return origin.rotate(inside, angle);
+	}
+
+	@Benchmark
+	public MutableRect mutableRectRotateBy() {
+		return mutableRect.set(rect).rotateBy(origin.getX(), origin.getY(), angle);
+	}
+
+	@Benchmark
+	public MutableRect mutableRectMeshByGrid() {
+		return mutableRect.set(rect).meshByGrid(8, 6, 3, 4);
+	}
+
+	@Benchmark
+	public double pooledRectRotateBy() {
+		try (GeometryPool pool = GeometryPool.open()) {
+			return pool.rect(rect).rotateBy(origin.getX(), origin.getY(), angle).getCenterX();
+		}
+	}
+
+	@Benchmark
+	public Rect[] rectsRotateBy() {
+		Rect[] rotated = new Rect[rects.length];
+		for (int i = 0; i < rects.length; i++) rotated[i] = rects[i].rotateBy(origin, angle);
+		return rotated;
+	}
+
+	@Benchmark
+	public Rect[] rectsRotateByRotation() {
+		Rotation rotation = Rotation.of(angle);
+		Rect[] rotated = new Rect[rects.length];
+		for (int i = 0; i < rects.length; i++) rotated[i] = rects[i].rotateBy(origin, rotation);
+		return rotated;
+	}
+
+	@Benchmark
+	public Rect rectChain() {
+		return rect.shift(4, -2).scaleByCenter(1.5).rotateByCenter(angle).scaleByCenter(0.8).rotateByCenter(-angle);
+	}
+
+	@Benchmark
+	public Rect transformChain() {
+		return Transform2d.IDENTITY.shift(4, -2).scaleByCenter(rect, 1.5).rotateByCenter(rect, angle)
+					   .scaleByCenter(rect, 0.8).rotateByCenter(rect, -angle).apply(rect);
+	}
+
+	@Benchmark
+	public Rect[] rectsTransform() {
+		Transform2d transform = Transform2d.IDENTITY.shift(4, -2).scaleBy(origin, 1.5).rotateBy(origin, angle);
+		Rect[] transformed = new Rect[rects.length];
+		for (int i = 0; i < rects.length; i++) transformed[i] = transform.apply(rects[i]);
+		return transformed;
+	}
+
+	@Benchmark
+	public Rotation rotationOf() {
+		return Rotation.of(spin += 0.1);
+	}
+
+	@Benchmark
+	public Rotation rotationOfSineTable() {
+		return Rotation.of(spin += 0.1, SineTable.DEFAULT);
+	}
+
+	@Benchmark
+	public RectBuffer rectBufferRotateBy() {
+		// Rotating back and forth keeps the buffer stable across invocations
+		return buffer.rotateBy(origin.getX(), origin.getY(), angle).rotateBy(origin.getX(), origin.getY(), -angle);
+	}
+
+	@Benchmark
+	public int rectsContains() {
+		int count = 0;
+		for (Rect rect : rects) if (rect.contains(inside)) count++;
+		return count;
+	}
+
+	@Benchmark
+	public int rectBufferContains() {
+		return buffer.contains(inside.getX(), inside.getY(), hits);
+	}
+}
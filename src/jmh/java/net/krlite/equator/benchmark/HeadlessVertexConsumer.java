@@ -0,0 +1,71 @@
+package net.krlite.equator.benchmark;
+
+import net.minecraft.client.render.VertexConsumer;
+
+/**
+ * A vertex consumer that only accumulates what it receives, so tessellation can be measured
+ * without a GL context.
+ */
+public class HeadlessVertexConsumer implements VertexConsumer {
+	private int vertices;
+	private double checksum;
+
+	public int vertices() {
+		return vertices;
+	}
+
+	public double checksum() {
+		return checksum;
+	}
+
+	public void reset() {
+		vertices = 0;
+		checksum = 0;
+	}
+
+	@Override
+	public VertexConsumer vertex(double x, double y, double z) {
+		checksum += x + y + z;
+		return this;
+	}
+
+	@Override
+	public VertexConsumer color(int red, int green, int blue, int alpha) {
+		checksum += red + green + blue + alpha;
+		return this;
+	}
+
+	@Override
+	public VertexConsumer texture(float u, float v) {
+		checksum += u + v;
+		return this;
+	}
+
+	@Override
+	public VertexConsumer overlay(int u, int v) {
+		return this;
+	}
+
+	@Override
+	public VertexConsumer light(int u, int v) {
+		return this;
+	}
+
+	@Override
+	public VertexConsumer normal(float x, float y, float z) {
+		return this;
+	}
+
+	@Override
+	public void next() {
+		vertices++;
+	}
+
+	@Override
+	public void fixedColor(int red, int green, int blue, int alpha) {
+	}
+
+	@Override
+	public void unfixColor() {
+	}
+}
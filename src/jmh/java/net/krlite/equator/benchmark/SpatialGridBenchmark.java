@@ -0,0 +1,94 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.geometry.Node;
+import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.geometry.SpatialGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the queries of a {@link SpatialGrid} against scanning every rect.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpatialGridBenchmark {
+	private static final double AREA = 4000;
+	private static final int QUERIES = 256;
+
+	private Rect[] rects;
+	private SpatialGrid<Integer> grid;
+	private Node[] points;
+	private Rect range;
+	private int query;
+
+	@Param({ "1000", "10000" })
+	public int count;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		rects = new Rect[count];
+		grid = new SpatialGrid<>(48);
+		for (int i = 0; i < count; i++) {
+			rects[i] = new Rect(random.nextDouble() * AREA, random.nextDouble() * AREA,
+					16 + random.nextDouble() * 48, 16 + random.nextDouble() * 48).rotateByCenter(random.nextDouble() * 360);
+			grid.insert(i, rects[i]);
+		}
+
+		points = new Node[QUERIES];
+		for (int i = 0; i < QUERIES; i++) points[i] = new Node(random.nextDouble() * AREA, random.nextDouble() * AREA);
+		range = new Rect(AREA / 2, AREA / 2, 240, 160);
+	}
+
+	private Node next() {
+		return points[query++ & (QUERIES - 1)];
+	}
+
+	@Benchmark
+	public List<Integer> gridPoint() {
+		return grid.query(next());
+	}
+
+	@Benchmark
+	public int brutePoint() {
+		Node point = next();
+		int hits = 0;
+		for (Rect rect : rects) if (rect.contains(point)) hits++;
+		return hits;
+	}
+
+	@Benchmark
+	public Integer gridNearest() {
+		return grid.nearest(next());
+	}
+
+	@Benchmark
+	public int bruteNearest() {
+		Node point = next();
+		int nearest = -1;
+		double distance = Double.MAX_VALUE;
+		for (int i = 0; i < rects.length; i++) {
+			double candidate = rects[i].distanceTo(point);
+			if (candidate < distance) {
+				distance = candidate;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	@Benchmark
+	public List<Integer> gridRange() {
+		return grid.query(range);
+	}
+
+	@Benchmark
+	public SpatialGrid<Integer> gridUpdate() {
+		int index = query++ % count;
+		return grid.update(index, rects[index].shift(64, 0)).update(index, rects[index]);
+	}
+}
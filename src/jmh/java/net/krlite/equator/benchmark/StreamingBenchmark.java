@@ -0,0 +1,66 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.color.PackedColor;
+import net.krlite.equator.geometry.RectBuffer;
+import net.krlite.equator.render.Equator;
+import net.krlite.equator.render.vertex.MemoryVertexSink;
+import net.krlite.equator.render.vertex.SimulatedRingBackend;
+import net.krlite.equator.render.vertex.StreamingVertexSink;
+import net.minecraft.client.util.math.MatrixStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the vertices of a frame of small draw calls, recorded into a {@link MemoryVertexSink} or
+ * written in place into a ring on a {@link SimulatedRingBackend}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StreamingBenchmark {
+	private final Equator.Painter painter = new Equator.Painter(new MatrixStack());
+	private final MemoryVertexSink memory = new MemoryVertexSink(2);
+	private SimulatedRingBackend backend;
+	private StreamingVertexSink streaming;
+	private RectBuffer quads;
+
+	@Param({ "64", "1024" })
+	public int rects;
+
+	@Param({ "1", "8" })
+	public int latency;
+
+	@Setup
+	public void setup() {
+		backend = new SimulatedRingBackend(1024 * 1024, latency);
+		streaming = new StreamingVertexSink(backend, 4);
+		quads = new RectBuffer(rects);
+		for (int i = 0; i < rects; i++)
+			quads.add(i % 32 * 10, i / 32 * 10, 8, 8, PackedColor.of(i % 256, 128, 255 - i % 256, 255));
+	}
+
+	@TearDown
+	public void tearDown() {
+		streaming.close();
+	}
+
+	private void frame() {
+		for (int i = 0; i < rects; i++) painter.paint(quads.getRect(i), quads.getColor(i, 0));
+		painter.paint(quads);
+	}
+
+	@Benchmark
+	public int memorySink() {
+		memory.clear();
+		Equator.withSink(memory, this::frame);
+		return memory.vertexCount();
+	}
+
+	@Benchmark
+	public int streamingSink() {
+		backend.clearDraws();
+		Equator.withSink(streaming, this::frame);
+		return backend.draws().size();
+	}
+}
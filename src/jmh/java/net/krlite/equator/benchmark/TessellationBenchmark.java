@@ -0,0 +1,85 @@
+package net.krlite.equator.benchmark;
+
+import net.krlite.equator.color.PreciseColor;
+import net.krlite.equator.color.PreciseColors;
+import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.render.Equator;
+import net.krlite.equator.render.GradientTessellator;
+import net.krlite.equator.render.vertex.MemoryVertexSink;
+import net.minecraft.client.util.math.MatrixStack;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the gradient tessellation of {@code Equator.Painter}, emitting into a
+ * {@link HeadlessVertexConsumer} or a {@link MemoryVertexSink} instead of a GL buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TessellationBenchmark {
+	private final HeadlessVertexConsumer consumer = new HeadlessVertexConsumer();
+	private final Matrix4f matrix = new Matrix4f();
+	private final MemoryVertexSink sink = new MemoryVertexSink(2);
+	private final Equator.Painter painter = new Equator.Painter(new MatrixStack());
+	private Rect.Tinted tinted, shadowOuter, shadowInner;
+
+	@Param({ "64", "480" })
+	public int size;
+
+	@Param({ "0.5", "0.8" })
+	public double attenuation;
+
+	@Param({ "false", "true" })
+	public boolean pigmentMix;
+
+	@Setup
+	public void setup() {
+		tinted = new Rect(0, 0, size * 16 / 9.0, size).tint(PreciseColor.BLUE, PreciseColors.GOLD, PreciseColors.GOLD, PreciseColor.BLUE);
+		shadowOuter = tinted.getRect().tint(PreciseColor.TRANSPARENT);
+		shadowInner = tinted.getRect().scaleByCenter(0.9).tint(PreciseColor.BLUE);
+	}
+
+	@Benchmark
+	public int verticalGradiant() {
+		consumer.reset();
+		GradientTessellator.vertical(tinted, attenuation, pigmentMix, 2).emit(consumer, matrix);
+		return consumer.vertices();
+	}
+
+	@Benchmark
+	public int horizontalGradiant() {
+		consumer.reset();
+		GradientTessellator.horizontal(tinted, attenuation, pigmentMix, 2).emit(consumer, matrix);
+		return consumer.vertices();
+	}
+
+	@Benchmark
+	public int batchedPainter() {
+		sink.clear();
+		Equator.withSink(sink, () -> Equator.batch(() -> painter
+				.paintVerticalGradiant(tinted, attenuation, pigmentMix)
+				.paintHorizontalGradiant(tinted, attenuation, pigmentMix)
+		));
+		return sink.vertexCount();
+	}
+
+	@Benchmark
+	public int gradientShadow() {
+		sink.clear();
+		Equator.withSink(sink, () -> painter.paintRectShadow(shadowOuter, shadowInner, attenuation, pigmentMix));
+		return sink.vertexCount();
+	}
+
+	@Benchmark
+	public int sdfShadow() {
+		sink.clear();
+		Equator.withSink(sink, () -> painter
+				.paintShadow(shadowInner.getRect(), 4, size * 0.1, PreciseColor.BLUE)
+				.paint(shadowInner)
+		);
+		return sink.vertexCount();
+	}
+}
@@ -0,0 +1,52 @@
+package net.krlite.equator;
+
+import ladysnake.satin.api.managed.ManagedCoreShader;
+import ladysnake.satin.api.managed.ShaderEffectManager;
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.krlite.equator.render.SdfShader;
+import net.krlite.equator.render.SpriteShader;
+import net.krlite.equator.render.atlas.IconCache;
+import net.krlite.equator.render.text.TextMeshCache;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+
+import static net.krlite.equator.EquatorLib.MOD_ID;
+
+public class EquatorLibClient implements ClientModInitializer {
+	public static ManagedCoreShader positionPigmentProgram;
+	public static ManagedCoreShader sdfProgram;
+	public static ManagedCoreShader spriteProgram;
+
+	@Override
+	public void onInitializeClient() {
+		positionPigmentProgram = ShaderEffectManager.getInstance()
+										 .manageCoreShader(new Identifier(MOD_ID, "pigment"), VertexFormats.POSITION_TEXTURE);
+		sdfProgram = ShaderEffectManager.getInstance()
+							 .manageCoreShader(new Identifier(MOD_ID, "sdf"), SdfShader.FORMAT);
+		spriteProgram = ShaderEffectManager.getInstance()
+								.manageCoreShader(new Identifier(MOD_ID, "sprite"), SpriteShader.FORMAT);
+
+		// Glyph atlases are rebuilt on reloads, which leaves every cached text mesh pointing at stale glyphs
+		registerReloadListener("text_meshes", TextMeshCache::invalidateAll);
+		// So are the baked models, which every cached icon was rendered from
+		registerReloadListener("icons", IconCache::invalidateAll);
+	}
+
+	private static void registerReloadListener(String path, Runnable listener) {
+		ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+			@Override
+			public Identifier getFabricId() {
+				return new Identifier(MOD_ID, path);
+			}
+
+			@Override
+			public void reload(ResourceManager manager) {
+				listener.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,186 @@
+package net.krlite.equator.color;
+
+import com.scrtwpns.Mixbox;
+import net.krlite.equator.color.core.BasicRGBA;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h2>Mix Cache</h2>
+ * A bounded LRU cache of Mixbox pigment mixes, keyed on the two colors and the ratio rounded to
+ * one of {@link #ratioResolution()} buckets. Most mixes happen between a small palette of
+ * colors, so a cached mix skips the full RGB to latent to RGB conversion of Mixbox.
+ * <br />
+ * Caching trades precision for speed: colors are keyed at 8 bits per channel and ratios are
+ * quantized, see {@link #measureError(int[], int)} for the resulting deviation from Mixbox.
+ * The alpha is always blended exactly, as Mixbox blends it linearly anyway.
+ * <br />
+ * A cache is used by a {@link net.krlite.equator.render.Equator.Painter} it is given to, or
+ * everywhere once it is {@link #enableGlobally(MixCache) enabled globally}.
+ */
+public class MixCache {
+	private static @Nullable MixCache global;
+
+	/**
+	 * @return	The cache every pigment mix goes through, or {@code null} if there is none.
+	 */
+	public static @Nullable MixCache global() {
+		return global;
+	}
+
+	/**
+	 * Routes every pigment mix, including {@link BasicRGBA#mix(BasicRGBA, double)} and
+	 * {@link PackedColor#mix(int, int, double)}, through a cache.
+	 * @param cache	The cache, or {@code null} to mix exactly again.
+	 */
+	public static void enableGlobally(@Nullable MixCache cache) {
+		global = cache;
+	}
+
+	public static final int DEFAULT_CAPACITY = 4096, DEFAULT_RATIO_RESOLUTION = 256;
+
+	private final int capacity, ratioResolution;
+	private final Map<Long, Integer> mixes;
+	private long hits, misses;
+
+	/**
+	 * @param capacity			The maximum number of cached mixes.
+	 * @param ratioResolution	The number of ratio buckets between {@code 0} and {@code 1}, at most {@code 65535}.
+	 */
+	public MixCache(int capacity, int ratioResolution) {
+		this.capacity = Math.max(1, capacity);
+		this.ratioResolution = Math.max(1, Math.min(0xFFFF, ratioResolution));
+		this.mixes = new LinkedHashMap<>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+				return size() > MixCache.this.capacity;
+			}
+		};
+	}
+
+	public MixCache() {
+		this(DEFAULT_CAPACITY, DEFAULT_RATIO_RESOLUTION);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int ratioResolution() {
+		return ratioResolution;
+	}
+
+	public synchronized int size() {
+		return mixes.size();
+	}
+
+	public synchronized long hits() {
+		return hits;
+	}
+
+	public synchronized long misses() {
+		return misses;
+	}
+
+	public synchronized double hitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	public synchronized void clear() {
+		mixes.clear();
+		hits = misses = 0;
+	}
+
+	/**
+	 * Mixes two packed colors as pigments, as {@link PackedColor#mix(int, int, double)} does.
+	 * @param first		The first color, in ARGB.
+	 * @param second	The second color, in ARGB.
+	 * @param ratio		The ratio of the second color, clamped between {@code 0} and {@code 1}.
+	 * @return			The mixed color, in ARGB.
+	 */
+	public int mix(int first, int second, double ratio) {
+		ratio = Math.max(0, Math.min(1, ratio));
+		int bucket = (int) Math.round(ratio * ratioResolution);
+		int alpha = (int) Math.round(PackedColor.alpha(first) * (1 - ratio) + PackedColor.alpha(second) * ratio);
+		return PackedColor.withAlpha(rgb(first & 0xFFFFFF, second & 0xFFFFFF, bucket), alpha);
+	}
+
+	/**
+	 * Mixes two colors as pigments, as {@link BasicRGBA#mix(BasicRGBA, double)} does.
+	 */
+	public BasicRGBA<?> mix(@NotNull BasicRGBA<?> first, @NotNull BasicRGBA<?> second, double ratio) {
+		// Transparent colors are only faded, which needs no cache
+		if (!first.hasColor() || !second.hasColor()) return first.mix(second, ratio);
+
+		ratio = Math.max(0, Math.min(1, ratio));
+		int rgb = rgb(first.toColorInt() & 0xFFFFFF, second.toColorInt() & 0xFFFFFF, (int) Math.round(ratio * ratioResolution));
+		return first.withRed(PackedColor.redFloat(rgb)).withGreen(PackedColor.greenFloat(rgb)).withBlue(PackedColor.blueFloat(rgb))
+					   .withOpacity(first.getAlpha() * (1 - ratio) + second.getAlpha() * ratio);
+	}
+
+	private int rgb(int first, int second, int bucket) {
+		if (first == second || bucket == 0) return first;
+		if (bucket == ratioResolution) return second;
+
+		long key = (long) first << 40 | (long) second << 16 | bucket;
+		synchronized (this) {
+			Integer cached = mixes.get(key);
+			if (cached != null) {
+				hits++;
+				return cached;
+			}
+			misses++;
+		}
+
+		MixboxCounter.count(1);
+		int mixed = Mixbox.lerp(0xFF000000 | first, 0xFF000000 | second, (float) bucket / ratioResolution) & 0xFFFFFF;
+		synchronized (this) {
+			mixes.put(key, mixed);
+		}
+		return mixed;
+	}
+
+	/**
+	 * The deviation of cached mixes from exact Mixbox mixes, per channel between {@code 0} and {@code 1}.
+	 * @param mean	The mean absolute deviation.
+	 * @param max	The maximum absolute deviation.
+	 */
+	public record Error(double mean, double max) {
+	}
+
+	/**
+	 * Measures the deviation of this cache from {@link Mixbox#lerpFloat(float[], float[], float)}
+	 * over every ordered pair of a palette. This does not touch the cached mixes.
+	 * @param palette	The colors to mix, in ARGB.
+	 * @param steps		The number of evenly spaced ratios to mix each pair at.
+	 * @return			The measured {@link Error}.
+	 */
+	public Error measureError(int[] palette, int steps) {
+		MixCache scratch = new MixCache(capacity, ratioResolution);
+		double sum = 0, max = 0;
+		long samples = 0;
+
+		for (int first : palette) for (int second : palette) for (int step = 0; step <= steps; step++) {
+			// Offset by half a step, so that the ratios mostly fall between the buckets
+			float ratio = Math.min(1, (step + 0.5F) / (steps + 1));
+			float[] exact = Mixbox.lerpFloat(floats(first), floats(second), ratio);
+			int cached = scratch.mix(first, second, ratio);
+
+			float[] approximate = floats(cached);
+			for (int channel = 0; channel < 3; channel++) {
+				double error = Math.abs(exact[channel] - approximate[channel]);
+				sum += error;
+				max = Math.max(max, error);
+				samples++;
+			}
+		}
+		return new Error(samples == 0 ? 0 : sum / samples, max);
+	}
+
+	private static float[] floats(int color) {
+		return new float[]{ PackedColor.redFloat(color), PackedColor.greenFloat(color), PackedColor.blueFloat(color), PackedColor.alphaFloat(color) };
+	}
+}
@@ -0,0 +1,49 @@
+package net.krlite.equator.color;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h2>Mixbox Counter</h2>
+ * Counts the colors converted by Mixbox, from any thread. The colors report here without knowing
+ * of rendering, and the draw metrics enable the counter and collect it once per frame. While
+ * disabled, counting is a single branch.
+ */
+public class MixboxCounter {
+	private static volatile boolean enabled;
+	private static final LongAdder calls = new LongAdder();
+
+	public static boolean enabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts counting from {@code 0}.
+	 */
+	public static void enable() {
+		if (enabled) return;
+		calls.reset();
+		enabled = true;
+	}
+
+	public static void disable() {
+		enabled = false;
+	}
+
+	/**
+	 * Records a number of colors converted by Mixbox.
+	 */
+	public static void count(int calls) {
+		if (enabled) MixboxCounter.calls.add(calls);
+	}
+
+	/**
+	 * @return	The colors converted since the counter was last {@link #reset() reset}.
+	 */
+	public static long sum() {
+		return calls.sum();
+	}
+
+	public static void reset() {
+		calls.reset();
+	}
+}
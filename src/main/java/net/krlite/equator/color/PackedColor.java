@@ -0,0 +1,176 @@
+package net.krlite.equator.color;
+
+import com.scrtwpns.Mixbox;
+import net.krlite.equator.color.core.BasicRGBA;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * <h2>Packed Color</h2>
+ * Static operations on colors packed into a 32-bit ARGB {@code int}, the same layout as
+ * {@link BasicRGBA#toColorInt()}. Packed colors never allocate, which makes them suitable for
+ * hot paths, but they are limited to 8 bits per channel and carry no transparency flag:
+ * {@link PreciseColor#TRANSPARENT} packs into {@link #TRANSPARENT}, an all-zero color.
+ */
+public class PackedColor {
+	public static final int WHITE = 0xFFFFFFFF;
+	public static final int BLACK = 0xFF000000;
+	public static final int TRANSPARENT = 0;
+
+	public static int of(@Range(from = 0, to = 255) int red, @Range(from = 0, to = 255) int green,
+						 @Range(from = 0, to = 255) int blue, @Range(from = 0, to = 255) int alpha) {
+		return (clamp(alpha) << 24) | (clamp(red) << 16) | (clamp(green) << 8) | clamp(blue);
+	}
+
+	public static int of(@Range(from = 0, to = 255) int red, @Range(from = 0, to = 255) int green,
+						 @Range(from = 0, to = 255) int blue) {
+		return of(red, green, blue, 0xFF);
+	}
+
+	public static int of(double red, double green, double blue, double alpha) {
+		return of((int) (red * 255), (int) (green * 255), (int) (blue * 255), (int) (alpha * 255));
+	}
+
+	public static int of(@NotNull BasicRGBA<?> color) {
+		return of(color.getRedInt(), color.getGreenInt(), color.getBlueInt(), color.getAlphaInt());
+	}
+
+	public static PreciseColor toPreciseColor(int color) {
+		return PreciseColor.of(red(color), green(color), blue(color), alpha(color));
+	}
+
+	public static int red(int color) {
+		return (color >> 16) & 0xFF;
+	}
+
+	public static int green(int color) {
+		return (color >> 8) & 0xFF;
+	}
+
+	public static int blue(int color) {
+		return color & 0xFF;
+	}
+
+	public static int alpha(int color) {
+		return color >>> 24;
+	}
+
+	public static float redFloat(int color) {
+		return red(color) / 255F;
+	}
+
+	public static float greenFloat(int color) {
+		return green(color) / 255F;
+	}
+
+	public static float blueFloat(int color) {
+		return blue(color) / 255F;
+	}
+
+	public static float alphaFloat(int color) {
+		return alpha(color) / 255F;
+	}
+
+	public static int withRed(int color, @Range(from = 0, to = 255) int red) {
+		return (color & 0xFF00FFFF) | (clamp(red) << 16);
+	}
+
+	public static int withGreen(int color, @Range(from = 0, to = 255) int green) {
+		return (color & 0xFFFF00FF) | (clamp(green) << 8);
+	}
+
+	public static int withBlue(int color, @Range(from = 0, to = 255) int blue) {
+		return (color & 0xFFFFFF00) | clamp(blue);
+	}
+
+	public static int withAlpha(int color, @Range(from = 0, to = 255) int alpha) {
+		return (color & 0x00FFFFFF) | (clamp(alpha) << 24);
+	}
+
+	public static int withOpacity(int color, double opacity) {
+		return withAlpha(color, (int) (Math.max(0, Math.min(1, opacity)) * 255));
+	}
+
+	/**
+	 * Blends two packed colors linearly in RGB, channel by channel.
+	 * @param first		The first color.
+	 * @param second	The second color.
+	 * @param ratio		The ratio of the second color, clamped between {@code 0} and {@code 1}.
+	 * @return			The blended color.
+	 */
+	public static int blend(int first, int second, double ratio) {
+		int weight = (int) Math.round(Math.max(0, Math.min(1, ratio)) * 256);
+		return (blendChannel(alpha(first), alpha(second), weight) << 24) | (blendChannel(red(first), red(second), weight) << 16)
+					   | (blendChannel(green(first), green(second), weight) << 8) | blendChannel(blue(first), blue(second), weight);
+	}
+
+	public static int blend(int first, int second) {
+		return blend(first, second, 0.5);
+	}
+
+	/**
+	 * Mixes two packed colors as pigments through Mixbox, or through the {@link MixCache#global() global}
+	 * {@link MixCache} if there is one. The alpha is blended linearly.
+	 * @param first		The first color.
+	 * @param second	The second color.
+	 * @param ratio		The ratio of the second color, clamped between {@code 0} and {@code 1}.
+	 * @return			The mixed color.
+	 */
+	public static int mix(int first, int second, double ratio) {
+		MixCache cache = MixCache.global();
+		if (cache != null) return cache.mix(first, second, ratio);
+
+		ratio = Math.max(0, Math.min(1, ratio));
+		int alpha = blendChannel(alpha(first), alpha(second), (int) Math.round(ratio * 256));
+		MixboxCounter.count(1);
+		return withAlpha(Mixbox.lerp(first, second, (float) ratio), alpha);
+	}
+
+	public static int mix(int first, int second) {
+		return mix(first, second, 0.5);
+	}
+
+	public static int blendOrMix(int first, int second, double ratio, boolean pigmentMix) {
+		return pigmentMix ? mix(first, second, ratio) : blend(first, second, ratio);
+	}
+
+	/**
+	 * Blends the color channels towards white by a tenth, as {@link BasicRGBA#brighter()} does.
+	 */
+	public static int brighter(int color) {
+		return blend(color, withAlpha(WHITE, alpha(color)), 0.1);
+	}
+
+	/**
+	 * Blends the color channels towards black by a tenth, as {@link BasicRGBA#dimmer()} does.
+	 */
+	public static int dimmer(int color) {
+		return blend(color, withAlpha(BLACK, alpha(color)), 0.1);
+	}
+
+	/**
+	 * Scales the color channels, keeping the alpha.
+	 * @param color		The color.
+	 * @param factor	The factor to multiply each color channel by.
+	 * @return			The brightened color, clamped.
+	 */
+	public static int brighten(int color, double factor) {
+		return of((int) (red(color) * factor), (int) (green(color) * factor), (int) (blue(color) * factor), alpha(color));
+	}
+
+	/**
+	 * Multiplies two colors channel by channel, as a tint does.
+	 */
+	public static int multiply(int first, int second) {
+		return of(red(first) * red(second) / 255, green(first) * green(second) / 255,
+				blue(first) * blue(second) / 255, alpha(first) * alpha(second) / 255);
+	}
+
+	private static int blendChannel(int first, int second, int weight) {
+		return (first * (256 - weight) + second * weight + 128) >> 8;
+	}
+
+	private static int clamp(int value) {
+		return Math.max(0, Math.min(255, value));
+	}
+}
@@ -1,6 +1,9 @@
 package net.krlite.equator.color.core;
 
 import com.scrtwpns.Mixbox;
+import net.krlite.equator.color.MixCache;
+import net.krlite.equator.color.MixboxCounter;
+import net.krlite.equator.color.PackedColor;
 import net.krlite.equator.core.ShortStringable;
 import net.krlite.equator.core.SimpleOperations;
 import org.jetbrains.annotations.NotNull;
@@ -68,7 +71,7 @@ public interface BasicRGBA<C extends BasicRGBA<C>> extends ShortStringable, Simp
 	}
 
 	default int toColorInt() {
-		return toColor().getRGB();
+		return PackedColor.of(this);
 	}
 
 	default String toColorHex() {
@@ -161,6 +164,9 @@ public interface BasicRGBA<C extends BasicRGBA<C>> extends ShortStringable, Simp
 		}
 		if (!hasColor())
 			return withOpacity(blendValue(getAlpha(), another.getAlpha(), ratio));
+		MixCache cache = MixCache.global();
+		if (cache != null) return cache.mix(this, another, ratio);
+		MixboxCounter.count(1);
 		float[] mixed = Mixbox.lerpFloat(new float[]{getRedFloat(), getGreenFloat(), getBlueFloat(), getAlphaFloat()},
 				new float[]{another.getRedFloat(), another.getGreenFloat(), another.getBlueFloat(), another.getAlphaFloat()},
 				(float) ratio);
@@ -0,0 +1,118 @@
+package net.krlite.equator.color.core;
+
+import com.scrtwpns.Mixbox;
+import net.krlite.equator.color.MixboxCounter;
+
+/**
+ * <h2>Pigment LUT</h2>
+ * A lookup table of the Mixbox pigment polynomial, which converts the first three pigment
+ * concentrations of a latent color back into RGB. The table is sampled by the pigment core
+ * shader, and the sampling is mirrored here as the CPU reference of the shader.
+ * <br />
+ * The table is laid out as {@link #RESOLUTION} slices along the third concentration, each slice
+ * being a {@link #RESOLUTION}x{@link #RESOLUTION} tile, with {@link #TILES} tiles per row.
+ * <br />
+ * The polynomial overshoots {@code [0, 1]} wherever the residual of a latent color brings it back,
+ * so it is baked unclamped, encoded from the range between {@link #MIN} and {@link #MAX}, and only
+ * clamped once the residual is added.
+ */
+public class PigmentLut {
+	public static final int RESOLUTION = 32, TILES = 8;
+	public static final int WIDTH = RESOLUTION * TILES, HEIGHT = RESOLUTION * (RESOLUTION / TILES);
+	public static final float MIN = -0.5F, MAX = 1.5F;
+
+	private static byte[] table;
+
+	private static synchronized byte[] table() {
+		if (table == null) {
+			byte[] baked = new byte[3 * RESOLUTION * RESOLUTION * RESOLUTION];
+			float[] lower = new float[Mixbox.LATENT_SIZE], upper = new float[Mixbox.LATENT_SIZE];
+			// Mixbox only returns the polynomial clamped, so it is evaluated shifted into [0, 1] from both ends of the range,
+			// which spans at most 2 and therefore leaves one of the shifts unclamped anywhere within it
+			for (int channel = 4; channel < 7; channel++) {
+				lower[channel] = 1 - MAX;
+				upper[channel] = -MIN;
+			}
+
+			for (int k = 0; k < RESOLUTION; k++) for (int j = 0; j < RESOLUTION; j++) for (int i = 0; i < RESOLUTION; i++) {
+				lower[0] = upper[0] = (float) i / (RESOLUTION - 1);
+				lower[1] = upper[1] = (float) j / (RESOLUTION - 1);
+				lower[2] = upper[2] = (float) k / (RESOLUTION - 1);
+				lower[3] = upper[3] = 1 - lower[0] - lower[1] - lower[2];
+
+				float[] shiftedDown = Mixbox.latentToFloatRgb(lower), shiftedUp = Mixbox.latentToFloatRgb(upper);
+				int index = 3 * index(i, j, k);
+				for (int channel = 0; channel < 3; channel++) {
+					// Beyond the range, both shifts are clamped and so is the value
+					float value = shiftedUp[channel] < 1 ? shiftedUp[channel] - upper[4 + channel] : shiftedDown[channel] - lower[4 + channel];
+					baked[index + channel] = (byte) Math.round((Math.max(MIN, Math.min(MAX, value)) - MIN) / (MAX - MIN) * 255);
+				}
+			}
+			table = baked;
+			MixboxCounter.count(2 * RESOLUTION * RESOLUTION * RESOLUTION);
+		}
+		return table;
+	}
+
+	private static int index(int i, int j, int k) {
+		return (k * RESOLUTION + j) * RESOLUTION + i;
+	}
+
+	/**
+	 * Gets a texel of the laid out table, as the ABGR color a {@code NativeImage} accepts.
+	 * @param x	The x coordinate in the texture.
+	 * @param y	The y coordinate in the texture.
+	 * @return	The texel in ABGR, encoded from the range between {@link #MIN} and {@link #MAX}.
+	 */
+	public static int texel(int x, int y) {
+		int i = x % RESOLUTION, j = y % RESOLUTION, k = (y / RESOLUTION) * TILES + x / RESOLUTION;
+		int index = 3 * index(i, j, k);
+		byte[] table = table();
+		return 0xFF << 24 | (table[index + 2] & 0xFF) << 16 | (table[index + 1] & 0xFF) << 8 | (table[index] & 0xFF);
+	}
+
+	private static float fetch(int i, int j, int k, int channel) {
+		return MIN + (MAX - MIN) * (table()[3 * index(i, j, k) + channel] & 0xFF) / 255F;
+	}
+
+	/**
+	 * Samples the table trilinearly, exactly as the pigment shader does.
+	 * @param c0	The first pigment concentration.
+	 * @param c1	The second pigment concentration.
+	 * @param c2	The third pigment concentration.
+	 * @return		The RGB of the pigments, without the residual, and therefore not clamped yet.
+	 */
+	public static float[] sample(float c0, float c1, float c2) {
+		float x = Math.max(0, Math.min(1, c0)) * (RESOLUTION - 1),
+				y = Math.max(0, Math.min(1, c1)) * (RESOLUTION - 1),
+				z = Math.max(0, Math.min(1, c2)) * (RESOLUTION - 1);
+		int i = Math.min((int) x, RESOLUTION - 2), j = Math.min((int) y, RESOLUTION - 2), k = Math.min((int) z, RESOLUTION - 2);
+		float fx = x - i, fy = y - j, fz = z - k;
+
+		float[] rgb = new float[3];
+		for (int channel = 0; channel < 3; channel++) {
+			float c00 = lerp(fetch(i, j, k, channel), fetch(i + 1, j, k, channel), fx),
+					c10 = lerp(fetch(i, j + 1, k, channel), fetch(i + 1, j + 1, k, channel), fx),
+					c01 = lerp(fetch(i, j, k + 1, channel), fetch(i + 1, j, k + 1, channel), fx),
+					c11 = lerp(fetch(i, j + 1, k + 1, channel), fetch(i + 1, j + 1, k + 1, channel), fx);
+			rgb[channel] = lerp(lerp(c00, c10, fy), lerp(c01, c11, fy), fz);
+		}
+		return rgb;
+	}
+
+	/**
+	 * Converts a latent color back into RGB through the table.
+	 * @param latent	The latent color, as produced by {@link Mixbox#rgbToLatent(int)}.
+	 * @return			The RGB color.
+	 */
+	public static float[] latentToRgb(float[] latent) {
+		float[] rgb = sample(latent[0], latent[1], latent[2]);
+		for (int channel = 0; channel < 3; channel++)
+			rgb[channel] = Math.max(0, Math.min(1, rgb[channel] + latent[4 + channel]));
+		return rgb;
+	}
+
+	static float lerp(float first, float second, float ratio) {
+		return first * (1 - ratio) + second * ratio;
+	}
+}
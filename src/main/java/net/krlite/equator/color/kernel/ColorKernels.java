@@ -0,0 +1,105 @@
+package net.krlite.equator.color.kernel;
+
+/**
+ * <h2>Color Kernels</h2>
+ * Bulk operations on arrays of colors, stored as consecutive RGBA {@code float} channels between
+ * {@code 0} and {@code 1}. {@link #get()} provides a SIMD implementation on the Java Vector API
+ * when the {@code jdk.incubator.vector} module is enabled, and a scalar fallback otherwise.
+ * <br />
+ * The SIMD implementation may differ from the scalar one by a rounding error, as it uses fused
+ * multiply-adds.
+ */
+public interface ColorKernels {
+	/**
+	 * Set this system property to {@code false} to force the scalar fallback.
+	 */
+	String PROPERTY = "equator.vectorKernels";
+
+	static ColorKernels get() {
+		return Holder.INSTANCE;
+	}
+
+	static ColorKernels scalar() {
+		return ScalarColorKernels.INSTANCE;
+	}
+
+	/**
+	 * Whether this implementation runs on the Java Vector API.
+	 */
+	boolean vectorized();
+
+	/**
+	 * Blends two arrays linearly, element by element.
+	 * @param from		The elements to blend from.
+	 * @param to		The elements to blend to.
+	 * @param ratios	The ratios of {@code to}, one per element.
+	 * @param out		The array to store the results in, which may be {@code from} or {@code to}.
+	 * @param length	The number of elements.
+	 */
+	void blend(float[] from, float[] to, float[] ratios, float[] out, int length);
+
+	/**
+	 * Blends two arrays linearly by the same ratio.
+	 * @see #blend(float[], float[], float[], float[], int)
+	 */
+	void blend(float[] from, float[] to, float ratio, float[] out, int length);
+
+	/**
+	 * Multiplies the color channels of every color by its alpha, in place.
+	 * @param rgba		The colors.
+	 * @param length	The number of channels, a multiple of {@code 4}.
+	 */
+	void premultiply(float[] rgba, int length);
+
+	/**
+	 * Multiplies the alpha of every color, in place.
+	 * @param rgba		The colors.
+	 * @param opacity	The factor to multiply the alpha by.
+	 * @param length	The number of channels, a multiple of {@code 4}.
+	 */
+	void fade(float[] rgba, float opacity, int length);
+
+	/**
+	 * Clamps every element between {@code 0} and {@code 1}, in place.
+	 * @param values	The elements.
+	 * @param length	The number of elements.
+	 */
+	void clamp(float[] values, int length);
+
+	/**
+	 * Converts colors into packed ARGB {@code int}s, as {@link net.krlite.equator.color.PackedColor} does.
+	 * @param rgba	The colors.
+	 * @param out	The array to store the packed colors in.
+	 * @param count	The number of colors.
+	 */
+	void pack(float[] rgba, int[] out, int count);
+
+	/**
+	 * Converts packed ARGB {@code int}s into colors.
+	 * @param packed	The packed colors.
+	 * @param out		The array to store the colors in.
+	 * @param count		The number of colors.
+	 */
+	void unpack(int[] packed, float[] out, int count);
+
+	final class Holder {
+		private static final ColorKernels INSTANCE = load();
+
+		private Holder() {
+		}
+
+		private static ColorKernels load() {
+			if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))
+						|| ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+				return ScalarColorKernels.INSTANCE;
+
+			try {
+				// Loaded reflectively, so that nothing links against the incubator module when it is absent
+				Class<?> kernels = Class.forName(ColorKernels.class.getPackageName() + ".VectorColorKernels");
+				return (ColorKernels) kernels.getMethod("create").invoke(null);
+			} catch (ReflectiveOperationException | LinkageError | ClassCastException exception) {
+				return ScalarColorKernels.INSTANCE;
+			}
+		}
+	}
+}
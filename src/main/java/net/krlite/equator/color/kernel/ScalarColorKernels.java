@@ -0,0 +1,91 @@
+package net.krlite.equator.color.kernel;
+
+/**
+ * The scalar {@link ColorKernels}, used when the Java Vector API is unavailable, and for the
+ * tails of the arrays that do not fill a whole vector.
+ */
+class ScalarColorKernels implements ColorKernels {
+	static final ScalarColorKernels INSTANCE = new ScalarColorKernels();
+
+	ScalarColorKernels() {
+	}
+
+	@Override
+	public boolean vectorized() {
+		return false;
+	}
+
+	@Override
+	public void blend(float[] from, float[] to, float[] ratios, float[] out, int length) {
+		blend(from, to, ratios, out, 0, length);
+	}
+
+	void blend(float[] from, float[] to, float[] ratios, float[] out, int begin, int end) {
+		for (int i = begin; i < end; i++) out[i] = from[i] + (to[i] - from[i]) * ratios[i];
+	}
+
+	@Override
+	public void blend(float[] from, float[] to, float ratio, float[] out, int length) {
+		blend(from, to, ratio, out, 0, length);
+	}
+
+	void blend(float[] from, float[] to, float ratio, float[] out, int begin, int end) {
+		for (int i = begin; i < end; i++) out[i] = from[i] + (to[i] - from[i]) * ratio;
+	}
+
+	@Override
+	public void premultiply(float[] rgba, int length) {
+		premultiply(rgba, 0, length);
+	}
+
+	void premultiply(float[] rgba, int begin, int end) {
+		for (int i = begin; i < end; i += 4) {
+			float alpha = rgba[i + 3];
+			rgba[i] *= alpha;
+			rgba[i + 1] *= alpha;
+			rgba[i + 2] *= alpha;
+		}
+	}
+
+	@Override
+	public void fade(float[] rgba, float opacity, int length) {
+		fade(rgba, opacity, 0, length);
+	}
+
+	void fade(float[] rgba, float opacity, int begin, int end) {
+		for (int i = begin + 3; i < end; i += 4) rgba[i] *= opacity;
+	}
+
+	@Override
+	public void clamp(float[] values, int length) {
+		clamp(values, 0, length);
+	}
+
+	void clamp(float[] values, int begin, int end) {
+		for (int i = begin; i < end; i++) values[i] = Math.max(0, Math.min(1, values[i]));
+	}
+
+	@Override
+	public void pack(float[] rgba, int[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			int channel = 4 * i;
+			out[i] = channel(rgba[channel + 3]) << 24 | channel(rgba[channel]) << 16
+							 | channel(rgba[channel + 1]) << 8 | channel(rgba[channel + 2]);
+		}
+	}
+
+	private static int channel(float value) {
+		return Math.max(0, Math.min(255, (int) (value * 255)));
+	}
+
+	@Override
+	public void unpack(int[] packed, float[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			int color = packed[i], channel = 4 * i;
+			out[channel] = ((color >> 16) & 0xFF) / 255F;
+			out[channel + 1] = ((color >> 8) & 0xFF) / 255F;
+			out[channel + 2] = (color & 0xFF) / 255F;
+			out[channel + 3] = (color >>> 24) / 255F;
+		}
+	}
+}
@@ -2,10 +2,13 @@ package net.krlite.equator.debug;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.krlite.equator.EquatorLib;
+import net.krlite.equator.color.PackedColor;
 import net.krlite.equator.color.PreciseColor;
 import net.krlite.equator.geometry.Node;
 import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.geometry.RectBuffer;
 import net.krlite.equator.math.EasingFunctions;
+import net.krlite.equator.render.DrawMetrics;
 import net.krlite.equator.render.Equator;
 import net.krlite.equator.render.sprite.IdentifierSprite;
 import net.krlite.equator.util.IdentifierBuilder;
@@ -14,23 +17,81 @@ import net.krlite.equator.util.Timer;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class CanvasScreen extends Screen {
 	public static final IdentifierSprite FLASH = IdentifierBuilder.sprite(EquatorLib.MOD_ID, "debug", "flash");
 	public static final IdentifierSprite GRAYSCALE = IdentifierBuilder.sprite(EquatorLib.MOD_ID, "debug", "grayscale");
 	public static final IdentifierSprite BUBBLE = IdentifierBuilder.sprite(EquatorLib.MOD_ID, "debug", "bubble");
 
+	// The frame time at the top of the graph, which is twice the frame time of 60 FPS
+	private static final double GRAPH_MILLIS = 2000 / 60.0;
+
 	private final Screen parent;
 	private final Timer bounce = new Timer(2000), swing = new Timer(1900);
+	private final RectBuffer graph = new RectBuffer(DrawMetrics.HISTORY);
 
 	public CanvasScreen(Screen parent) {
 		super(Text.literal("Canvas"));
 		this.parent = parent;
 	}
 
+	@Override
+	protected void init() {
+		DrawMetrics.enable();
+	}
+
+	@Override
+	public void removed() {
+		DrawMetrics.disable();
+	}
+
 	@Override
 	public void render(MatrixStack matrixStack, int mouseX, int mouseY, float delta) {
 		renderCanvas(matrixStack, mouseX, mouseY, delta);
+		DrawMetrics.Snapshot snapshot = DrawMetrics.endFrame();
+		if (snapshot != null) renderMetrics(matrixStack, snapshot);
+	}
+
+	/**
+	 * Renders the {@link DrawMetrics} of the frame before, with the frame times of the history as a graph.
+	 */
+	public void renderMetrics(MatrixStack matrixStack, DrawMetrics.Snapshot snapshot) {
+		List<String> lines = new ArrayList<>(List.of(
+				String.format("%.2f ms, %d draws, %d vertices, %d KiB vertices", snapshot.frameMillis(),
+						snapshot.draws(), snapshot.vertices(), snapshot.vertexBytes() / 1024),
+				String.format("%d state changes, %d elided", snapshot.stateChanges(), snapshot.elidedStateChanges()),
+				String.format("%d gradients, %d slices, %d deepest", snapshot.gradients(), snapshot.gradientSlices(), snapshot.maxGradientSlices()),
+				String.format("%d Mixbox calls", snapshot.mixboxCalls())
+		));
+		for (DrawMetrics.Site site : DrawMetrics.Site.values()) {
+			DrawMetrics.SiteStats stats = snapshot.site(site);
+			lines.add(String.format("%s: %d draws, %d vertices, %.3f ms, %d KiB", site, stats.draws(),
+					stats.vertices(), stats.nanos() / 1_000_000.0, stats.allocatedBytes() / 1024));
+		}
+
+		int lineHeight = textRenderer.fontHeight + 1, graphHeight = 40;
+		double width = 240, height = lines.size() * lineHeight + graphHeight + 12;
+		Equator.Painter painter = new Equator.Painter(matrixStack);
+		painter.paint(new Rect(4, 4, width, height), 0xB0000000);
+
+		Equator.Writer writer = new Equator.Writer(matrixStack);
+		for (int i = 0; i < lines.size(); i++)
+			writer.write(Text.literal(lines.get(i)), 0xFFFFFFFF, new Vec3d(8, 8 + i * lineHeight, 0), 1, false);
+
+		// One bar per frame, the newest at the right
+		List<DrawMetrics.Snapshot> history = DrawMetrics.history();
+		double barWidth = (width - 8) / DrawMetrics.HISTORY, bottom = 8 + lines.size() * lineHeight + graphHeight;
+		graph.clear();
+		for (int i = 0; i < history.size(); i++) {
+			double millis = history.get(i).frameMillis(), barHeight = Math.min(1, millis / GRAPH_MILLIS) * graphHeight;
+			int color = millis > GRAPH_MILLIS / 2 ? PackedColor.of(1, 0.3, 0.3, 1) : PackedColor.of(0.3, 1, 0.3, 1);
+			graph.add(8 + (DrawMetrics.HISTORY - history.size() + i) * barWidth, bottom - barHeight, barWidth, barHeight, color);
+		}
+		painter.paint(new Rect(8, bottom - graphHeight / 2.0, width - 8, 0.5), 0x80FFFFFF).paint(graph);
 	}
 
 	public void renderCanvas(MatrixStack matrixStack, int mouseX, int mouseY, float delta) {
@@ -0,0 +1,86 @@
+package net.krlite.equator.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>Geometry Pool</h2>
+ * A thread-confined pool of scratch {@link MutableNode}s and {@link MutableRect}s. Everything
+ * borrowed inside a scope is returned when the scope closes, and the pool itself is the scope,
+ * so the following allocates nothing once the pool has grown:
+ * <pre>{@code
+ * try (GeometryPool pool = GeometryPool.open()) {
+ *     MutableRect rect = pool.rect(rect).rotateByCenter(45);
+ *     ...
+ * }
+ * }</pre>
+ * Borrowed instances must not escape their scope, and the pool must not be shared between threads.
+ */
+public class GeometryPool implements AutoCloseable {
+	private static final ThreadLocal<GeometryPool> POOL = ThreadLocal.withInitial(GeometryPool::new);
+
+	/**
+	 * Opens a scope on the pool of the current thread.
+	 * @return	The pool of the current thread, to be closed when the scope ends.
+	 */
+	public static GeometryPool open() {
+		GeometryPool pool = POOL.get();
+		pool.push();
+		return pool;
+	}
+
+	private final List<MutableNode> nodes = new ArrayList<>();
+	private final List<MutableRect> rects = new ArrayList<>();
+	private int nodeCount, rectCount, depth;
+	private int[] marks = new int[2 * 8];
+
+	private GeometryPool() {
+	}
+
+	private void push() {
+		if (2 * depth == marks.length) marks = Arrays.copyOf(marks, marks.length * 2);
+		marks[2 * depth] = nodeCount;
+		marks[2 * depth + 1] = rectCount;
+		depth++;
+	}
+
+	public MutableNode node() {
+		if (depth == 0) throw new IllegalStateException("The geometry pool is not open");
+		if (nodeCount == nodes.size()) nodes.add(new MutableNode());
+		return nodes.get(nodeCount++);
+	}
+
+	public MutableNode node(double x, double y) {
+		return node().set(x, y);
+	}
+
+	public MutableNode node(Node node) {
+		return node().set(node);
+	}
+
+	public MutableRect rect() {
+		if (depth == 0) throw new IllegalStateException("The geometry pool is not open");
+		if (rectCount == rects.size()) rects.add(new MutableRect());
+		return rects.get(rectCount++);
+	}
+
+	public MutableRect rect(double x, double y, double width, double height) {
+		return rect().set(x, y, width, height);
+	}
+
+	public MutableRect rect(Rect rect) {
+		return rect().set(rect);
+	}
+
+	/**
+	 * Closes the innermost scope, returning everything borrowed inside it.
+	 */
+	@Override
+	public void close() {
+		if (depth == 0) throw new IllegalStateException("The geometry pool is not open");
+		depth--;
+		nodeCount = marks[2 * depth];
+		rectCount = marks[2 * depth + 1];
+	}
+}
@@ -0,0 +1,110 @@
+package net.krlite.equator.geometry;
+
+import net.krlite.equator.core.ShortStringable;
+import net.krlite.equator.core.SimpleOperations;
+
+/**
+ * <h2>Mutable Node</h2>
+ * A mutable counterpart of {@link Node}, whose transforms modify it in place and return itself,
+ * so that geometry built every frame produces no garbage. Borrow scratch instances from a
+ * {@link GeometryPool} and convert back with {@link #toNode()} where an immutable
+ * {@link Node} is needed.
+ */
+public class MutableNode implements ShortStringable, SimpleOperations {
+	protected double x, y;
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public MutableNode(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public MutableNode(Node node) {
+		this(node.getX(), node.getY());
+	}
+
+	public MutableNode() {
+		this(0, 0);
+	}
+
+	public Node toNode() {
+		return new Node(x, y);
+	}
+
+	public MutableNode set(double x, double y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	public MutableNode set(Node node) {
+		return set(node.getX(), node.getY());
+	}
+
+	public MutableNode set(MutableNode another) {
+		return set(another.x, another.y);
+	}
+
+	public double distanceTo(double x, double y) {
+		return Math.hypot(x - this.x, y - this.y);
+	}
+
+	public double distanceTo(MutableNode another) {
+		return distanceTo(another.x, another.y);
+	}
+
+	public double crossWith(MutableNode n1, MutableNode n2) {
+		return (n2.x - n1.x) * (y - n1.y) - (n2.y - n1.y) * (x - n1.x);
+	}
+
+	public MutableNode shift(double x, double y) {
+		return set(this.x + x, this.y + y);
+	}
+
+	public MutableNode scaleBy(double originX, double originY, double scale) {
+		return set(originX + (x - originX) * scale, originY + (y - originY) * scale);
+	}
+
+	public MutableNode scaleBy(MutableNode origin, double scale) {
+		return scaleBy(origin.x, origin.y, scale);
+	}
+
+	public MutableNode interpolate(double x, double y, double ratio) {
+		return set(blendValue(this.x, x, ratio), blendValue(this.y, y, ratio));
+	}
+
+	public MutableNode interpolate(MutableNode another, double ratio) {
+		return interpolate(another.x, another.y, ratio);
+	}
+
+	/**
+	 * Rotates this node around an origin by a precomputed rotation.
+	 * @param originX	The x coordinate of the origin.
+	 * @param originY	The y coordinate of the origin.
+	 * @param cos		The cosine of the angle.
+	 * @param sin		The sine of the angle.
+	 * @return			This node.
+	 */
+	public MutableNode rotateBy(double originX, double originY, double cos, double sin) {
+		double x = this.x - originX, y = this.y - originY;
+		return set(x * cos - y * sin + originX, x * sin + y * cos + originY);
+	}
+
+	/**
+	 * Rotates this node around an origin, as {@link Node#rotateBy(Node, double)} does.
+	 * @param origin	The origin.
+	 * @param angle		The angle in degrees.
+	 * @return			This node.
+	 */
+	public MutableNode rotateBy(MutableNode origin, double angle) {
+		angle = Math.toRadians(angle);
+		return rotateBy(origin.x, origin.y, Math.cos(angle), Math.sin(angle));
+	}
+}
@@ -0,0 +1,266 @@
+package net.krlite.equator.geometry;
+
+import net.krlite.equator.core.ShortStringable;
+import net.krlite.equator.core.SimpleOperations;
+
+/**
+ * <h2>Mutable Rect</h2>
+ * A mutable counterpart of {@link Rect}, made of four {@link MutableNode}s. Every transform
+ * modifies the rect in place and returns itself, mirroring the immutable transforms of
+ * {@link Rect} without allocating. Borrow scratch instances from a {@link GeometryPool} and
+ * convert back with {@link #toRect()} where an immutable {@link Rect} is needed.
+ */
+public class MutableRect implements ShortStringable, SimpleOperations {
+	protected final MutableNode leftTop = new MutableNode(), leftBottom = new MutableNode(),
+			rightBottom = new MutableNode(), rightTop = new MutableNode();
+
+	public MutableNode getLeftTop() {
+		return leftTop;
+	}
+
+	public MutableNode getLeftBottom() {
+		return leftBottom;
+	}
+
+	public MutableNode getRightBottom() {
+		return rightBottom;
+	}
+
+	public MutableNode getRightTop() {
+		return rightTop;
+	}
+
+	public double getX() {
+		return leftTop.getX();
+	}
+
+	public double getY() {
+		return leftTop.getY();
+	}
+
+	public double getCenterX() {
+		return getX() + getWidth() / 2;
+	}
+
+	public double getCenterY() {
+		return getY() + getHeight() / 2;
+	}
+
+	public double getWidth() {
+		return leftTop.distanceTo(rightTop);
+	}
+
+	public double getHeight() {
+		return leftTop.distanceTo(leftBottom);
+	}
+
+	public MutableRect(double x, double y, double width, double height) {
+		set(x, y, width, height);
+	}
+
+	public MutableRect(Rect rect) {
+		set(rect);
+	}
+
+	public MutableRect() {
+		this(0, 0, 0, 0);
+	}
+
+	public Rect toRect() {
+		return new Rect(leftTop.toNode(), leftBottom.toNode(), rightBottom.toNode(), rightTop.toNode());
+	}
+
+	public MutableRect set(double x, double y, double width, double height) {
+		leftTop.set(x, y);
+		leftBottom.set(x, y + height);
+		rightBottom.set(x + width, y + height);
+		rightTop.set(x + width, y);
+		return this;
+	}
+
+	public MutableRect set(Rect rect) {
+		leftTop.set(rect.getLeftTop());
+		leftBottom.set(rect.getLeftBottom());
+		rightBottom.set(rect.getRightBottom());
+		rightTop.set(rect.getRightTop());
+		return this;
+	}
+
+	public MutableRect set(MutableRect another) {
+		leftTop.set(another.leftTop);
+		leftBottom.set(another.leftBottom);
+		rightBottom.set(another.rightBottom);
+		rightTop.set(another.rightTop);
+		return this;
+	}
+
+	public boolean contains(double x, double y) {
+		return cross(x, y, leftBottom, leftTop) * cross(x, y, rightTop, rightBottom) >= 0
+				&& cross(x, y, leftTop, rightTop) * cross(x, y, rightBottom, leftBottom) >= 0;
+	}
+
+	public boolean contains(MutableNode node) {
+		return contains(node.x, node.y);
+	}
+
+	private static double cross(double x, double y, MutableNode n1, MutableNode n2) {
+		return (n2.x - n1.x) * (y - n1.y) - (n2.y - n1.y) * (x - n1.x);
+	}
+
+	public MutableRect shift(double x, double y) {
+		leftTop.shift(x, y);
+		leftBottom.shift(x, y);
+		rightBottom.shift(x, y);
+		rightTop.shift(x, y);
+		return this;
+	}
+
+	public MutableRect scaleBy(double originX, double originY, double scale) {
+		leftTop.scaleBy(originX, originY, scale);
+		leftBottom.scaleBy(originX, originY, scale);
+		rightBottom.scaleBy(originX, originY, scale);
+		rightTop.scaleBy(originX, originY, scale);
+		return this;
+	}
+
+	public MutableRect scaleBy(MutableNode origin, double scale) {
+		return scaleBy(origin.x, origin.y, scale);
+	}
+
+	public MutableRect scaleByCenter(double scale) {
+		return scaleBy(getCenterX(), getCenterY(), scale);
+	}
+
+	public MutableRect interpolate(MutableRect another, double ratio) {
+		leftTop.interpolate(another.leftTop, ratio);
+		leftBottom.interpolate(another.leftBottom, ratio);
+		rightBottom.interpolate(another.rightBottom, ratio);
+		rightTop.interpolate(another.rightTop, ratio);
+		return this;
+	}
+
+	/**
+	 * Rotates this rect around an origin, computing the sine and cosine only once.
+	 * @param originX	The x coordinate of the origin.
+	 * @param originY	The y coordinate of the origin.
+	 * @param angle		The angle in degrees.
+	 * @return			This rect.
+	 */
+	public MutableRect rotateBy(double originX, double originY, double angle) {
+		return rotateBy(originX, originY, Rotation.of(angle));
+	}
+
+	/**
+	 * Rotates this rect around an origin by a precomputed {@link Rotation}.
+	 * @param originX	The x coordinate of the origin.
+	 * @param originY	The y coordinate of the origin.
+	 * @param rotation	The rotation.
+	 * @return			This rect.
+	 */
+	public MutableRect rotateBy(double originX, double originY, Rotation rotation) {
+		leftTop.rotateBy(originX, originY, rotation.cos(), rotation.sin());
+		leftBottom.rotateBy(originX, originY, rotation.cos(), rotation.sin());
+		rightBottom.rotateBy(originX, originY, rotation.cos(), rotation.sin());
+		rightTop.rotateBy(originX, originY, rotation.cos(), rotation.sin());
+		return this;
+	}
+
+	public MutableRect rotateBy(MutableNode origin, double angle) {
+		return rotateBy(origin.x, origin.y, angle);
+	}
+
+	public MutableRect rotateByLeftTop(double angle) {
+		return rotateBy(leftTop.x, leftTop.y, angle);
+	}
+
+	public MutableRect rotateByCenter(double angle) {
+		return rotateBy(getCenterX(), getCenterY(), angle);
+	}
+
+	public MutableRect transform(Transform2d transform) {
+		return transform.apply(this);
+	}
+
+	public MutableRect squeezeTop(double ratio) {
+		leftTop.interpolate(leftBottom, ratio);
+		rightTop.interpolate(rightBottom, ratio);
+		return this;
+	}
+
+	public MutableRect squeezeBottom(double ratio) {
+		leftBottom.interpolate(leftTop, ratio);
+		rightBottom.interpolate(rightTop, ratio);
+		return this;
+	}
+
+	public MutableRect squeezeLeft(double ratio) {
+		leftTop.interpolate(rightTop, ratio);
+		leftBottom.interpolate(rightBottom, ratio);
+		return this;
+	}
+
+	public MutableRect squeezeRight(double ratio) {
+		rightBottom.interpolate(leftBottom, ratio);
+		rightTop.interpolate(leftTop, ratio);
+		return this;
+	}
+
+	public MutableRect topHalf() {
+		return squeezeBottom(0.5);
+	}
+
+	public MutableRect bottomHalf() {
+		return squeezeTop(0.5);
+	}
+
+	public MutableRect leftHalf() {
+		return squeezeRight(0.5);
+	}
+
+	public MutableRect rightHalf() {
+		return squeezeLeft(0.5);
+	}
+
+	/**
+	 * Sets a node to a point of this rect, as {@link Rect#meshNode(double, double)} does.
+	 * @param target	The node to set.
+	 * @param u			The horizontal ratio.
+	 * @param v			The vertical ratio.
+	 * @return			The target node.
+	 */
+	public MutableNode meshNode(MutableNode target, double u, double v) {
+		double topX = blendValue(leftTop.x, rightTop.x, u), topY = blendValue(leftTop.y, rightTop.y, u),
+				bottomX = blendValue(leftBottom.x, rightBottom.x, u), bottomY = blendValue(leftBottom.y, rightBottom.y, u);
+		return target.set(blendValue(topX, bottomX, v), blendValue(topY, bottomY, v));
+	}
+
+	/**
+	 * Shrinks this rect to a part of itself, as {@link Rect#mesh(double, double, double, double)} does.
+	 */
+	public MutableRect mesh(double uBegin, double vBegin, double uEnd, double vEnd) {
+		double ltX = leftTop.x, ltY = leftTop.y, lbX = leftBottom.x, lbY = leftBottom.y,
+				rbX = rightBottom.x, rbY = rightBottom.y, rtX = rightTop.x, rtY = rightTop.y;
+		leftTop.set(mesh(ltX, lbX, rbX, rtX, uBegin, vBegin), mesh(ltY, lbY, rbY, rtY, uBegin, vBegin));
+		leftBottom.set(mesh(ltX, lbX, rbX, rtX, uBegin, vEnd), mesh(ltY, lbY, rbY, rtY, uBegin, vEnd));
+		rightBottom.set(mesh(ltX, lbX, rbX, rtX, uEnd, vEnd), mesh(ltY, lbY, rbY, rtY, uEnd, vEnd));
+		rightTop.set(mesh(ltX, lbX, rbX, rtX, uEnd, vBegin), mesh(ltY, lbY, rbY, rtY, uEnd, vBegin));
+		return this;
+	}
+
+	private double mesh(double lt, double lb, double rb, double rt, double u, double v) {
+		return blendValue(blendValue(lt, rt, u), blendValue(lb, rb, u), v);
+	}
+
+	public MutableRect meshByGrid(int xGrid, int yGrid, int xStep, int yStep) {
+		xGrid = Math.max(xGrid, 1);
+		yGrid = Math.max(yGrid, 1);
+		xStep = Math.min(Math.max(xStep, 1), xGrid);
+		yStep = Math.min(Math.max(yStep, 1), yGrid);
+		return mesh((double) (xStep - 1) / xGrid, (double) (yStep - 1) / yGrid,
+				(double) xStep / xGrid, (double) yStep / yGrid);
+	}
+
+	public MutableRect meshByGrid(int grid, int step) {
+		return meshByGrid(grid, grid, step, step);
+	}
+}
@@ -129,18 +129,25 @@ public class Node extends HashCodeComparable implements ShortStringable, SimpleO
 	}
 
 	public Node rotate(Node another, double angle) {
-		angle = Math.toRadians(angle);
-		double cos = Math.cos(angle);
-		double sin = Math.sin(angle);
-		double x = another.getX() - getX();
-		double y = another.getY() - getY();
-		return new Node(x * cos - y * sin + getX(), x * sin + y * cos + getY());
+		return rotate(another, Rotation.of(angle));
+	}
+
+	public Node rotate(Node another, Rotation rotation) {
+		return rotation.apply(this, another);
 	}
 
 	public Node rotateBy(Node origin, double angle) {
 		return origin.rotate(this, angle);
 	}
 
+	public Node rotateBy(Node origin, Rotation rotation) {
+		return origin.rotate(this, rotation);
+	}
+
+	public Node transform(Transform2d transform) {
+		return transform.apply(this);
+	}
+
 	public class Tinted extends PreciseColor implements Operatable<Node, Tinted> {
 		public static Tinted of(Node node, BasicRGBA<?> tint) {
 			return node.new Tinted(tint);
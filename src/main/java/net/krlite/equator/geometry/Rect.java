@@ -184,8 +184,18 @@ public class Rect extends HashCodeComparable implements ShortStringable, SimpleO
 	}
 
 	public Rect rotateBy(Node origin, double angle) {
-		return new Rect(origin.rotate(getLeftTop(), angle), origin.rotate(getLeftBottom(), angle),
-				origin.rotate(getRightBottom(), angle), origin.rotate(getRightTop(), angle));
+		return rotateBy(origin, Rotation.of(angle));
+	}
+
+	public Rect rotateBy(Node origin, Rotation rotation) {
+		return rotation.apply(origin, this);
+	}
+
+	/**
+	 * Applies a {@link Transform2d}, folding any number of shifts, scales and rotations into a single step.
+	 */
+	public Rect transform(Transform2d transform) {
+		return transform.apply(this);
 	}
 
 	public Rect rotateByTop(double angle) {
@@ -0,0 +1,363 @@
+package net.krlite.equator.geometry;
+
+import net.krlite.equator.color.PackedColor;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.color.kernel.ColorKernels;
+import net.minecraft.client.render.VertexConsumer;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * <h2>Rect Buffer</h2>
+ * A structure-of-arrays store of tinted quads, for laying out hundreds of rects per frame
+ * without a {@link Rect} and four {@link Node}s each. The corners of every quad are stored in
+ * {@link #LEFT_TOP}, {@link #LEFT_BOTTOM}, {@link #RIGHT_BOTTOM}, {@link #RIGHT_TOP} order, with the
+ * coordinates in flat {@code double} arrays and the colors as RGBA in a flat {@code float} array.
+ * <br />
+ * The bulk transforms apply to the whole buffer in plain loops over the arrays, which the JIT
+ * can unroll and vectorise, and the colors go through {@link ColorKernels}.
+ */
+public class RectBuffer {
+	public static final int LEFT_TOP = 0, LEFT_BOTTOM = 1, RIGHT_BOTTOM = 2, RIGHT_TOP = 3;
+	public static final int CORNERS = 4;
+
+	private double[] xs, ys;
+	private float[] colors;
+	private int size;
+
+	public RectBuffer(int capacity) {
+		capacity = Math.max(capacity, 1);
+		xs = new double[CORNERS * capacity];
+		ys = new double[CORNERS * capacity];
+		colors = new float[4 * CORNERS * capacity];
+	}
+
+	public RectBuffer() {
+		this(64);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return xs.length / CORNERS;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	private void ensureCapacity(int rects) {
+		if (rects <= capacity()) return;
+		int capacity = Math.max(rects, capacity() * 2);
+		xs = Arrays.copyOf(xs, CORNERS * capacity);
+		ys = Arrays.copyOf(ys, CORNERS * capacity);
+		colors = Arrays.copyOf(colors, 4 * CORNERS * capacity);
+	}
+
+	private int allocate() {
+		ensureCapacity(size + 1);
+		return size++;
+	}
+
+	// Adding
+
+	public int add(double x, double y, double width, double height, int color) {
+		int index = allocate();
+		setCorner(index, LEFT_TOP, x, y, color);
+		setCorner(index, LEFT_BOTTOM, x, y + height, color);
+		setCorner(index, RIGHT_BOTTOM, x + width, y + height, color);
+		setCorner(index, RIGHT_TOP, x + width, y, color);
+		return index;
+	}
+
+	public int add(Rect rect, int leftTop, int leftBottom, int rightBottom, int rightTop) {
+		int index = allocate();
+		setCorner(index, LEFT_TOP, rect.getLeftTop().getX(), rect.getLeftTop().getY(), leftTop);
+		setCorner(index, LEFT_BOTTOM, rect.getLeftBottom().getX(), rect.getLeftBottom().getY(), leftBottom);
+		setCorner(index, RIGHT_BOTTOM, rect.getRightBottom().getX(), rect.getRightBottom().getY(), rightBottom);
+		setCorner(index, RIGHT_TOP, rect.getRightTop().getX(), rect.getRightTop().getY(), rightTop);
+		return index;
+	}
+
+	public int add(Rect rect, int color) {
+		return add(rect, color, color, color, color);
+	}
+
+	public int add(Rect.Tinted tinted) {
+		Rect.Tinted cut = tinted.cut();
+		return add(cut.getRect(), cut.getLeftTop().toColorInt(), cut.getLeftBottom().toColorInt(),
+				cut.getRightBottom().toColorInt(), cut.getRightTop().toColorInt());
+	}
+
+	public int add(MutableRect rect, int color) {
+		int index = allocate();
+		setCorner(index, LEFT_TOP, rect.getLeftTop().getX(), rect.getLeftTop().getY(), color);
+		setCorner(index, LEFT_BOTTOM, rect.getLeftBottom().getX(), rect.getLeftBottom().getY(), color);
+		setCorner(index, RIGHT_BOTTOM, rect.getRightBottom().getX(), rect.getRightBottom().getY(), color);
+		setCorner(index, RIGHT_TOP, rect.getRightTop().getX(), rect.getRightTop().getY(), color);
+		return index;
+	}
+
+	// Accessing
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+	}
+
+	public void setCorner(int index, int corner, double x, double y, int color) {
+		int vertex = CORNERS * index + corner;
+		xs[vertex] = x;
+		ys[vertex] = y;
+		setColor(index, corner, color);
+	}
+
+	public void setColor(int index, int corner, int color) {
+		int channel = 4 * (CORNERS * index + corner);
+		colors[channel] = PackedColor.redFloat(color);
+		colors[channel + 1] = PackedColor.greenFloat(color);
+		colors[channel + 2] = PackedColor.blueFloat(color);
+		colors[channel + 3] = PackedColor.alphaFloat(color);
+	}
+
+	public void setColor(int index, BasicRGBA<?> color) {
+		int packed = color.toColorInt();
+		for (int corner = 0; corner < CORNERS; corner++) setColor(index, corner, packed);
+	}
+
+	public double getX(int index, int corner) {
+		checkIndex(index);
+		return xs[CORNERS * index + corner];
+	}
+
+	public double getY(int index, int corner) {
+		checkIndex(index);
+		return ys[CORNERS * index + corner];
+	}
+
+	public int getColor(int index, int corner) {
+		checkIndex(index);
+		int channel = 4 * (CORNERS * index + corner);
+		return PackedColor.of(colors[channel], colors[channel + 1], colors[channel + 2], colors[channel + 3]);
+	}
+
+	public Rect getRect(int index) {
+		checkIndex(index);
+		int vertex = CORNERS * index;
+		return new Rect(new Node(xs[vertex], ys[vertex]), new Node(xs[vertex + 1], ys[vertex + 1]),
+				new Node(xs[vertex + 2], ys[vertex + 2]), new Node(xs[vertex + 3], ys[vertex + 3]));
+	}
+
+	/**
+	 * The raw coordinates and colors, for kernels that process the whole buffer at once.
+	 * Only the first {@code size() * CORNERS} coordinates and {@code size() * CORNERS * 4}
+	 * color channels are valid.
+	 */
+	public double[] xs() {
+		return xs;
+	}
+
+	public double[] ys() {
+		return ys;
+	}
+
+	public float[] colors() {
+		return colors;
+	}
+
+	// Bulk transforms
+
+	public RectBuffer shift(double x, double y) {
+		int vertices = CORNERS * size;
+		for (int i = 0; i < vertices; i++) xs[i] += x;
+		for (int i = 0; i < vertices; i++) ys[i] += y;
+		return this;
+	}
+
+	public RectBuffer scaleBy(double originX, double originY, double scale) {
+		int vertices = CORNERS * size;
+		for (int i = 0; i < vertices; i++) xs[i] = originX + (xs[i] - originX) * scale;
+		for (int i = 0; i < vertices; i++) ys[i] = originY + (ys[i] - originY) * scale;
+		return this;
+	}
+
+	public RectBuffer scaleBy(Node origin, double scale) {
+		return scaleBy(origin.getX(), origin.getY(), scale);
+	}
+
+	/**
+	 * Rotates every quad around the same origin.
+	 * @param originX	The x coordinate of the origin.
+	 * @param originY	The y coordinate of the origin.
+	 * @param angle		The angle in degrees.
+	 * @return			This buffer.
+	 */
+	public RectBuffer rotateBy(double originX, double originY, double angle) {
+		return rotateBy(originX, originY, Rotation.of(angle));
+	}
+
+	/**
+	 * Rotates every quad around the same origin by a precomputed {@link Rotation}.
+	 * @param originX	The x coordinate of the origin.
+	 * @param originY	The y coordinate of the origin.
+	 * @param rotation	The rotation.
+	 * @return			This buffer.
+	 */
+	public RectBuffer rotateBy(double originX, double originY, Rotation rotation) {
+		double cos = rotation.cos(), sin = rotation.sin();
+		int vertices = CORNERS * size;
+		for (int i = 0; i < vertices; i++) {
+			double x = xs[i] - originX, y = ys[i] - originY;
+			xs[i] = x * cos - y * sin + originX;
+			ys[i] = x * sin + y * cos + originY;
+		}
+		return this;
+	}
+
+	public RectBuffer rotateBy(Node origin, double angle) {
+		return rotateBy(origin.getX(), origin.getY(), angle);
+	}
+
+	/**
+	 * Rotates every quad around its own center.
+	 * @param angle	The angle in degrees.
+	 * @return		This buffer.
+	 */
+	public RectBuffer rotateByCenters(double angle) {
+		return rotateByCenters(Rotation.of(angle));
+	}
+
+	/**
+	 * Rotates every quad around its own center by a precomputed {@link Rotation}.
+	 * @param rotation	The rotation.
+	 * @return			This buffer.
+	 */
+	public RectBuffer rotateByCenters(Rotation rotation) {
+		double cos = rotation.cos(), sin = rotation.sin();
+		for (int index = 0; index < size; index++) {
+			int vertex = CORNERS * index;
+			double centerX = (xs[vertex] + xs[vertex + 1] + xs[vertex + 2] + xs[vertex + 3]) / 4,
+					centerY = (ys[vertex] + ys[vertex + 1] + ys[vertex + 2] + ys[vertex + 3]) / 4;
+			for (int i = vertex; i < vertex + CORNERS; i++) {
+				double x = xs[i] - centerX, y = ys[i] - centerY;
+				xs[i] = x * cos - y * sin + centerX;
+				ys[i] = x * sin + y * cos + centerY;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Applies a {@link Transform2d} to every quad, in a single pass over the coordinates.
+	 * @param transform	The transform.
+	 * @return			This buffer.
+	 */
+	public RectBuffer transform(Transform2d transform) {
+		int vertices = CORNERS * size;
+		for (int i = 0; i < vertices; i++) {
+			double x = xs[i], y = ys[i];
+			xs[i] = transform.applyX(x, y);
+			ys[i] = transform.applyY(x, y);
+		}
+		return this;
+	}
+
+	/**
+	 * Interpolates the coordinates and colors of every quad towards the quad of the same index
+	 * in another buffer.
+	 * @param another	The buffer to interpolate towards, which must be at least as large as this one.
+	 * @param ratio		The ratio, clamped between {@code 0} and {@code 1}.
+	 * @return			This buffer.
+	 */
+	public RectBuffer interpolate(RectBuffer another, double ratio) {
+		if (another.size < size) throw new IllegalArgumentException("Cannot interpolate towards a smaller buffer");
+		double r = Math.max(0, Math.min(1, ratio)), q = 1 - r;
+		int vertices = CORNERS * size;
+		for (int i = 0; i < vertices; i++) xs[i] = xs[i] * q + another.xs[i] * r;
+		for (int i = 0; i < vertices; i++) ys[i] = ys[i] * q + another.ys[i] * r;
+		ColorKernels.get().blend(colors, another.colors, (float) r, colors, 4 * vertices);
+		return this;
+	}
+
+	/**
+	 * Multiplies the alpha of every corner.
+	 * @param opacity	The factor to multiply the alpha by.
+	 * @return			This buffer.
+	 */
+	public RectBuffer fade(float opacity) {
+		ColorKernels.get().fade(colors, opacity, 4 * CORNERS * size);
+		return this;
+	}
+
+	// Hit testing
+
+	/**
+	 * Tests every quad for containing a point, as {@link Rect#contains(Node)} does.
+	 * @param x			The x coordinate of the point.
+	 * @param y			The y coordinate of the point.
+	 * @param result	The array to store the results in, at least {@link #size()} long.
+	 * @return			The number of quads containing the point.
+	 */
+	public int contains(double x, double y, boolean[] result) {
+		int count = 0;
+		for (int index = 0; index < size; index++) {
+			result[index] = contains(index, x, y);
+			if (result[index]) count++;
+		}
+		return count;
+	}
+
+	public boolean contains(int index, double x, double y) {
+		int lt = CORNERS * index + LEFT_TOP, lb = CORNERS * index + LEFT_BOTTOM,
+				rb = CORNERS * index + RIGHT_BOTTOM, rt = CORNERS * index + RIGHT_TOP;
+		return cross(x, y, lb, lt) * cross(x, y, rt, rb) >= 0 && cross(x, y, lt, rt) * cross(x, y, rb, lb) >= 0;
+	}
+
+	/**
+	 * @return	The index of the last added, thus topmost, quad containing the point, or {@code -1} if there is none.
+	 */
+	public int lastContaining(double x, double y) {
+		for (int index = size - 1; index >= 0; index--)
+			if (contains(index, x, y)) return index;
+		return -1;
+	}
+
+	private double cross(double x, double y, int v1, int v2) {
+		return (xs[v2] - xs[v1]) * (y - ys[v1]) - (ys[v2] - ys[v1]) * (x - xs[v1]);
+	}
+
+	// Uploading
+
+	/**
+	 * Emits every quad to a {@link VertexConsumer} in the {@code POSITION_COLOR} format, as quads
+	 * in the same winding as {@code Equator.Painter}.
+	 * @param consumer	The {@link VertexConsumer} to emit to.
+	 * @param matrix	The position matrix to transform the vertices by.
+	 */
+	public void emit(VertexConsumer consumer, Matrix4f matrix) {
+		for (int index = 0; index < size; index++) {
+			int vertex = CORNERS * index;
+			emit(consumer, matrix, vertex + RIGHT_TOP);
+			emit(consumer, matrix, vertex + LEFT_TOP);
+			emit(consumer, matrix, vertex + LEFT_BOTTOM);
+			emit(consumer, matrix, vertex + RIGHT_BOTTOM);
+		}
+	}
+
+	private void emit(VertexConsumer consumer, Matrix4f matrix, int vertex) {
+		// Transformed inline, as VertexConsumer#vertex(Matrix4f, ...) allocates a vector per vertex
+		float x = (float) xs[vertex], y = (float) ys[vertex];
+		int channel = 4 * vertex;
+		consumer.vertex(
+				matrix.m00() * x + matrix.m10() * y + matrix.m30(),
+				matrix.m01() * x + matrix.m11() * y + matrix.m31(),
+				matrix.m02() * x + matrix.m12() * y + matrix.m32()
+		).color(colors[channel], colors[channel + 1], colors[channel + 2], colors[channel + 3]).next();
+	}
+}
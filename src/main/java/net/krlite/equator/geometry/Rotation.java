@@ -0,0 +1,92 @@
+package net.krlite.equator.geometry;
+
+import net.krlite.equator.core.ShortStringable;
+import net.krlite.equator.math.SineTable;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <h2>Rotation</h2>
+ * A rotation by a fixed angle, keeping only its cosine and sine, so that rotating any number of
+ * nodes and rects by the same angle computes the trigonometry once:
+ * <pre>{@code
+ * Rotation rotation = Rotation.of(angle);
+ * for (Rect rect : rects) rotated.add(rotation.apply(origin, rect));
+ * }</pre>
+ * Angles are in degrees and rotate clockwise on the screen, as in {@link Node#rotate(Node, double)}.
+ * @param cos	The cosine of the angle.
+ * @param sin	The sine of the angle.
+ */
+public record Rotation(double cos, double sin) implements ShortStringable {
+	public static final Rotation IDENTITY = new Rotation(1, 0);
+
+	@Contract("_ -> new")
+	public static Rotation of(double angle) {
+		angle = Math.toRadians(angle);
+		return new Rotation(Math.cos(angle), Math.sin(angle));
+	}
+
+	/**
+	 * Creates a rotation by the step of a {@link SineTable} nearest to an angle, which skips the
+	 * trigonometry entirely for animated angles that change every frame.
+	 */
+	@Contract("_, _ -> new")
+	public static Rotation of(double angle, @NotNull SineTable table) {
+		return new Rotation(table.cos(angle), table.sin(angle));
+	}
+
+	/**
+	 * @return	The angle in degrees, between {@code -180} and {@code 180}.
+	 */
+	public double angle() {
+		return Math.toDegrees(Math.atan2(sin, cos));
+	}
+
+	@Contract("-> new")
+	public Rotation inverse() {
+		return new Rotation(cos, -sin);
+	}
+
+	/**
+	 * @return	The rotation by this angle followed by the angle of another.
+	 */
+	@Contract("_ -> new")
+	public Rotation then(@NotNull Rotation another) {
+		return new Rotation(cos * another.cos - sin * another.sin, sin * another.cos + cos * another.sin);
+	}
+
+	public double applyX(double originX, double originY, double x, double y) {
+		return (x - originX) * cos - (y - originY) * sin + originX;
+	}
+
+	public double applyY(double originX, double originY, double x, double y) {
+		return (x - originX) * sin + (y - originY) * cos + originY;
+	}
+
+	@Contract("_, _ -> new")
+	public Node apply(@NotNull Node origin, @NotNull Node node) {
+		return new Node(applyX(origin.getX(), origin.getY(), node.getX(), node.getY()),
+				applyY(origin.getX(), origin.getY(), node.getX(), node.getY()));
+	}
+
+	@Contract("_, _ -> new")
+	public Rect apply(@NotNull Node origin, @NotNull Rect rect) {
+		return new Rect(apply(origin, rect.getLeftTop()), apply(origin, rect.getLeftBottom()),
+				apply(origin, rect.getRightBottom()), apply(origin, rect.getRightTop()));
+	}
+
+	@Contract("_, _, _ -> param3")
+	public MutableNode apply(double originX, double originY, @NotNull MutableNode node) {
+		return node.rotateBy(originX, originY, cos, sin);
+	}
+
+	@Contract("_, _, _ -> param3")
+	public MutableRect apply(double originX, double originY, @NotNull MutableRect rect) {
+		return rect.rotateBy(originX, originY, this);
+	}
+
+	@Contract("_, _, _ -> param3")
+	public RectBuffer apply(double originX, double originY, @NotNull RectBuffer buffer) {
+		return buffer.rotateBy(originX, originY, this);
+	}
+}
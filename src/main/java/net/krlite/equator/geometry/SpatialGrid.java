@@ -0,0 +1,329 @@
+package net.krlite.equator.geometry;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>Spatial Grid</h2>
+ * A uniform grid over the bounding boxes of {@link Rect}s, for hit-testing many, possibly rotated,
+ * rects without scanning all of them. Every value is kept in the cells its bounding box covers,
+ * so a point query only tests the values of a single cell, and range and nearest queries only
+ * visit the cells they reach.
+ * <br />
+ * The grid is unbounded, as its cells are hashed. The cell size should be around the size of
+ * a typical rect: much smaller cells store large rects many times, while much larger cells
+ * degrade queries towards a linear scan.
+ * <br />
+ * Queries exactly test {@link Rect#contains(Node)} and {@link Rect#distanceTo(Node)} after
+ * the bounding boxes, and return values in the order they were first inserted, so the last
+ * value containing a point is the topmost one to hit. The grid must not be shared between threads.
+ * @param <T>	The type of the values.
+ */
+public class SpatialGrid<T> {
+	private static final class Entry<T> {
+		private final T value;
+		private final long order;
+		// The corners in left top, left bottom, right bottom, right top order
+		private final double[] corners = new double[8];
+		private double minX, minY, maxX, maxY;
+		private int stamp;
+
+		private Entry(T value, long order) {
+			this.value = value;
+			this.order = order;
+		}
+
+		private void set(Rect rect) {
+			corners[0] = rect.getLeftTop().getX();
+			corners[1] = rect.getLeftTop().getY();
+			corners[2] = rect.getLeftBottom().getX();
+			corners[3] = rect.getLeftBottom().getY();
+			corners[4] = rect.getRightBottom().getX();
+			corners[5] = rect.getRightBottom().getY();
+			corners[6] = rect.getRightTop().getX();
+			corners[7] = rect.getRightTop().getY();
+
+			minX = Math.min(Math.min(corners[0], corners[2]), Math.min(corners[4], corners[6]));
+			minY = Math.min(Math.min(corners[1], corners[3]), Math.min(corners[5], corners[7]));
+			maxX = Math.max(Math.max(corners[0], corners[2]), Math.max(corners[4], corners[6]));
+			maxY = Math.max(Math.max(corners[1], corners[3]), Math.max(corners[5], corners[7]));
+		}
+
+		private double cross(int first, int second, double x, double y) {
+			return (corners[second] - corners[first]) * (y - corners[first + 1]) - (corners[second + 1] - corners[first + 1]) * (x - corners[first]);
+		}
+
+		// Mirrors Rect#contains
+		private boolean contains(double x, double y) {
+			if (x < minX || x > maxX || y < minY || y > maxY) return false;
+			return cross(2, 0, x, y) * cross(6, 4, x, y) >= 0 && cross(0, 6, x, y) * cross(4, 2, x, y) >= 0;
+		}
+
+		// Mirrors Rect#distanceTo
+		private double distanceTo(double x, double y) {
+			if (contains(x, y)) return 0;
+			double distance = Double.MAX_VALUE;
+			for (int corner = 0; corner < 8; corner += 2)
+				distance = Math.min(distance, Math.hypot(corners[corner] - x, corners[corner + 1] - y));
+			return distance;
+		}
+
+		private boolean overlaps(double minX, double minY, double maxX, double maxY) {
+			return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+		}
+	}
+
+	private static final Comparator<Entry<?>> ORDER = Comparator.comparingLong(entry -> entry.order);
+
+	private final double cellSize;
+	private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+	private final Map<T, Entry<T>> entries = new HashMap<>();
+	private long order;
+	private int stamp;
+	// The range of occupied cells, which removals may leave too large until it is shrunk
+	private int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE, maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+	private boolean boundsStale;
+
+	/**
+	 * @param cellSize	The width and height of a cell.
+	 */
+	public SpatialGrid(double cellSize) {
+		if (!(cellSize > 0)) throw new IllegalArgumentException("The cell size must be positive");
+		this.cellSize = cellSize;
+	}
+
+	public double cellSize() {
+		return cellSize;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public boolean contains(@NotNull T value) {
+		return entries.containsKey(value);
+	}
+
+	public void clear() {
+		cells.clear();
+		entries.clear();
+		minCellX = minCellY = Integer.MAX_VALUE;
+		maxCellX = maxCellY = Integer.MIN_VALUE;
+		boundsStale = false;
+	}
+
+	private int cell(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(int cellX, int cellY) {
+		return (long) cellX << 32 | (cellY & 0xFFFFFFFFL);
+	}
+
+	private void link(Entry<T> entry) {
+		int fromX = cell(entry.minX), fromY = cell(entry.minY), toX = cell(entry.maxX), toY = cell(entry.maxY);
+		for (int cellX = fromX; cellX <= toX; cellX++)
+			for (int cellY = fromY; cellY <= toY; cellY++)
+				cells.computeIfAbsent(key(cellX, cellY), key -> new ArrayList<>()).add(entry);
+
+		minCellX = Math.min(minCellX, fromX);
+		minCellY = Math.min(minCellY, fromY);
+		maxCellX = Math.max(maxCellX, toX);
+		maxCellY = Math.max(maxCellY, toY);
+	}
+
+	private void unlink(Entry<T> entry, int fromX, int fromY, int toX, int toY) {
+		for (int cellX = fromX; cellX <= toX; cellX++)
+			for (int cellY = fromY; cellY <= toY; cellY++) {
+				long key = key(cellX, cellY);
+				List<Entry<T>> cell = cells.get(key);
+				if (cell == null) continue;
+				cell.remove(entry);
+				if (cell.isEmpty()) cells.remove(key);
+			}
+
+		// Only an entry reaching the edge of the occupied range can shrink it
+		if (fromX == minCellX || fromY == minCellY || toX == maxCellX || toY == maxCellY) boundsStale = true;
+	}
+
+	private void shrinkBounds() {
+		if (!boundsStale) return;
+		boundsStale = false;
+
+		minCellX = minCellY = Integer.MAX_VALUE;
+		maxCellX = maxCellY = Integer.MIN_VALUE;
+		for (long key : cells.keySet()) {
+			int cellX = (int) (key >> 32), cellY = (int) key;
+			minCellX = Math.min(minCellX, cellX);
+			minCellY = Math.min(minCellY, cellY);
+			maxCellX = Math.max(maxCellX, cellX);
+			maxCellY = Math.max(maxCellY, cellY);
+		}
+	}
+
+	/**
+	 * Inserts a value, or {@link #update(Object, Rect) updates} it if it is already in the grid.
+	 */
+	@Contract("_, _ -> this")
+	public SpatialGrid<T> insert(@NotNull T value, @NotNull Rect rect) {
+		if (entries.containsKey(value)) return update(value, rect);
+
+		Entry<T> entry = new Entry<>(value, order++);
+		entry.set(rect);
+		entries.put(value, entry);
+		link(entry);
+		return this;
+	}
+
+	/**
+	 * Moves a value to a new rect, keeping its order. Values staying within the same cells are not relinked.
+	 */
+	@Contract("_, _ -> this")
+	public SpatialGrid<T> update(@NotNull T value, @NotNull Rect rect) {
+		Entry<T> entry = entries.get(value);
+		if (entry == null) return insert(value, rect);
+
+		int fromX = cell(entry.minX), fromY = cell(entry.minY), toX = cell(entry.maxX), toY = cell(entry.maxY);
+		entry.set(rect);
+		if (cell(entry.minX) == fromX && cell(entry.minY) == fromY && cell(entry.maxX) == toX && cell(entry.maxY) == toY) return this;
+
+		unlink(entry, fromX, fromY, toX, toY);
+		link(entry);
+		return this;
+	}
+
+	/**
+	 * @return	Whether the value was in the grid.
+	 */
+	public boolean remove(@NotNull T value) {
+		Entry<T> entry = entries.remove(value);
+		if (entry == null) return false;
+		unlink(entry, cell(entry.minX), cell(entry.minY), cell(entry.maxX), cell(entry.maxY));
+		return true;
+	}
+
+	/**
+	 * Finds the values whose rects contain a point.
+	 * @return	The values, in the order they were inserted.
+	 */
+	public List<T> query(double x, double y) {
+		List<Entry<T>> cell = cells.get(key(cell(x), cell(y)));
+		if (cell == null) return List.of();
+
+		List<Entry<T>> hits = new ArrayList<>();
+		for (Entry<T> entry : cell) if (entry.contains(x, y)) hits.add(entry);
+		return values(hits);
+	}
+
+	public List<T> query(@NotNull Node node) {
+		return query(node.getX(), node.getY());
+	}
+
+	/**
+	 * @return	The last inserted value whose rect contains a point, or {@code null} if there is none.
+	 */
+	public @Nullable T topmost(double x, double y) {
+		List<Entry<T>> cell = cells.get(key(cell(x), cell(y)));
+		if (cell == null) return null;
+
+		Entry<T> topmost = null;
+		for (Entry<T> entry : cell)
+			if ((topmost == null || entry.order > topmost.order) && entry.contains(x, y)) topmost = entry;
+		return topmost == null ? null : topmost.value;
+	}
+
+	/**
+	 * Finds the values whose bounding boxes overlap the bounding box of a range.
+	 * @return	The values, in the order they were inserted.
+	 */
+	public List<T> query(@NotNull Rect range) {
+		Entry<T> bounds = new Entry<>(null, -1);
+		bounds.set(range);
+		shrinkBounds();
+
+		int currentStamp = ++stamp;
+		List<Entry<T>> hits = new ArrayList<>();
+		for (int cellX = Math.max(cell(bounds.minX), minCellX); cellX <= Math.min(cell(bounds.maxX), maxCellX); cellX++)
+			for (int cellY = Math.max(cell(bounds.minY), minCellY); cellY <= Math.min(cell(bounds.maxY), maxCellY); cellY++) {
+				List<Entry<T>> cell = cells.get(key(cellX, cellY));
+				if (cell == null) continue;
+
+				for (Entry<T> entry : cell) {
+					// Rects spanning several cells are only reported once
+					if (entry.stamp == currentStamp) continue;
+					entry.stamp = currentStamp;
+					if (entry.overlaps(bounds.minX, bounds.minY, bounds.maxX, bounds.maxY)) hits.add(entry);
+				}
+			}
+		return values(hits);
+	}
+
+	/**
+	 * Finds the value nearest to a point, by {@link Rect#distanceTo(Node)}. The cells are visited
+	 * in rings around the point, from the first ring reaching an occupied cell, and only within the
+	 * occupied cells, until no unvisited cell can be nearer than the nearest value.
+	 * @return	The nearest value, or {@code null} if the grid is empty.
+	 */
+	public @Nullable T nearest(double x, double y) {
+		if (entries.isEmpty()) return null;
+		shrinkBounds();
+
+		int centerX = cell(x), centerY = cell(y), currentStamp = ++stamp;
+		// The nearest and the farthest ring that reach an occupied cell
+		int first = Math.max(Math.max(Math.max(minCellX - centerX, centerX - maxCellX), Math.max(minCellY - centerY, centerY - maxCellY)), 0);
+		int last = Math.max(Math.max(Math.abs(centerX - minCellX), Math.abs(maxCellX - centerX)),
+				Math.max(Math.abs(centerY - minCellY), Math.abs(maxCellY - centerY)));
+
+		Entry<T> nearest = null;
+		double distance = Double.MAX_VALUE;
+		for (int ring = first; ring <= last; ring++) {
+			// Every cell of this ring is at least this far away
+			if (ring > 0 && distance <= (ring - 1) * cellSize) break;
+
+			int fromX = Math.max(centerX - ring, minCellX), toX = Math.min(centerX + ring, maxCellX);
+			for (int cellX = fromX; cellX <= toX; cellX++) {
+				// The edge columns of the ring are visited whole, the others only at their upper and lower cell
+				boolean edge = cellX == centerX - ring || cellX == centerX + ring;
+				int fromY = edge ? Math.max(centerY - ring, minCellY) : centerY - ring, toY = edge ? Math.min(centerY + ring, maxCellY) : centerY + ring;
+				for (int cellY = fromY; cellY <= toY; cellY += edge ? 1 : 2 * ring) {
+					if (cellY < minCellY || cellY > maxCellY) continue;
+
+					List<Entry<T>> cell = cells.get(key(cellX, cellY));
+					if (cell != null) for (Entry<T> entry : cell) {
+						if (entry.stamp == currentStamp) continue;
+						entry.stamp = currentStamp;
+
+						double candidate = entry.distanceTo(x, y);
+						if (candidate < distance || (candidate == distance && nearest != null && entry.order > nearest.order)) {
+							distance = candidate;
+							nearest = entry;
+						}
+					}
+				}
+			}
+		}
+		return nearest == null ? null : nearest.value;
+	}
+
+	public @Nullable T nearest(@NotNull Node node) {
+		return nearest(node.getX(), node.getY());
+	}
+
+	private static <T> List<T> values(List<Entry<T>> hits) {
+		if (hits.size() > 1) hits.sort(ORDER);
+		List<T> values = new ArrayList<>(hits.size());
+		for (Entry<T> entry : hits) values.add(entry.value);
+		return values;
+	}
+}
@@ -0,0 +1,215 @@
+package net.krlite.equator.geometry;
+
+import net.krlite.equator.core.ShortStringable;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+
+/**
+ * <h2>Transform 2d</h2>
+ * A 2D affine transform, folding a chain of shifts, scales and rotations into a single matrix that
+ * is applied once, instead of allocating a new {@link Rect} and four new {@link Node}s at every step:
+ * <pre>{@code
+ * // Same as rect.shift(4, 0).scaleByCenter(2).rotateByCenter(45)
+ * Transform2d transform = Transform2d.IDENTITY.shift(4, 0).scaleByCenter(rect, 2).rotateByCenter(rect, 45);
+ * painter.paint(rect.tint(color), transform);
+ * }</pre>
+ * Every step is applied after the steps before it, so origins are in the coordinates the previous
+ * steps lead to. The {@code ...ByCenter} steps take the center the transformed rect would report
+ * by {@link Rect#getCenter()}, so a folded chain places the corners exactly as the chained calls do.
+ * <br />
+ * Squeezes and meshes depend on the rect they are applied to and stay on {@link Rect}.
+ * <br />
+ * The components follow {@link Matrix4f}, mapping {@code (x, y)} to
+ * {@code (m00 * x + m10 * y + m30, m01 * x + m11 * y + m31)}.
+ */
+public record Transform2d(double m00, double m01, double m10, double m11, double m30, double m31) implements ShortStringable {
+	public static final Transform2d IDENTITY = new Transform2d(1, 0, 0, 1, 0, 0);
+
+	@Contract("_, _ -> new")
+	public static Transform2d translation(double x, double y) {
+		return new Transform2d(1, 0, 0, 1, x, y);
+	}
+
+	@Contract("_, _ -> new")
+	public static Transform2d scaling(double scaleX, double scaleY) {
+		return new Transform2d(scaleX, 0, 0, scaleY, 0, 0);
+	}
+
+	@Contract("_ -> new")
+	public static Transform2d rotation(@NotNull Rotation rotation) {
+		return new Transform2d(rotation.cos(), rotation.sin(), -rotation.sin(), rotation.cos(), 0, 0);
+	}
+
+	public boolean isIdentity() {
+		return equals(IDENTITY);
+	}
+
+	/**
+	 * @return	The transform applying this transform, then another.
+	 */
+	@Contract("_ -> new")
+	public Transform2d then(@NotNull Transform2d another) {
+		return new Transform2d(
+				another.m00 * m00 + another.m10 * m01, another.m01 * m00 + another.m11 * m01,
+				another.m00 * m10 + another.m10 * m11, another.m01 * m10 + another.m11 * m11,
+				another.m00 * m30 + another.m10 * m31 + another.m30, another.m01 * m30 + another.m11 * m31 + another.m31
+		);
+	}
+
+	public double determinant() {
+		return m00 * m11 - m01 * m10;
+	}
+
+	/**
+	 * @return	The transform undoing this transform.
+	 * @throws IllegalStateException	If this transform collapses the plane, as a scale by {@code 0} does.
+	 */
+	@Contract("-> new")
+	public Transform2d inverse() {
+		double determinant = determinant();
+		if (determinant == 0) throw new IllegalStateException("A degenerate transform cannot be inverted");
+		double i00 = m11 / determinant, i01 = -m01 / determinant, i10 = -m10 / determinant, i11 = m00 / determinant;
+		return new Transform2d(i00, i01, i10, i11, -(i00 * m30 + i10 * m31), -(i01 * m30 + i11 * m31));
+	}
+
+	// Steps
+
+	@Contract("_, _ -> new")
+	public Transform2d shift(double x, double y) {
+		return new Transform2d(m00, m01, m10, m11, m30 + x, m31 + y);
+	}
+
+	@Contract("_ -> new")
+	public Transform2d shift(@NotNull Node another) {
+		return shift(another.getX(), another.getY());
+	}
+
+	@Contract("_, _, _, _ -> new")
+	public Transform2d scaleBy(double originX, double originY, double scaleX, double scaleY) {
+		return new Transform2d(m00 * scaleX, m01 * scaleY, m10 * scaleX, m11 * scaleY,
+				originX + (m30 - originX) * scaleX, originY + (m31 - originY) * scaleY);
+	}
+
+	@Contract("_, _ -> new")
+	public Transform2d scaleBy(@NotNull Node origin, double scale) {
+		return scaleBy(origin.getX(), origin.getY(), scale, scale);
+	}
+
+	/**
+	 * Scales by the center of a rect after the steps before, as {@link Rect#scaleByCenter(double)} does.
+	 */
+	@Contract("_, _ -> new")
+	public Transform2d scaleByCenter(@NotNull Rect rect, double scale) {
+		return scaleBy(centerX(rect), centerY(rect), scale, scale);
+	}
+
+	@Contract("_, _, _ -> new")
+	public Transform2d rotateBy(double originX, double originY, @NotNull Rotation rotation) {
+		double cos = rotation.cos(), sin = rotation.sin(), x = m30 - originX, y = m31 - originY;
+		return new Transform2d(
+				m00 * cos - m01 * sin, m00 * sin + m01 * cos,
+				m10 * cos - m11 * sin, m10 * sin + m11 * cos,
+				x * cos - y * sin + originX, x * sin + y * cos + originY
+		);
+	}
+
+	@Contract("_, _ -> new")
+	public Transform2d rotateBy(@NotNull Node origin, @NotNull Rotation rotation) {
+		return rotateBy(origin.getX(), origin.getY(), rotation);
+	}
+
+	@Contract("_, _ -> new")
+	public Transform2d rotateBy(@NotNull Node origin, double angle) {
+		return rotateBy(origin, Rotation.of(angle));
+	}
+
+	/**
+	 * Rotates by the center of a rect after the steps before, as {@link Rect#rotateByCenter(double)} does.
+	 */
+	@Contract("_, _ -> new")
+	public Transform2d rotateByCenter(@NotNull Rect rect, double angle) {
+		return rotateBy(centerX(rect), centerY(rect), Rotation.of(angle));
+	}
+
+	// Mirrors Rect#getCenter on the transformed corners, without building them
+	private double centerX(Rect rect) {
+		Node leftTop = rect.getLeftTop(), rightTop = rect.getRightTop();
+		return applyX(leftTop.getX(), leftTop.getY()) + Math.hypot(
+				applyX(rightTop.getX(), rightTop.getY()) - applyX(leftTop.getX(), leftTop.getY()),
+				applyY(rightTop.getX(), rightTop.getY()) - applyY(leftTop.getX(), leftTop.getY())
+		) / 2;
+	}
+
+	private double centerY(Rect rect) {
+		Node leftTop = rect.getLeftTop(), leftBottom = rect.getLeftBottom();
+		return applyY(leftTop.getX(), leftTop.getY()) + Math.hypot(
+				applyX(leftBottom.getX(), leftBottom.getY()) - applyX(leftTop.getX(), leftTop.getY()),
+				applyY(leftBottom.getX(), leftBottom.getY()) - applyY(leftTop.getX(), leftTop.getY())
+		) / 2;
+	}
+
+	// Application
+
+	public double applyX(double x, double y) {
+		return m00 * x + m10 * y + m30;
+	}
+
+	public double applyY(double x, double y) {
+		return m01 * x + m11 * y + m31;
+	}
+
+	@Contract("_ -> new")
+	public Node apply(@NotNull Node node) {
+		return new Node(applyX(node.getX(), node.getY()), applyY(node.getX(), node.getY()));
+	}
+
+	@Contract("_ -> new")
+	public Rect apply(@NotNull Rect rect) {
+		return new Rect(apply(rect.getLeftTop()), apply(rect.getLeftBottom()),
+				apply(rect.getRightBottom()), apply(rect.getRightTop()));
+	}
+
+	@Contract("_ -> new")
+	public Rect.Tinted apply(@NotNull Rect.Tinted tinted) {
+		return apply(tinted.getRect()).tint(tinted.getLeftTop(), tinted.getLeftBottom(), tinted.getRightBottom(), tinted.getRightTop());
+	}
+
+	@Contract("_ -> param1")
+	public MutableNode apply(@NotNull MutableNode node) {
+		return node.set(applyX(node.getX(), node.getY()), applyY(node.getX(), node.getY()));
+	}
+
+	@Contract("_ -> param1")
+	public MutableRect apply(@NotNull MutableRect rect) {
+		apply(rect.getLeftTop());
+		apply(rect.getLeftBottom());
+		apply(rect.getRightBottom());
+		apply(rect.getRightTop());
+		return rect;
+	}
+
+	@Contract("_ -> param1")
+	public RectBuffer apply(@NotNull RectBuffer buffer) {
+		return buffer.transform(this);
+	}
+
+	/**
+	 * Multiplies this transform into a position matrix, so that everything emitted through the
+	 * matrix afterwards is transformed on the GPU instead.
+	 */
+	@Contract("_ -> param1")
+	public Matrix4f multiply(@NotNull Matrix4f matrix) {
+		return matrix.mul(toMatrix());
+	}
+
+	@Contract("-> new")
+	public Matrix4f toMatrix() {
+		return new Matrix4f(
+				(float) m00, (float) m01, 0, 0,
+				(float) m10, (float) m11, 0, 0,
+				0, 0, 1, 0,
+				(float) m30, (float) m31, 0, 1
+		);
+	}
+}
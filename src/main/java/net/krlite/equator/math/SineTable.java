@@ -0,0 +1,65 @@
+package net.krlite.equator.math;
+
+/**
+ * A table of sines at evenly spaced angles, for animated rotations that change their angle every
+ * frame and can afford to snap it to the nearest step. A lookup rounds the angle to the nearest
+ * step, so the error of the angle is at most half of {@link #step()}.
+ */
+public class SineTable {
+    /**
+     * A table of {@code 4096} steps per turn, which is about {@code 0.088} degrees per step.
+     */
+    public static final SineTable DEFAULT = new SineTable(4096);
+
+    private final double[] sines;
+    private final int mask;
+
+    /**
+     * Creates a {@link SineTable}.
+     * @param resolution    The number of steps per turn, rounded up to a power of two.
+     */
+    public SineTable(int resolution) {
+        int size = Integer.highestOneBit(Math.max(4, resolution) - 1) << 1;
+        this.sines = new double[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) sines[i] = Math.sin(2 * Math.PI * i / size);
+    }
+
+    /**
+     * Gets the number of steps per turn.
+     * @return  The number of steps per turn.
+     */
+    public int resolution() {
+        return sines.length;
+    }
+
+    /**
+     * Gets the angle between two steps.
+     * @return  The angle in degrees.
+     */
+    public double step() {
+        return 360.0 / sines.length;
+    }
+
+    private int index(double angle) {
+        return (int) (Math.round(angle / 360 * sines.length) & mask);
+    }
+
+    /**
+     * Gets the sine of the step nearest to an angle.
+     * @param angle The angle in degrees.
+     * @return      The sine.
+     */
+    public double sin(double angle) {
+        return sines[index(angle)];
+    }
+
+    /**
+     * Gets the cosine of the step nearest to an angle.
+     * @param angle The angle in degrees.
+     * @return      The cosine.
+     */
+    public double cos(double angle) {
+        return sines[(index(angle) + sines.length / 4) & mask];
+    }
+}
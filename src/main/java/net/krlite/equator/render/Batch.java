@@ -0,0 +1,100 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.render.vertex.VertexSink;
+import net.krlite.equator.render.vertex.VertexStore;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h2>Batch</h2>
+ * Collects the vertices emitted by {@link Equator.Renderer} and {@link Equator.Painter} inside
+ * {@link Equator#batch(Runnable)}, and flushes them into the underlying {@link VertexSink} as
+ * the fewest possible draw calls.
+ * <br />
+ * Vertices are transformed by the matrix stack when they are emitted, and a primitive is only
+ * merged into an earlier run of the same {@link DrawState} if it does not overlap anything drawn
+ * in between, so the result is pixel-identical to immediate mode.
+ */
+public class Batch implements VertexSink {
+	/**
+	 * A sequence of vertices sharing one {@link DrawState}, drawn by a single draw call.
+	 */
+	private record Run(DrawState state, VertexStore vertices) {
+		private Run(DrawState state) {
+			this(state, new VertexStore());
+		}
+	}
+
+	private final VertexSink target;
+	private final List<Run> runs = new ArrayList<>();
+	private final VertexStore primitive = new VertexStore();
+	private @Nullable DrawState pending;
+
+	/**
+	 * @param target	The {@link VertexSink} to flush the merged draw calls into.
+	 */
+	Batch(@NotNull VertexSink target) {
+		this.target = target;
+	}
+
+	@Override
+	public VertexConsumer begin(@NotNull DrawState state) {
+		pending = state;
+		primitive.clear();
+		return primitive;
+	}
+
+	@Override
+	public void end(@NotNull DrawState state) {
+		if (pending == null) throw new IllegalStateException("Not building a primitive");
+		pending = null;
+		if (primitive.count() == 0) return;
+
+		if (state.mergeable()) {
+			// Hoist into the latest run of the same state, as long as nothing drawn after it is overlapped
+			for (int i = runs.size() - 1; i >= 0; i--) {
+				Run run = runs.get(i);
+				if (run.state.equals(state)) {
+					run.vertices.append(primitive);
+					return;
+				}
+				if (run.vertices.overlaps(primitive)) break;
+			}
+		}
+
+		Run run = new Run(state);
+		run.vertices.append(primitive);
+		runs.add(run);
+	}
+
+	@Override
+	public double pixelsPerUnit() {
+		return target.pixelsPerUnit();
+	}
+
+	@Override
+	public boolean batching() {
+		return true;
+	}
+
+	@Override
+	public boolean headless() {
+		return target.headless();
+	}
+
+	void flush() {
+		// Nothing else draws between the runs, so the states shared by consecutive runs are applied once
+		RenderStateTracker.getInstance().session(() -> {
+			for (Run run : runs) {
+				DrawState state = run.state;
+				run.vertices.replay(target.begin(state), state.uvMapped(), state.colorful());
+				target.end(state);
+			}
+		});
+		runs.clear();
+	}
+}
@@ -0,0 +1,203 @@
+package net.krlite.equator.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.render.vertex.BufferVertexSink;
+import net.krlite.equator.render.vertex.MemoryVertexSink;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.util.math.MatrixStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <h2>Display List</h2>
+ * A sequence of {@link Equator.Renderer} and {@link Equator.Painter} calls, recorded once into
+ * persistent GPU vertex buffers and replayed every frame at the cost of one draw call per
+ * distinct {@link DrawState}, no matter how many calls were recorded.
+ * <br />
+ * The recorded calls are batched, and their vertices are transformed by the matrix stacks they
+ * were drawn with. A replay can be transformed and tinted on top, which only changes the
+ * model-view matrix and the shader color, so scrolling and fading need no re-recording.
+ * <pre>{@code
+ * DisplayList list = DisplayList.record(() -> painter.paint(...).paint(...));
+ * list.render(scroll, null);
+ * list.close();
+ * }</pre>
+ * Everything here must run on the render thread.
+ * @see Cache
+ */
+public class DisplayList implements AutoCloseable {
+	/**
+	 * Records a drawing into a new display list.
+	 * @param drawing	The drawing to record.
+	 * @return			The recorded display list, to be closed when no longer used.
+	 */
+	public static DisplayList record(@NotNull Runnable drawing) {
+		RenderSystem.assertOnRenderThread();
+		MemoryVertexSink recorder = new MemoryVertexSink(BufferVertexSink.INSTANCE.pixelsPerUnit(), false);
+		Equator.withSink(recorder, () -> Equator.batch(drawing));
+
+		List<Draw> draws = new ArrayList<>(recorder.drawCount());
+		for (int draw = 0; draw < recorder.drawCount(); draw++) {
+			if (recorder.vertexCount(draw) == 0) continue;
+			DrawState state = recorder.state(draw);
+
+			BufferBuilder builder = Tessellator.getInstance().getBuffer();
+			builder.begin(state.drawMode(), state.format());
+			recorder.vertices().replay(builder, recorder.firstVertex(draw), recorder.vertexCount(draw), state.uvMapped(), state.colorful());
+
+			VertexBuffer buffer = new VertexBuffer();
+			buffer.bind();
+			buffer.upload(builder.end());
+			VertexBuffer.unbind();
+			draws.add(new Draw(state, buffer));
+		}
+		return new DisplayList(draws, recorder.vertexCount());
+	}
+
+	private record Draw(DrawState state, VertexBuffer buffer) {
+	}
+
+	private final List<Draw> draws;
+	private final int vertexCount;
+	private final Matrix4f modelView = new Matrix4f();
+	private boolean closed;
+
+	private DisplayList(List<Draw> draws, int vertexCount) {
+		this.draws = draws;
+		this.vertexCount = vertexCount;
+	}
+
+	/**
+	 * @return	The number of draw calls a replay issues.
+	 */
+	public int drawCount() {
+		return draws.size();
+	}
+
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Replays the recorded calls.
+	 * @param transform	The transform to apply on top of the recorded vertices, or {@code null} for none.
+	 * @param tint		The tint to multiply every color by, or {@code null} for none.
+	 */
+	public void render(@Nullable Matrix4f transform, @Nullable BasicRGBA<?> tint) {
+		if (closed) throw new IllegalStateException("The display list is closed");
+		RenderSystem.assertOnRenderThread();
+
+		modelView.set(RenderSystem.getModelViewMatrix());
+		if (transform != null) modelView.mul(transform);
+
+		// The shader color of the caller, which every draw without its own is drawn with
+		float[] shaderColor = RenderSystem.getShaderColor();
+		DrawState.ShaderColor ambient = new DrawState.ShaderColor(shaderColor[0], shaderColor[1], shaderColor[2], shaderColor[3]);
+
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		tracker.session(() -> {
+			for (Draw draw : draws) {
+				draw.state.apply();
+				DrawState.ShaderColor color = draw.state.shaderColor() != null ? draw.state.shaderColor() : ambient;
+				if (tint != null) color = new DrawState.ShaderColor(color.red() * tint.getRedFloat(), color.green() * tint.getGreenFloat(),
+						color.blue() * tint.getBlueFloat(), color.alpha() * tint.getAlphaFloat());
+				tracker.shaderColor(color);
+				tracker.flush();
+
+				ShaderProgram program = RenderSystem.getShader();
+				if (program != null) {
+					draw.buffer.bind();
+					draw.buffer.draw(modelView, RenderSystem.getProjectionMatrix(), program);
+					VertexBuffer.unbind();
+				}
+
+				draw.state.restore();
+			}
+			tracker.shaderColor(ambient);
+		});
+	}
+
+	public void render(@NotNull MatrixStack matrixStack, @Nullable BasicRGBA<?> tint) {
+		render(matrixStack.peek().getPositionMatrix(), tint);
+	}
+
+	public void render() {
+		render((Matrix4f) null, null);
+	}
+
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		draws.forEach(draw -> draw.buffer.close());
+	}
+
+	/**
+	 * <h2>Display List Cache</h2>
+	 * Keeps one display list per key, re-recording it only when its inputs change. The inputs
+	 * should capture everything the drawing depends on besides the replay transform and tint,
+	 * like the window size or the contents of a list.
+	 */
+	public static class Cache implements AutoCloseable {
+		private record Entry(@Nullable Object inputs, DisplayList list) {
+		}
+
+		private final Map<Object, Entry> entries = new HashMap<>();
+
+		/**
+		 * Gets the display list of a key, recording it first if it is missing or its inputs changed.
+		 * @param key		The key of the display list.
+		 * @param inputs	The inputs of the drawing, compared by {@link Object#equals(Object)}.
+		 * @param drawing	The drawing to record.
+		 * @return			The display list, owned by this cache.
+		 */
+		public DisplayList get(@NotNull Object key, @Nullable Object inputs, @NotNull Runnable drawing) {
+			Entry entry = entries.get(key);
+			if (entry != null && Objects.equals(entry.inputs, inputs)) return entry.list;
+
+			if (entry != null) entry.list.close();
+			DisplayList list = record(drawing);
+			entries.put(key, new Entry(inputs, list));
+			return list;
+		}
+
+		/**
+		 * Records the display list of a key if needed, and replays it.
+		 * @see #get(Object, Object, Runnable)
+		 */
+		public void render(@NotNull Object key, @Nullable Object inputs, @NotNull Runnable drawing,
+						   @Nullable Matrix4f transform, @Nullable BasicRGBA<?> tint) {
+			get(key, inputs, drawing).render(transform, tint);
+		}
+
+		public void invalidate(@NotNull Object key) {
+			Entry entry = entries.remove(key);
+			if (entry != null) entry.list.close();
+		}
+
+		public int size() {
+			return entries.size();
+		}
+
+		@Override
+		public void close() {
+			entries.values().forEach(entry -> entry.list.close());
+			entries.clear();
+		}
+	}
+}
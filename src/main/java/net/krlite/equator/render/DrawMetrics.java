@@ -0,0 +1,375 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.color.MixboxCounter;
+import net.krlite.equator.render.vertex.GenericVertexConsumer;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>Draw Metrics</h2>
+ * An opt-in registry of what {@link Equator} costs in a frame: the draws issued and the vertices emitted
+ * by every call site, the CPU time and the bytes allocated inside them, the state changes
+ * {@link RenderStateTracker} applied and skipped, the subdivision of tessellated gradients and the calls
+ * into Mixbox. While {@link #enabled() disabled}, every hook is a single branch.
+ * <br />
+ * A frame ends whenever {@link #endFrame()} is called, which should be once per rendered frame, like
+ * {@link net.krlite.equator.debug.CanvasScreen} does. Every ended frame becomes a {@link Snapshot}, and the
+ * last {@link #HISTORY} snapshots are kept for frame time graphs.
+ * <br />
+ * The vertices are counted on the vertices {@link Equator} emits itself, so models and texts rendered by
+ * Minecraft only count as draws. The time and allocations of a call site include everything it calls,
+ * like a model rendered into an {@link net.krlite.equator.render.atlas.IconCache}. Allocations are only
+ * measured where the JVM supports it, and are {@code 0} otherwise.
+ * <br />
+ * Everything here must run on the render thread. The calls into Mixbox are counted from any thread by
+ * {@link MixboxCounter}, which is enabled along with the metrics.
+ */
+public class DrawMetrics {
+	/**
+	 * The call sites, after the {@link Equator} records issuing the draws.
+	 */
+	public enum Site {
+		RENDERER, PAINTER, WRITER, ITEM_MODEL, BLOCK_MODEL
+	}
+
+	/**
+	 * The activity of a call site during a frame.
+	 * @param draws				The draws issued.
+	 * @param vertices			The vertices emitted.
+	 * @param vertexBytes		The bytes of the emitted vertices.
+	 * @param allocatedBytes	The bytes allocated on the heap.
+	 * @param nanos				The CPU time in nanoseconds.
+	 */
+	public record SiteStats(long draws, long vertices, long vertexBytes, long allocatedBytes, long nanos) {
+		public static final SiteStats EMPTY = new SiteStats(0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * The activity of a frame.
+	 * @param frameNanos			The time since the frame before ended, in nanoseconds.
+	 * @param sites					The activity of every call site.
+	 * @param stateChanges			The state transitions applied by {@link RenderStateTracker}.
+	 * @param elidedStateChanges	The state transitions skipped by {@link RenderStateTracker}.
+	 * @param gradients				The gradients tessellated by {@link GradientTessellator}.
+	 * @param gradientSlices		The slices of every tessellated gradient.
+	 * @param maxGradientSlices		The slices of the most subdivided gradient.
+	 * @param mixboxCalls			The colors converted by Mixbox.
+	 */
+	public record Snapshot(long frameNanos, @NotNull Map<Site, SiteStats> sites, long stateChanges, long elidedStateChanges,
+						   long gradients, long gradientSlices, int maxGradientSlices, long mixboxCalls) {
+		public @NotNull SiteStats site(@NotNull Site site) {
+			return sites.getOrDefault(site, SiteStats.EMPTY);
+		}
+
+		public double frameMillis() {
+			return frameNanos / 1_000_000.0;
+		}
+
+		public long draws() {
+			return sites.values().stream().mapToLong(SiteStats::draws).sum();
+		}
+
+		public long vertices() {
+			return sites.values().stream().mapToLong(SiteStats::vertices).sum();
+		}
+
+		public long vertexBytes() {
+			return sites.values().stream().mapToLong(SiteStats::vertexBytes).sum();
+		}
+
+		public long allocatedBytes() {
+			return sites.values().stream().mapToLong(SiteStats::allocatedBytes).sum();
+		}
+
+		public long nanos() {
+			return sites.values().stream().mapToLong(SiteStats::nanos).sum();
+		}
+	}
+
+	/**
+	 * The number of frames kept in the {@link #history()}.
+	 */
+	public static final int HISTORY = 240;
+	// Deeper call sites, which no drawing of Equator reaches, are only counted
+	private static final int MAX_DEPTH = 8;
+	private static final Site[] SITES = Site.values();
+	private static final @Nullable com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+	private static boolean enabled;
+
+	// The activity of the current frame, per site
+	private static final long[] draws = new long[SITES.length], vertices = new long[SITES.length],
+			vertexBytes = new long[SITES.length], allocatedBytes = new long[SITES.length], nanos = new long[SITES.length];
+	private static long gradients, gradientSlices;
+	private static int maxGradientSlices;
+
+	// The open call sites, innermost last
+	private static final long[] openedNanos = new long[MAX_DEPTH], openedBytes = new long[MAX_DEPTH];
+	private static int depth;
+	private static final CountingVertexConsumer counter = new CountingVertexConsumer();
+
+	private static long frameStart, appliedBefore, elidedBefore;
+	private static final Snapshot[] history = new Snapshot[HISTORY];
+	private static int historyHead, historySize;
+
+	private static @Nullable com.sun.management.ThreadMXBean allocations() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean allocations && allocations.isThreadAllocatedMemorySupported()) {
+				allocations.setThreadAllocatedMemoryEnabled(true);
+				return allocations;
+			}
+		} catch (RuntimeException ignored) {
+		}
+		return null;
+	}
+
+	private DrawMetrics() {
+	}
+
+	public static boolean enabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts collecting the activity, with a fresh frame and an empty history.
+	 */
+	public static void enable() {
+		if (enabled) return;
+		enabled = true;
+		MixboxCounter.enable();
+		reset();
+	}
+
+	public static void disable() {
+		enabled = false;
+		MixboxCounter.disable();
+	}
+
+	/**
+	 * Drops the activity of the current frame and the history.
+	 */
+	public static void reset() {
+		clearFrame();
+		historyHead = historySize = 0;
+		Arrays.fill(history, null);
+	}
+
+	// Instrumentation
+
+	/**
+	 * Opens a call site, which must be {@link #close(Site, int, long, long) closed} in the same frame.
+	 */
+	public static void open() {
+		if (!enabled) return;
+		if (depth < MAX_DEPTH) {
+			openedNanos[depth] = System.nanoTime();
+			openedBytes[depth] = allocatedBytes();
+		}
+		depth++;
+	}
+
+	/**
+	 * Closes the innermost open call site, recording its time and allocations.
+	 * @param site			The call site.
+	 * @param draws			The draws issued.
+	 * @param vertices		The vertices emitted.
+	 * @param vertexBytes	The bytes of the emitted vertices.
+	 */
+	public static void close(@NotNull Site site, int draws, long vertices, long vertexBytes) {
+		// Ignores the sites opened before the metrics were enabled
+		if (!enabled || depth == 0) return;
+		int index = site.ordinal();
+		DrawMetrics.draws[index] += draws;
+		DrawMetrics.vertices[index] += vertices;
+		DrawMetrics.vertexBytes[index] += vertexBytes;
+
+		if (--depth < MAX_DEPTH) {
+			nanos[index] += System.nanoTime() - openedNanos[depth];
+			allocatedBytes[index] += Math.max(0, allocatedBytes() - openedBytes[depth]);
+		}
+	}
+
+	/**
+	 * Counts the vertices a draw call of {@link Equator}, opened right before, emits into a consumer.
+	 * @return	The consumer to emit the vertices into.
+	 */
+	static VertexConsumer count(@NotNull VertexConsumer consumer) {
+		return enabled ? counter.wrap(consumer) : consumer;
+	}
+
+	/**
+	 * Closes the draw call whose vertices were {@link #count(VertexConsumer) counted} last.
+	 */
+	static void closeDraw(@NotNull Site site, @NotNull DrawState state) {
+		int count = counter.release();
+		close(site, 1, count, (long) count * state.format().getVertexSizeByte());
+	}
+
+	/**
+	 * Records a gradient tessellated into a number of slices.
+	 */
+	public static void gradient(int slices) {
+		if (!enabled) return;
+		gradients++;
+		gradientSlices += slices;
+		maxGradientSlices = Math.max(maxGradientSlices, slices);
+	}
+
+	private static long allocatedBytes() {
+		return ALLOCATIONS == null ? 0 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+	}
+
+	// Frames
+
+	/**
+	 * Ends the current frame, pushing its {@link Snapshot} into the {@link #history()}.
+	 * @return	The snapshot of the ended frame, or {@code null} if the metrics are disabled.
+	 */
+	public static @Nullable Snapshot endFrame() {
+		if (!enabled) return null;
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		long now = System.nanoTime();
+
+		Map<Site, SiteStats> sites = new EnumMap<>(Site.class);
+		for (Site site : SITES) {
+			int index = site.ordinal();
+			sites.put(site, new SiteStats(draws[index], vertices[index], vertexBytes[index], allocatedBytes[index], nanos[index]));
+		}
+		Snapshot snapshot = new Snapshot(now - frameStart, Collections.unmodifiableMap(sites),
+				tracker.applied() - appliedBefore, tracker.elided() - elidedBefore,
+				gradients, gradientSlices, maxGradientSlices, MixboxCounter.sum());
+
+		history[historyHead] = snapshot;
+		historyHead = (historyHead + 1) % HISTORY;
+		historySize = Math.min(HISTORY, historySize + 1);
+
+		clearFrame();
+		frameStart = now;
+		return snapshot;
+	}
+
+	private static void clearFrame() {
+		Arrays.fill(draws, 0);
+		Arrays.fill(vertices, 0);
+		Arrays.fill(vertexBytes, 0);
+		Arrays.fill(allocatedBytes, 0);
+		Arrays.fill(nanos, 0);
+		gradients = gradientSlices = 0;
+		maxGradientSlices = 0;
+		MixboxCounter.reset();
+		// Call sites never span frames, so any still open were left by a failed drawing
+		depth = 0;
+
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		appliedBefore = tracker.applied();
+		elidedBefore = tracker.elided();
+		frameStart = System.nanoTime();
+	}
+
+	/**
+	 * @return	The snapshot of the frame ended last, or {@code null} if there is none.
+	 */
+	public static @Nullable Snapshot last() {
+		return historySize == 0 ? null : history[(historyHead - 1 + HISTORY) % HISTORY];
+	}
+
+	/**
+	 * @return	The snapshots of the last {@link #HISTORY} ended frames, oldest first.
+	 */
+	public static @NotNull List<Snapshot> history() {
+		List<Snapshot> snapshots = new ArrayList<>(historySize);
+		for (int i = 0; i < historySize; i++)
+			snapshots.add(history[(historyHead - historySize + i + HISTORY) % HISTORY]);
+		return snapshots;
+	}
+
+	/**
+	 * Counts the vertices emitted into a consumer. Only one draw call of {@link Equator} is open at a time,
+	 * so a single instance is reused.
+	 */
+	private static final class CountingVertexConsumer implements VertexConsumer, GenericVertexConsumer {
+		private VertexConsumer delegate;
+		private int count;
+
+		private VertexConsumer wrap(VertexConsumer delegate) {
+			this.delegate = delegate;
+			this.count = 0;
+			return this;
+		}
+
+		private int release() {
+			int count = this.count;
+			this.delegate = null;
+			this.count = 0;
+			return count;
+		}
+
+		@Override
+		public VertexConsumer vertex(double x, double y, double z) {
+			delegate.vertex(x, y, z);
+			return this;
+		}
+
+		@Override
+		public VertexConsumer color(int red, int green, int blue, int alpha) {
+			delegate.color(red, green, blue, alpha);
+			return this;
+		}
+
+		@Override
+		public VertexConsumer texture(float u, float v) {
+			delegate.texture(u, v);
+			return this;
+		}
+
+		@Override
+		public void generic(float x, float y, float z, float w) {
+			GenericVertexConsumer.generic(delegate, x, y, z, w);
+		}
+
+		@Override
+		public VertexConsumer overlay(int u, int v) {
+			delegate.overlay(u, v);
+			return this;
+		}
+
+		@Override
+		public VertexConsumer light(int u, int v) {
+			delegate.light(u, v);
+			return this;
+		}
+
+		@Override
+		public VertexConsumer normal(float x, float y, float z) {
+			delegate.normal(x, y, z);
+			return this;
+		}
+
+		@Override
+		public void next() {
+			delegate.next();
+			count++;
+		}
+
+		@Override
+		public void fixedColor(int red, int green, int blue, int alpha) {
+			delegate.fixedColor(red, green, blue, alpha);
+		}
+
+		@Override
+		public void unfixColor() {
+			delegate.unfixColor();
+		}
+	}
+}
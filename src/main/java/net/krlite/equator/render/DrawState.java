@@ -0,0 +1,126 @@
+package net.krlite.equator.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * The render states a single {@link Equator} draw call requires. Two draw calls sharing
+ * an equal {@link DrawState} can be merged into one without changing the rendered pixels.
+ * @param drawMode		The {@link VertexFormat.DrawMode} of the vertices.
+ * @param format		The {@link VertexFormat} of the vertices.
+ * @param shader		The shader supplier, which must be a shared constant to compare equal.
+ * @param texture		The texture to bind, or {@code null} to draw untextured.
+ * @param shaderColor	The shader color to set, or {@code null} to keep the current one.
+ * @param depthless		Whether to disable depth testing and writing while drawing.
+ * @param uniforms		The extra uniforms to upload, or {@code null} if there are none.
+ */
+public record DrawState(@NotNull VertexFormat.DrawMode drawMode, @NotNull VertexFormat format,
+						@NotNull Supplier<ShaderProgram> shader, @Nullable Identifier texture,
+						@Nullable ShaderColor shaderColor, boolean depthless, @Nullable Uniforms uniforms) {
+	public static final Supplier<ShaderProgram> POSITION_TEXTURE_COLOR = GameRenderer::getPositionTexColorProgram;
+	public static final Supplier<ShaderProgram> POSITION_COLOR = GameRenderer::getPositionColorProgram;
+
+	/**
+	 * A shader color, compared by value.
+	 */
+	public record ShaderColor(float red, float green, float blue, float alpha) {
+		public static ShaderColor of(@NotNull BasicRGBA<?> color) {
+			return new ShaderColor(color.getRedFloat(), color.getGreenFloat(), color.getBlueFloat(), color.getAlphaFloat());
+		}
+	}
+
+	/**
+	 * Extra uniforms of a shader. Implementations should compare by value, so that draw calls
+	 * with the same uniform values can be merged.
+	 */
+	public interface Uniforms {
+		void apply(@NotNull ShaderProgram program);
+	}
+
+	public static DrawState textured(@NotNull Identifier texture, @NotNull BasicRGBA<?> shaderColor) {
+		return new DrawState(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR, POSITION_TEXTURE_COLOR,
+				texture, ShaderColor.of(shaderColor), true, null);
+	}
+
+	public static DrawState colored(@NotNull VertexFormat.DrawMode drawMode) {
+		return new DrawState(drawMode, VertexFormats.POSITION_COLOR, POSITION_COLOR, null, null, false, null);
+	}
+
+	public static DrawState colored() {
+		return colored(VertexFormat.DrawMode.QUADS);
+	}
+
+	public boolean textured() {
+		return texture != null;
+	}
+
+	/**
+	 * Whether the vertices carry uvs, which untextured shaders may use for other coordinates.
+	 */
+	public boolean uvMapped() {
+		return format.getAttributeNames().contains("UV0");
+	}
+
+	public boolean colorful() {
+		return format.getAttributeNames().contains("Color");
+	}
+
+	/**
+	 * Whether the vertices of several draw calls in this state can be concatenated into one buffer.
+	 */
+	public boolean mergeable() {
+		return drawMode == VertexFormat.DrawMode.QUADS || drawMode == VertexFormat.DrawMode.TRIANGLES;
+	}
+
+	/**
+	 * Applies the states through the {@link RenderStateTracker}, which skips the ones already applied
+	 * inside a {@link RenderStateTracker#session(Runnable) session}.
+	 */
+	public void apply() {
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		// Anything may have changed the states since the last draw call outside a session
+		if (!tracker.tracking()) tracker.invalidate();
+
+		if (depthless) {
+			tracker.depthTest(false);
+			tracker.depthMask(false);
+		}
+
+		tracker.texture(textured());
+		tracker.blend(true);
+
+		tracker.defaultBlendFunc();
+		tracker.shader(shader);
+		if (shaderColor != null) tracker.shaderColor(shaderColor);
+		if (textured()) tracker.shaderTexture(texture);
+		tracker.flush();
+
+		ShaderProgram program = RenderSystem.getShader();
+		if (uniforms != null && program != null) uniforms.apply(program);
+	}
+
+	/**
+	 * Restores the states {@link #apply()} changed, which is deferred to the next draw call inside a
+	 * {@link RenderStateTracker#session(Runnable) session}.
+	 */
+	public void restore() {
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		if (depthless) {
+			tracker.depthMask(true);
+			tracker.depthTest(true);
+		}
+
+		if (shaderColor != null) tracker.shaderColor(1, 1, 1, 1);
+		if (!textured()) tracker.texture(true);
+		tracker.settle();
+	}
+}
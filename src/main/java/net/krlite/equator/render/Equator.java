@@ -3,18 +3,33 @@ package net.krlite.equator.render;
 import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.krlite.equator.EquatorLib;
+import net.krlite.equator.color.MixCache;
+import net.krlite.equator.color.PackedColor;
 import net.krlite.equator.color.PreciseColor;
 import net.krlite.equator.color.PreciseColors;
 import net.krlite.equator.color.core.BasicRGBA;
 import net.krlite.equator.core.ShortStringable;
+import net.krlite.equator.geometry.GeometryPool;
+import net.krlite.equator.geometry.MutableRect;
 import net.krlite.equator.geometry.Node;
 import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.geometry.RectBuffer;
+import net.krlite.equator.geometry.Rotation;
+import net.krlite.equator.geometry.Transform2d;
+import net.krlite.equator.render.atlas.IconCache;
+import net.krlite.equator.render.atlas.RuntimeAtlas;
 import net.krlite.equator.render.sprite.IdentifierSprite;
+import net.krlite.equator.render.text.TextMesh;
+import net.krlite.equator.render.text.TextMeshCache;
+import net.krlite.equator.render.vertex.BufferVertexSink;
+import net.krlite.equator.render.vertex.MemoryVertexSink;
+import net.krlite.equator.render.vertex.VertexSink;
 import net.krlite.equator.util.QuaternionAdapter;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.ShaderProgram;
 import net.minecraft.client.render.*;
+import net.minecraft.client.render.item.ItemRenderer;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.client.render.model.json.ModelTransformation;
 import net.minecraft.client.texture.SpriteAtlasTexture;
@@ -26,14 +41,78 @@ import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
 import org.joml.Quaterniond;
 import org.joml.Quaterniondc;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * <h2>Equator</h2>
  * A class that provides a set of methods to draw colors, shapes and sprites on the screen.
  */
 public class Equator {
+	private static VertexSink sink = BufferVertexSink.INSTANCE;
+
+	/**
+	 * Runs the drawing inside a batch scope, where every {@link Renderer} and {@link Painter} call is
+	 * collected and flushed as the fewest possible draw calls when the scope ends.
+	 * Nested scopes join the outermost one.
+	 * @param drawing	The drawing to batch.
+	 * @see Batch
+	 */
+	public static void batch(@NotNull Runnable drawing) {
+		if (sink.batching()) {
+			drawing.run();
+			return;
+		}
+
+		Batch batch = new Batch(sink);
+		try {
+			withSink(batch, drawing);
+		} finally {
+			batch.flush();
+		}
+	}
+
+	/**
+	 * @return	The {@link VertexSink} every {@link Renderer} and {@link Painter} call currently emits into.
+	 */
+	public static VertexSink sink() {
+		return sink;
+	}
+
+	/**
+	 * Runs the drawing with every {@link Renderer} and {@link Painter} call emitting into another
+	 * {@link VertexSink}, like a {@link MemoryVertexSink} to capture the vertices without OpenGL.
+	 * @param sink		The {@link VertexSink} to emit into.
+	 * @param drawing	The drawing to run.
+	 */
+	public static void withSink(@NotNull VertexSink sink, @NotNull Runnable drawing) {
+		VertexSink previous = Equator.sink;
+		Equator.sink = sink;
+		try {
+			drawing.run();
+		} finally {
+			Equator.sink = previous;
+		}
+	}
+
+	private static VertexConsumer begin(@NotNull DrawState state) {
+		if (!DrawMetrics.enabled()) return sink.begin(state);
+		DrawMetrics.open();
+		return DrawMetrics.count(sink.begin(state));
+	}
+
+	private static void end(@NotNull DrawMetrics.Site site, @NotNull DrawState state) {
+		sink.end(state);
+		DrawMetrics.closeDraw(site, state);
+	}
+
 	public record Renderer(@NotNull MatrixStack matrixStack, @NotNull IdentifierSprite identifierSprite)
 			implements ShortStringable, Cloneable {
 		@Contract("_ -> new")
@@ -47,13 +126,17 @@ public class Equator {
 		}
 
 		public Renderer render(@NotNull Rect.Tinted tinted) {
-			Tessellator tessellator = prepare(tinted.getCenterNode());
-			BufferBuilder builder = tessellator.getBuffer();
-			builder.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE_COLOR);
-
-			render(builder, tinted);
+			return render(tinted, Transform2d.IDENTITY);
+		}
 
-			cleanup(tessellator);
+		/**
+		 * Renders a rect through a {@link Transform2d}, applied to the corners as they are emitted.
+		 */
+		public Renderer render(@NotNull Rect.Tinted tinted, @NotNull Transform2d transform) {
+			IdentifierSprite sprite = RuntimeAtlas.getInstance().remap(identifierSprite);
+			DrawState state = DrawState.textured(sprite.identifier(), tinted.getCenterNode());
+			render(begin(state), tinted, sprite, transform);
+			end(DrawMetrics.Site.RENDERER, state);
 			return this;
 		}
 
@@ -90,48 +173,14 @@ public class Equator {
 		}
 
 		public Renderer renderFixedOverlay(@NotNull BasicRGBA<?> tint) {
-			int width = MinecraftClient.getInstance().getWindow().getScaledWidth(),
-					height = MinecraftClient.getInstance().getWindow().getScaledHeight();
-
-			double fixedSize = Math.min(width / 2.0, height / 2.0);
-
-			// Upper
-			if (width > height)
-				swap(identifierSprite.mask(0.5F, 0, 0.5F, 0.5F))
-						.render(fixedSize, 0, width - fixedSize * 2, fixedSize, tint);
-			// Left upper
-			swap(identifierSprite.mask(0, 0, 0.5F, 0.5F))
-					.render(0, 0, fixedSize, fixedSize, tint);
-
-			// Left
-			if (height > width)
-				swap(identifierSprite.mask(0, 0.5F, 0.5F, 0.5F))
-						.render(0, fixedSize, fixedSize, height - fixedSize * 2, tint);
-			// Left lower
-			swap(identifierSprite.mask(0, 0.5F, 0.5F, 1))
-					.render(0, height - fixedSize, fixedSize, fixedSize, tint);
-
-			// Lower
-			if (width > height)
-				swap(identifierSprite.mask(0.5F, 0.5F, 0.5F, 1))
-						.render(fixedSize, height - fixedSize, width - fixedSize * 2, fixedSize, tint);
-			// Right lower
-			swap(identifierSprite.mask(0.5F, 0.5F, 1, 1))
-					.render(width - fixedSize, height - fixedSize, fixedSize, fixedSize, tint);
-
-			// Right
-			if (height > width)
-				swap(identifierSprite.mask(0.5F, 0.5F, 1, 0.5F))
-						.render(width - fixedSize, fixedSize, fixedSize, height - fixedSize * 2, tint);
-			// Right upper
-			swap(identifierSprite.mask(0.5F, 0, 1, 0.5F))
-					.render(width - fixedSize, 0, fixedSize, fixedSize, tint);
-
-			// Center
-			if (width != height)
-				swap(identifierSprite.mask(0.5F, 0.5F, 0.5F, 0.5F))
-						.render(fixedSize, fixedSize, width - fixedSize * 2, height - fixedSize * 2, tint);
-
+			NineSlice layout = NineSlice.of(MinecraftClient.getInstance().getWindow().getScaledWidth(),
+					MinecraftClient.getInstance().getWindow().getScaledHeight());
+
+			// The slices take fixed halves of the whole texture, which may be packed into the atlas
+			IdentifierSprite sheet = RuntimeAtlas.getInstance().remap(IdentifierSprite.of(identifierSprite.identifier()));
+			DrawState state = DrawState.textured(sheet.identifier(), tint);
+			layout.emit(begin(state), matrixStack.peek().getPositionMatrix(), sheet, tint);
+			end(DrawMetrics.Site.RENDERER, state);
 			return this;
 		}
 
@@ -236,36 +285,9 @@ public class Equator {
 			return renderTiledBackground(PreciseColor.WHITE, width, height);
 		}
 
-		private Tessellator prepare() {
-			return prepare(PreciseColor.WHITE);
-		}
-
-		private Tessellator prepare(@NotNull BasicRGBA<?> shaderColor) {
-			RenderSystem.disableDepthTest();
-			RenderSystem.depthMask(false);
-
-			RenderSystem.enableTexture();
-			RenderSystem.enableBlend();
-
-			RenderSystem.defaultBlendFunc();
-			RenderSystem.setShader(GameRenderer::getPositionTexColorProgram);
-			RenderSystem.setShaderColor(shaderColor.getRedFloat(), shaderColor.getGreenFloat(),
-					shaderColor.getBlueFloat(), shaderColor.getAlphaFloat());
-			RenderSystem.setShaderTexture(0, identifierSprite.identifier());
-
-			return Tessellator.getInstance();
-		}
-
-		private void cleanup(@NotNull Tessellator tessellator) {
-			tessellator.draw();
-        	RenderSystem.depthMask(true);
-			RenderSystem.enableDepthTest();
-
-			RenderSystem.setShaderColor(1, 1, 1, 1);
-		}
-
-		private void renderVertex(@NotNull BufferBuilder builder, @NotNull Node.Tinted vertex, float u, float v) {
-			builder.vertex(matrixStack.peek().getPositionMatrix(), (float) vertex.getX(), (float) vertex.getY(), 0)
+		private void renderVertex(@NotNull VertexConsumer builder, @NotNull Transform2d transform, @NotNull Node.Tinted vertex, float u, float v) {
+			builder.vertex(matrixStack.peek().getPositionMatrix(),
+							(float) transform.applyX(vertex.getX(), vertex.getY()), (float) transform.applyY(vertex.getX(), vertex.getY()), 0)
 					.texture(u, v)
 					.color(
 							vertex.getRedFloat(), vertex.getGreenFloat(),
@@ -273,11 +295,11 @@ public class Equator {
 					).next();
 		}
 
-		private void render(@NotNull BufferBuilder builder, @NotNull Rect.Tinted tinted) {
-			renderVertex(builder, tinted.getRightTopNode(), identifierSprite.uEnd(), identifierSprite.vBegin());
-			renderVertex(builder, tinted.getLeftTopNode(), identifierSprite.uBegin(), identifierSprite.vBegin());
-			renderVertex(builder, tinted.getLeftBottomNode(), identifierSprite.uBegin(), identifierSprite.vEnd());
-			renderVertex(builder, tinted.getRightBottomNode(), identifierSprite.uEnd(), identifierSprite.vEnd());
+		private void render(@NotNull VertexConsumer builder, @NotNull Rect.Tinted tinted, @NotNull IdentifierSprite sprite, @NotNull Transform2d transform) {
+			renderVertex(builder, transform, tinted.getRightTopNode(), sprite.uEnd(), sprite.vBegin());
+			renderVertex(builder, transform, tinted.getLeftTopNode(), sprite.uBegin(), sprite.vBegin());
+			renderVertex(builder, transform, tinted.getLeftBottomNode(), sprite.uBegin(), sprite.vEnd());
+			renderVertex(builder, transform, tinted.getRightBottomNode(), sprite.uEnd(), sprite.vEnd());
 		}
 
 		@Override
@@ -290,21 +312,112 @@ public class Equator {
 		}
 	}
 
-	public record Painter(@NotNull MatrixStack matrixStack) implements ShortStringable, Cloneable {
+	/**
+	 * @param mixCache	The {@link MixCache} to mix pigment gradients through, or {@code null} to use
+	 *                  the {@link MixCache#global() global} one, if any.
+	 */
+	public record Painter(@NotNull MatrixStack matrixStack, @Nullable MixCache mixCache) implements ShortStringable, Cloneable {
+		public Painter(@NotNull MatrixStack matrixStack) {
+			this(matrixStack, null);
+		}
+
 		@Contract("_ -> new")
 		public @NotNull Painter swap(@NotNull MatrixStack matrixStack) {
-			return new Painter(matrixStack);
+			return new Painter(matrixStack, mixCache);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull Painter swap(@Nullable MixCache mixCache) {
+			return new Painter(matrixStack, mixCache);
 		}
 
 		@Contract("_ -> this")
 		public Painter paint(@NotNull Rect.Tinted tinted) {
-			Tessellator tessellator = prepare();
-			BufferBuilder builder = tessellator.getBuffer();
-			builder.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+			return paint(tinted, Transform2d.IDENTITY);
+		}
+
+		/**
+		 * Paints a rect through a {@link Transform2d}, applied to the corners as they are emitted.
+		 */
+		@Contract("_, _ -> this")
+		public Painter paint(@NotNull Rect.Tinted tinted, @NotNull Transform2d transform) {
+			DrawState state = DrawState.colored();
+			paint(begin(state), tinted.cut(), transform);
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
 
-			paint(builder, tinted.cut());
+		/**
+		 * Paints a quad with packed ARGB colors, without allocating any color.
+		 * @see PackedColor
+		 */
+		@Contract("_, _, _, _, _ -> this")
+		public Painter paint(@NotNull Rect rect, int leftTop, int leftBottom, int rightBottom, int rightTop) {
+			return paint(rect, Transform2d.IDENTITY, leftTop, leftBottom, rightBottom, rightTop);
+		}
+
+		@Contract("_, _ -> this")
+		public Painter paint(@NotNull Rect rect, int color) {
+			return paint(rect, color, color, color, color);
+		}
+
+		/**
+		 * Paints a quad through a {@link Transform2d} with packed ARGB colors, allocating neither
+		 * the transformed rect nor any color.
+		 */
+		@Contract("_, _, _, _, _, _ -> this")
+		public Painter paint(@NotNull Rect rect, @NotNull Transform2d transform, int leftTop, int leftBottom, int rightBottom, int rightTop) {
+			DrawState state = DrawState.colored();
+			VertexConsumer consumer = begin(state);
+			Matrix4f matrix = matrixStack.peek().getPositionMatrix();
+
+			paintVertex(consumer, matrix, transform, rect.getRightTop(), rightTop);
+			paintVertex(consumer, matrix, transform, rect.getLeftTop(), leftTop);
+			paintVertex(consumer, matrix, transform, rect.getLeftBottom(), leftBottom);
+			paintVertex(consumer, matrix, transform, rect.getRightBottom(), rightBottom);
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
+
+		@Contract("_, _, _ -> this")
+		public Painter paint(@NotNull Rect rect, @NotNull Transform2d transform, int color) {
+			return paint(rect, transform, color, color, color, color);
+		}
+
+		/**
+		 * Paints a {@link MutableRect} with packed ARGB colors, without allocating anything.
+		 * @see GeometryPool
+		 */
+		@Contract("_, _, _, _, _ -> this")
+		public Painter paint(@NotNull MutableRect rect, int leftTop, int leftBottom, int rightBottom, int rightTop) {
+			DrawState state = DrawState.colored();
+			VertexConsumer consumer = begin(state);
+			Matrix4f matrix = matrixStack.peek().getPositionMatrix();
+
+			paintVertex(consumer, matrix, rect.getRightTop().getX(), rect.getRightTop().getY(), rightTop);
+			paintVertex(consumer, matrix, rect.getLeftTop().getX(), rect.getLeftTop().getY(), leftTop);
+			paintVertex(consumer, matrix, rect.getLeftBottom().getX(), rect.getLeftBottom().getY(), leftBottom);
+			paintVertex(consumer, matrix, rect.getRightBottom().getX(), rect.getRightBottom().getY(), rightBottom);
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
+
+		@Contract("_, _ -> this")
+		public Painter paint(@NotNull MutableRect rect, int color) {
+			return paint(rect, color, color, color, color);
+		}
 
-			cleanup(tessellator);
+		/**
+		 * Paints every quad of a {@link RectBuffer} in a single draw call.
+		 */
+		@Contract("_ -> this")
+		public Painter paint(@NotNull RectBuffer buffer) {
+			if (buffer.isEmpty()) return this;
+			DrawState state = DrawState.colored();
+			buffer.emit(begin(state), matrixStack.peek().getPositionMatrix());
+			end(DrawMetrics.Site.PAINTER, state);
 			return this;
 		}
 
@@ -330,12 +443,20 @@ public class Equator {
 
 		public Painter paintLine(@NotNull Node.Tinted start, @NotNull Node.Tinted end, double boldness, boolean pigmentMix) {
 			double angle = start.angleTo(end);
-			if (!pigmentMix) {
+			if (!pigmentMix && start.hasColor() && end.hasColor()) {
+				// Build the quad in place, as this is usually called many times per frame
+				try (GeometryPool pool = GeometryPool.open()) {
+					double x = start.getX(), y = start.getY(), length = start.distanceTo(end);
+					return paint(pool.rect(x, y - boldness / 2, length, boldness).rotateBy(x, y, angle),
+							start.toColorInt(), start.toColorInt(), end.toColorInt(), end.toColorInt());
+				}
+			} else if (!pigmentMix) {
+				Rotation rotation = Rotation.of(angle);
 				return paint(Rect.Tinted.of(
-						start.operate(node -> node.rotate(node.shift(0, -boldness / 2), angle)),
-						start.operate(node -> node.rotate(node.shift(0, boldness / 2), angle)),
-						end.operate(node -> node.rotate(node.shift(0, boldness / 2), angle)),
-						end.operate(node -> node.rotate(node.shift(0, -boldness / 2), angle))
+						start.operate(node -> node.rotate(node.shift(0, -boldness / 2), rotation)),
+						start.operate(node -> node.rotate(node.shift(0, boldness / 2), rotation)),
+						end.operate(node -> node.rotate(node.shift(0, boldness / 2), rotation)),
+						end.operate(node -> node.rotate(node.shift(0, -boldness / 2), rotation))
 				));
 			} else {
 				return paintHorizontalGradiant(new Rect(start.getNode(), start.distanceTo(end), boldness).shift(0, -boldness / 2.0)
@@ -354,36 +475,24 @@ public class Equator {
 						   .paint(rect.meshByGrid(2, 2, 2, 2).tint(PreciseColors.MINECRAFT_MISSING_TEXTURE_PURPLE));
 		}
 
+		/**
+		 * @deprecated Gradients are no longer subdivided by area, see {@link GradientTessellator}.
+		 */
+		@Deprecated
 		public static final double MIN_GRADIANT_AREA = 50;
 
 		public Painter paintVerticalGradiant(@NotNull Rect.Tinted tinted, double upperToLowerAttenuation, boolean pigmentMix) {
 			//upperToLowerAttenuation = nonLinearProjection(upperToLowerAttenuation);
-			if (tinted.getArea() <= MIN_GRADIANT_AREA) return paint(tinted);
-
-			return paintVerticalGradiant(tinted.getRect().topHalf().tint(
-					tinted.getLeftTop(), tinted.getLeftBottom().blendOrMix(tinted.getLeftTop(), upperToLowerAttenuation, pigmentMix),
-					tinted.getRightBottom().blendOrMix(tinted.getRightTop(), upperToLowerAttenuation, pigmentMix), tinted.getRightTop()
-			), upperToLowerAttenuation, pigmentMix)
-						   .paintVerticalGradiant(tinted.getRect().bottomHalf().tint(
-								   tinted.getLeftTop().blendOrMix(tinted.getLeftBottom(), 1 - upperToLowerAttenuation, pigmentMix), tinted.getLeftBottom(),
-								   tinted.getRightBottom(), tinted.getRightTop().blendOrMix(tinted.getRightBottom(), 1 - upperToLowerAttenuation, pigmentMix)
-						   ), upperToLowerAttenuation, pigmentMix);
+			if (pigmentMix && !sink.headless() && PigmentShader.isAvailable())
+				return paint(PigmentShader.Gradient.vertical(tinted.cut(), upperToLowerAttenuation), tinted.getRect());
+			return paint(GradientTessellator.vertical(tinted.cut(), upperToLowerAttenuation, pigmentMix, pixelsPerUnit(), mixCache));
 		}
 
 		public Painter paintHorizontalGradiant(@NotNull Rect.Tinted tinted, double leftToRightAttenuation, boolean pigmentMix) {
 			//leftToRightAttenuation = nonLinearProjection(leftToRightAttenuation);
-			if (tinted.getArea() <= MIN_GRADIANT_AREA) return paint(tinted);
-
-			return paintHorizontalGradiant(tinted.getRect().leftHalf().tint(
-					tinted.getLeftTop(), tinted.getLeftBottom(),
-					tinted.getRightBottom().blendOrMix(tinted.getLeftBottom(), leftToRightAttenuation, pigmentMix),
-					tinted.getRightTop().blendOrMix(tinted.getLeftTop(), leftToRightAttenuation, pigmentMix)
-			), leftToRightAttenuation, pigmentMix)
-						   .paintHorizontalGradiant(tinted.getRect().rightHalf().tint(
-								   tinted.getLeftTop().blendOrMix(tinted.getRightTop(), 1 - leftToRightAttenuation, pigmentMix),
-								   tinted.getLeftBottom().blendOrMix(tinted.getRightBottom(), 1 - leftToRightAttenuation, pigmentMix),
-								   tinted.getRightBottom(), tinted.getRightTop()
-						   ), leftToRightAttenuation, pigmentMix);
+			if (pigmentMix && !sink.headless() && PigmentShader.isAvailable())
+				return paint(PigmentShader.Gradient.horizontal(tinted.cut(), leftToRightAttenuation), tinted.getRect());
+			return paint(GradientTessellator.horizontal(tinted.cut(), leftToRightAttenuation, pigmentMix, pixelsPerUnit(), mixCache));
 		}
 
 		public Painter paintVerticalGradiant(@NotNull Rect rect, @NotNull BasicRGBA<?> upper, @NotNull BasicRGBA<?> lower, boolean pigmentMix) {
@@ -409,37 +518,200 @@ public class Equator {
 			return paintRectShadowWithScissor(outer, inner, attenuation, pigmentMix).paint(inner);
 		}
 
-		private Tessellator prepare() {
-			RenderSystem.disableTexture();
-			RenderSystem.enableBlend();
+		/**
+		 * Paints a rounded rectangle as a single quad, interpolating the colors of the corners.
+		 * @param radius	The radius of the corners, at most half the shorter side.
+		 * @see SdfShader
+		 */
+		@Contract("_, _ -> this")
+		public Painter paintRoundedRect(@NotNull Rect.Tinted tinted, double radius) {
+			return paint(SdfShader.Shape.roundedRect(tinted.getRect().getWidth(), tinted.getRect().getHeight(), radius, pixelsPerUnit()), tinted.cut());
+		}
+
+		@Contract("_, _, _ -> this")
+		public Painter paintRoundedRect(@NotNull Rect rect, double radius, @NotNull BasicRGBA<?> color) {
+			return paintRoundedRect(rect.tint(color), radius);
+		}
+
+		@Contract("_, _, _ -> this")
+		public Painter paintCircle(@NotNull Node center, double radius, @NotNull BasicRGBA<?> color) {
+			return paint(SdfShader.Shape.circle(radius, pixelsPerUnit()), square(center, radius).tint(color).cut());
+		}
+
+		/**
+		 * @param thickness	The thickness of the ring, growing inwards from the radius.
+		 */
+		@Contract("_, _, _, _ -> this")
+		public Painter paintRing(@NotNull Node center, double radius, double thickness, @NotNull BasicRGBA<?> color) {
+			return paint(SdfShader.Shape.ring(radius, thickness, pixelsPerUnit()), square(center, radius).tint(color).cut());
+		}
+
+		/**
+		 * Paints the soft shadow of a rounded rectangle as a single quad, which costs far less than
+		 * {@link #paintRectShadow(Rect.Tinted, Rect.Tinted, double, boolean)}. Without the shader, it falls
+		 * back to that rect shadow, losing the rounded corners.
+		 * @param radius	The radius of the corners.
+		 * @param softness	The width of the blur, centered on the outline of the rectangle.
+		 */
+		@Contract("_, _, _, _ -> this")
+		public Painter paintShadow(@NotNull Rect rect, double radius, double softness, @NotNull BasicRGBA<?> color) {
+			if (!sink.headless() && !SdfShader.isAvailable()) {
+				// The blur fades across the softness, from half inside the outline to half outside of it
+				double inset = Math.min(softness / 2, Math.min(rect.getWidth(), rect.getHeight()) / 2);
+				return paintRectShadow(grow(rect, softness / 2, color.transparent()), grow(rect, -inset, color), 0.5, false);
+			}
+			return paint(SdfShader.Shape.shadow(rect.getWidth(), rect.getHeight(), radius, softness, pixelsPerUnit()), rect.tint(color).cut());
+		}
+
+		private static Rect square(@NotNull Node center, double radius) {
+			return new Rect(center.getX() - radius, center.getY() - radius, 2 * radius, 2 * radius);
+		}
+
+		// Moves the sides of the rect outwards along its own axes, which may be rotated
+		private static Rect.Tinted grow(@NotNull Rect rect, double margin, @NotNull BasicRGBA<?> color) {
+			double width = rect.getWidth(), height = rect.getHeight();
+			double horizontalX = width == 0 ? margin : (rect.getRightTop().getX() - rect.getLeftTop().getX()) / width * margin,
+					horizontalY = width == 0 ? 0 : (rect.getRightTop().getY() - rect.getLeftTop().getY()) / width * margin,
+					verticalX = height == 0 ? 0 : (rect.getLeftBottom().getX() - rect.getLeftTop().getX()) / height * margin,
+					verticalY = height == 0 ? margin : (rect.getLeftBottom().getY() - rect.getLeftTop().getY()) / height * margin;
+
+			return Rect.Tinted.of(
+					rect.getLeftTop().shift(-horizontalX - verticalX, -horizontalY - verticalY).tint(color),
+					rect.getLeftBottom().shift(-horizontalX + verticalX, -horizontalY + verticalY).tint(color),
+					rect.getRightBottom().shift(horizontalX + verticalX, horizontalY + verticalY).tint(color),
+					rect.getRightTop().shift(horizontalX - verticalX, horizontalY - verticalY).tint(color)
+			);
+		}
+
+		private Painter paint(@NotNull SdfShader.Shape shape, @NotNull Rect.Tinted tinted) {
+			Rect rect = tinted.getRect();
+			// The center and the unit axes of the rect, which may be rotated
+			double width = rect.getWidth(), height = rect.getHeight();
+			double[] frame = {
+					(rect.getLeftTop().getX() + rect.getRightBottom().getX()) / 2, (rect.getLeftTop().getY() + rect.getRightBottom().getY()) / 2,
+					width == 0 ? 1 : (rect.getRightTop().getX() - rect.getLeftTop().getX()) / width,
+					width == 0 ? 0 : (rect.getRightTop().getY() - rect.getLeftTop().getY()) / width,
+					height == 0 ? 0 : (rect.getLeftBottom().getX() - rect.getLeftTop().getX()) / height,
+					height == 0 ? 1 : (rect.getLeftBottom().getY() - rect.getLeftTop().getY()) / height
+			};
+
+			if (!sink.headless() && !SdfShader.isAvailable()) return paintOutline(shape, frame, tinted.getCenter().toColorInt());
+
+			// Every shape shares the state, carrying its size and style in the vertices
+			DrawState state = SdfShader.STATE;
+			VertexConsumer consumer = begin(state);
+			Matrix4f matrix = matrixStack.peek().getPositionMatrix();
+			float right = shape.halfWidth() + shape.extent(), bottom = shape.halfHeight() + shape.extent();
+
+			paintShapeVertex(consumer, matrix, frame, right, -bottom, tinted.getRightTop().toColorInt(), shape);
+			paintShapeVertex(consumer, matrix, frame, -right, -bottom, tinted.getLeftTop().toColorInt(), shape);
+			paintShapeVertex(consumer, matrix, frame, -right, bottom, tinted.getLeftBottom().toColorInt(), shape);
+			paintShapeVertex(consumer, matrix, frame, right, bottom, tinted.getRightBottom().toColorInt(), shape);
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
+
+		private Painter paintOutline(@NotNull SdfShader.Shape shape, double[] frame, int color) {
+			// Without the shader, the shape is tessellated along its outline, losing the soft edges
+			int segments = MathHelper.clamp((int) Math.ceil(shape.radius() * pixelsPerUnit() / 2), 1, 16);
+			float[] outer = shape.outline(0, segments), inner = shape.thickness() > 0 ? shape.outline(shape.thickness(), segments) : null;
+			int points = outer.length / 2;
+
+			DrawState state = DrawState.colored(VertexFormat.DrawMode.TRIANGLES);
+			VertexConsumer consumer = begin(state);
+			Matrix4f matrix = matrixStack.peek().getPositionMatrix();
+
+			for (int point = 0; point < points; point++) {
+				int current = 2 * point, next = 2 * ((point + 1) % points);
+				if (inner == null) {
+					paintShapeVertex(consumer, matrix, frame, 0, 0, color, null);
+					paintShapeVertex(consumer, matrix, frame, outer[next], outer[next + 1], color, null);
+					paintShapeVertex(consumer, matrix, frame, outer[current], outer[current + 1], color, null);
+				} else {
+					paintShapeVertex(consumer, matrix, frame, outer[next], outer[next + 1], color, null);
+					paintShapeVertex(consumer, matrix, frame, outer[current], outer[current + 1], color, null);
+					paintShapeVertex(consumer, matrix, frame, inner[current], inner[current + 1], color, null);
+
+					paintShapeVertex(consumer, matrix, frame, outer[next], outer[next + 1], color, null);
+					paintShapeVertex(consumer, matrix, frame, inner[current], inner[current + 1], color, null);
+					paintShapeVertex(consumer, matrix, frame, inner[next], inner[next + 1], color, null);
+				}
+			}
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
+
+		/**
+		 * @param shape	The shape to write into the vertex along with the uv, or {@code null} for the plain outline.
+		 */
+		private void paintShapeVertex(@NotNull VertexConsumer builder, @NotNull Matrix4f matrix, double[] frame, float u, float v, int color, @Nullable SdfShader.Shape shape) {
+			builder.vertex(matrix, (float) (frame[0] + u * frame[2] + v * frame[4]), (float) (frame[1] + u * frame[3] + v * frame[5]), 0);
+			if (shape != null) builder.texture(u, v);
+			builder.color(PackedColor.red(color), PackedColor.green(color), PackedColor.blue(color), PackedColor.alpha(color));
+			if (shape != null) shape.write(builder);
+			builder.next();
+		}
+
+		private Painter paint(@NotNull GradientTessellator.Strip strip) {
+			// Strips cannot be concatenated, so batches take the gradient as quads to merge it with its neighbours
+			boolean batched = sink.batching();
+			DrawState state = DrawState.colored(batched ? VertexFormat.DrawMode.QUADS : VertexFormat.DrawMode.TRIANGLE_STRIP);
+			VertexConsumer consumer = begin(state);
+
+			if (batched) strip.emitQuads(consumer, matrixStack.peek().getPositionMatrix());
+			else strip.emit(consumer, matrixStack.peek().getPositionMatrix());
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
+		}
+
+		private Painter paint(@NotNull PigmentShader.Gradient gradient, @NotNull Rect rect) {
+			DrawState state = gradient.state();
+			VertexConsumer consumer = begin(state);
+			Matrix4f matrix = matrixStack.peek().getPositionMatrix();
 
-			RenderSystem.defaultBlendFunc();
-			RenderSystem.setShader(GameRenderer::getPositionColorProgram);
-			
-			return Tessellator.getInstance();
+			consumer.vertex(matrix, (float) rect.getRightTop().getX(), (float) rect.getRightTop().getY(), 0).texture(1, 0).next();
+			consumer.vertex(matrix, (float) rect.getLeftTop().getX(), (float) rect.getLeftTop().getY(), 0).texture(0, 0).next();
+			consumer.vertex(matrix, (float) rect.getLeftBottom().getX(), (float) rect.getLeftBottom().getY(), 0).texture(0, 1).next();
+			consumer.vertex(matrix, (float) rect.getRightBottom().getX(), (float) rect.getRightBottom().getY(), 0).texture(1, 1).next();
+
+			end(DrawMetrics.Site.PAINTER, state);
+			return this;
 		}
 
-		private void cleanup(@NotNull Tessellator tessellator) {
-			tessellator.draw();
-			RenderSystem.enableTexture();
+		private double pixelsPerUnit() {
+			return sink.pixelsPerUnit();
 		}
 
 		private double nonLinearProjection(double value) {
 			return 0.5 + Math.sin(MathHelper.clamp(value, 0, 1) * Math.PI - Math.PI / 2) * 0.3;
 		}
 
-		private void paintVertex(@NotNull BufferBuilder builder, @NotNull Node.Tinted vertex) {
-			builder.vertex(matrixStack.peek().getPositionMatrix(), (float) vertex.getX(), (float) vertex.getY(), 0)
+		private void paintVertex(@NotNull VertexConsumer builder, @NotNull Transform2d transform, @NotNull Node.Tinted vertex) {
+			builder.vertex(matrixStack.peek().getPositionMatrix(),
+							(float) transform.applyX(vertex.getX(), vertex.getY()), (float) transform.applyY(vertex.getX(), vertex.getY()), 0)
 					.color(vertex.getRedFloat(), vertex.getGreenFloat(),
 							vertex.getBlueFloat(), vertex.getAlphaFloat()).next();
 		}
 
-		private void paint(@NotNull BufferBuilder builder, @NotNull Rect.Tinted tinted) {
+		private void paintVertex(@NotNull VertexConsumer builder, @NotNull Matrix4f matrix, @NotNull Transform2d transform, @NotNull Node vertex, int color) {
+			paintVertex(builder, matrix, transform.applyX(vertex.getX(), vertex.getY()), transform.applyY(vertex.getX(), vertex.getY()), color);
+		}
+
+		private void paintVertex(@NotNull VertexConsumer builder, @NotNull Matrix4f matrix, double x, double y, int color) {
+			builder.vertex(matrix, (float) x, (float) y, 0)
+					.color(PackedColor.red(color), PackedColor.green(color),
+							PackedColor.blue(color), PackedColor.alpha(color)).next();
+		}
+
+		private void paint(@NotNull VertexConsumer builder, @NotNull Rect.Tinted tinted, @NotNull Transform2d transform) {
 			if (!tinted.allHasColor()) throw new IllegalArgumentException("All vertices must have a color");
-			paintVertex(builder, tinted.getRightTopNode());
-			paintVertex(builder, tinted.getLeftTopNode());
-			paintVertex(builder, tinted.getLeftBottomNode());
-			paintVertex(builder, tinted.getRightBottomNode());
+			paintVertex(builder, transform, tinted.getRightTopNode());
+			paintVertex(builder, transform, tinted.getLeftTopNode());
+			paintVertex(builder, transform, tinted.getLeftBottomNode());
+			paintVertex(builder, transform, tinted.getRightBottomNode());
 		}
 
 		@Override
@@ -452,19 +724,62 @@ public class Equator {
 		}
 	}
 
-	public record Writer(@NotNull MatrixStack matrixStack) implements ShortStringable, Cloneable {
-		public Writer write(@NotNull Text text, @NotNull BasicRGBA<?> tint, @NotNull Vec3d pos, float scale, boolean shadow) {
+	/**
+	 * @param textMeshCache	The {@link TextMeshCache} to replay texts from, or {@code null} to use
+	 *                       the {@link TextMeshCache#global() global} one, if any.
+	 */
+	public record Writer(@NotNull MatrixStack matrixStack, @Nullable TextMeshCache textMeshCache) implements ShortStringable, Cloneable {
+		public Writer(@NotNull MatrixStack matrixStack) {
+			this(matrixStack, null);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull Writer swap(@NotNull MatrixStack matrixStack) {
+			return new Writer(matrixStack, textMeshCache);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull Writer swap(@Nullable TextMeshCache textMeshCache) {
+			return new Writer(matrixStack, textMeshCache);
+		}
+
+		private @Nullable TextMesh mesh(@NotNull Text text, int color, float scale, boolean shadow) {
+			TextMeshCache cache = textMeshCache != null ? textMeshCache : TextMeshCache.global();
+			return cache == null ? null : cache.get(text, scale, shadow, color);
+		}
+
+		/**
+		 * Writes a text with a packed ARGB color, without allocating any color.
+		 * @see PackedColor
+		 */
+		public Writer write(@NotNull Text text, int color, @NotNull Vec3d pos, float scale, boolean shadow) {
+			return write(text, color, pos, scale, shadow, mesh(text, color, scale, shadow));
+		}
+
+		private Writer write(@NotNull Text text, int color, @NotNull Vec3d pos, float scale, boolean shadow, @Nullable TextMesh mesh) {
+			DrawMetrics.open();
+			if (mesh != null) {
+				mesh.render(matrixStack.peek().getPositionMatrix(), pos.x, pos.y, pos.z);
+				DrawMetrics.close(DrawMetrics.Site.WRITER, 1, mesh.vertexCount(), 0);
+				return this;
+			}
+
 			matrixStack.push();
 			matrixStack.translate(0, 0, pos.z);
 			matrixStack.scale(scale, scale, 1);
 			if (shadow)
 				MinecraftClient.getInstance().textRenderer
-						.drawWithShadow(matrixStack, text.asOrderedText(), (float) pos.x, (float) pos.y, tint.toColorInt());
-			else MinecraftClient.getInstance().textRenderer.draw(matrixStack, text.asOrderedText(), (float) pos.x, (float) pos.y, tint.toColorInt());
+						.drawWithShadow(matrixStack, text.asOrderedText(), (float) pos.x, (float) pos.y, color);
+			else MinecraftClient.getInstance().textRenderer.draw(matrixStack, text.asOrderedText(), (float) pos.x, (float) pos.y, color);
 			matrixStack.pop();
+			DrawMetrics.close(DrawMetrics.Site.WRITER, 1, 0, 0);
 			return this;
 		}
 
+		public Writer write(@NotNull Text text, @NotNull BasicRGBA<?> tint, @NotNull Vec3d pos, float scale, boolean shadow) {
+			return write(text, tint.toColorInt(), pos, scale, shadow);
+		}
+
 		public Writer write(Text text, BasicRGBA<?> tint, Vec3d pos, float scale) {
 			return write(text, tint, pos, scale, true);
 		}
@@ -474,8 +789,10 @@ public class Equator {
 		}
 
 		public Writer writeCentered(@NotNull Text text, @NotNull BasicRGBA<?> tint, @NotNull Vec3d pos, float scale, boolean shadow) {
-			return write(text, tint, pos.subtract(MinecraftClient.getInstance().textRenderer.getWidth(text) / 2F,
-					MinecraftClient.getInstance().textRenderer.fontHeight / 2F, 0), scale, shadow);
+			int color = tint.toColorInt();
+			TextMesh mesh = mesh(text, color, scale, shadow);
+			int width = mesh != null ? mesh.width() : MinecraftClient.getInstance().textRenderer.getWidth(text);
+			return write(text, color, pos.subtract(width / 2F, MinecraftClient.getInstance().textRenderer.fontHeight / 2F, 0), scale, shadow, mesh);
 		}
 
 		public Writer writeCentered(Text text, BasicRGBA<?> tint, Vec3d pos, float scale) {
@@ -499,11 +816,22 @@ public class Equator {
 	@SuppressWarnings("deprecation")
 	private static void prepareModel() {
 		MinecraftClient.getInstance().getTextureManager().getTexture(SpriteAtlasTexture.BLOCK_ATLAS_TEXTURE).setFilter(false, false);
-		RenderSystem.setShaderTexture(0, SpriteAtlasTexture.BLOCK_ATLAS_TEXTURE);
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		if (!tracker.tracking()) tracker.invalidate();
+
+		tracker.shaderTexture(SpriteAtlasTexture.BLOCK_ATLAS_TEXTURE);
+		tracker.blend(true);
+		tracker.blendFunc(RenderStateTracker.BlendFunc.of(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA));
+		tracker.shaderColor(1, 1, 1, 1);
+		tracker.flush();
+	}
 
-		RenderSystem.enableBlend();
-		RenderSystem.blendFunc(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
-		RenderSystem.setShaderColor(1, 1, 1, 1);
+	private static void finishModel() {
+		// The render layers of the models change the states behind the tracker
+		RenderStateTracker tracker = RenderStateTracker.getInstance();
+		tracker.invalidate();
+		tracker.depthTest(true);
+		tracker.flush();
 	}
 
 	private static void applyModelView(@NotNull MatrixStack matrixStack, @NotNull Quaterniondc quaternion) {
@@ -514,9 +842,132 @@ public class Equator {
 		RenderSystem.applyModelViewMatrix();
 	}
 
-	public record ItemModel(@NotNull ItemStack itemStack) implements ShortStringable, Cloneable {
+	private static @Nullable IconCache iconCache(@Nullable IconCache iconCache) {
+		return iconCache != null ? iconCache : IconCache.global();
+	}
+
+	/**
+	 * @param iconCache	The {@link IconCache} to draw the icon through, or {@code null} to use
+	 *                  the {@link IconCache#global() global} one, if any.
+	 */
+	public record ItemModel(@NotNull ItemStack itemStack, @Nullable IconCache iconCache) implements ShortStringable, Cloneable {
+		public ItemModel(@NotNull ItemStack itemStack) {
+			this(itemStack, null);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull ItemModel swap(@NotNull ItemStack itemStack) {
+			return new ItemModel(itemStack, iconCache);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull ItemModel swap(@Nullable IconCache iconCache) {
+			return new ItemModel(itemStack, iconCache);
+		}
+
 		@Contract("_, _, _ -> this")
 		public ItemModel render(@NotNull Vec3d pos, boolean leftHanded, @NotNull Quaterniondc quaternion) {
+			DrawMetrics.open();
+			IconCache cache = iconCache(iconCache);
+			Object model = cache == null ? null : IconCache.model(itemStack, leftHanded);
+			if (model == null || !cache.draw(model, pos, quaternion, (at, rounded) -> renderModel(at, leftHanded, rounded)))
+				renderModel(pos, leftHanded, quaternion);
+			DrawMetrics.close(DrawMetrics.Site.ITEM_MODEL, 1, 0, 0);
+			return this;
+		}
+
+		/**
+		 * An item to render through {@link #renderAll(Collection)}, placed as {@link #render(Vec3d, boolean, Quaterniondc)} places it.
+		 */
+		public record Entry(@NotNull ItemStack itemStack, @NotNull Vec3d pos, boolean leftHanded, @NotNull Quaterniondc quaternion) {
+			public static Entry of(@NotNull ItemStack itemStack, @NotNull Vec3d pos, @NotNull Quaterniondc quaternion) {
+				return new Entry(itemStack, pos, false, quaternion);
+			}
+
+			public static Entry of(@NotNull ItemStack itemStack, @NotNull Vec3d pos, int size) {
+				return of(itemStack, pos, new Quaterniond(0, 0, 0, size / 16.0));
+			}
+
+			public static Entry of(@NotNull ItemStack itemStack, @NotNull Vec3d pos) {
+				return of(itemStack, pos, 16);
+			}
+
+			public static Entry of(@NotNull ItemStack itemStack, @NotNull Node leftTopVertex, int size) {
+				return of(itemStack, leftTopVertex.toVec3d(), size);
+			}
+
+			public static Entry of(@NotNull ItemStack itemStack, @NotNull Node leftTopVertex) {
+				return of(itemStack, leftTopVertex.toVec3d());
+			}
+		}
+
+		private record Prepared(Entry entry, BakedModel bakedModel) {
+		}
+
+		/**
+		 * Renders many items, like an inventory grid, through a single {@link VertexConsumerProvider.Immediate}.
+		 * Rendering them one by one flushes once, uploads the model view matrix twice and may toggle the
+		 * lighting twice per item, while here the items are grouped by their lighting and render layer,
+		 * and flushed once per lighting.
+		 * <br />
+		 * Overlapping items may stack in another order than when rendered one by one. The items are
+		 * rendered directly, without any {@link IconCache}.
+		 * @param entries	The items to render.
+		 */
+		public static void renderAll(@NotNull Collection<Entry> entries) {
+			ItemRenderer itemRenderer = MinecraftClient.getInstance().getItemRenderer();
+			Map<RenderLayer, List<Prepared>> sideLit = new LinkedHashMap<>(), flat = new LinkedHashMap<>();
+
+			for (Entry entry : entries) {
+				if (entry.itemStack().isEmpty()) continue;
+				BakedModel bakedModel = itemRenderer.getModel(entry.itemStack(), null, null, 0);
+				(bakedModel.isSideLit() ? sideLit : flat)
+						.computeIfAbsent(RenderLayers.getItemLayer(entry.itemStack(), true), layer -> new ArrayList<>())
+						.add(new Prepared(entry, bakedModel));
+			}
+			if (sideLit.isEmpty() && flat.isEmpty()) return;
+
+			DrawMetrics.open();
+			prepareModel();
+			VertexConsumerProvider.Immediate immediate = MinecraftClient.getInstance().getBufferBuilders().getEntityVertexConsumers();
+
+			renderLayers(itemRenderer, immediate, sideLit);
+			if (!flat.isEmpty()) {
+				DiffuseLighting.disableGuiDepthLighting();
+				renderLayers(itemRenderer, immediate, flat);
+				DiffuseLighting.enableGuiDepthLighting();
+			}
+
+			finishModel();
+			DrawMetrics.close(DrawMetrics.Site.ITEM_MODEL, (sideLit.isEmpty() ? 0 : 1) + (flat.isEmpty() ? 0 : 1), 0, 0);
+		}
+
+		private static void renderLayers(@NotNull ItemRenderer itemRenderer, @NotNull VertexConsumerProvider.Immediate immediate,
+										 @NotNull Map<RenderLayer, List<Prepared>> layers) {
+			if (layers.isEmpty()) return;
+			MatrixStack itemMatrixStack = new MatrixStack();
+
+			for (List<Prepared> layer : layers.values()) for (Prepared prepared : layer) {
+				Entry entry = prepared.entry();
+				Quaterniondc quaternion = entry.quaternion();
+				float scale = (float) (16 * quaternion.w());
+
+				itemMatrixStack.push();
+				// The same transform as the model view of a single item, leaving the normals untransformed as it does
+				itemMatrixStack.peek().getPositionMatrix()
+						.translate((float) (entry.pos().x + 8 * quaternion.w()), (float) (entry.pos().y + 8 * quaternion.w()), (float) (100 + entry.pos().z))
+						.scale(scale, -scale, scale)
+						.rotate(QuaternionAdapter.toFloat(quaternion));
+
+				itemRenderer.renderItem(entry.itemStack(), ModelTransformation.Mode.GUI, entry.leftHanded(),
+						itemMatrixStack, immediate, 0xF000F0, OverlayTexture.DEFAULT_UV, prepared.bakedModel());
+				itemMatrixStack.pop();
+			}
+
+			immediate.draw();
+		}
+
+		private void renderModel(@NotNull Vec3d pos, boolean leftHanded, @NotNull Quaterniondc quaternion) {
 			BakedModel bakedModel = MinecraftClient.getInstance().getItemRenderer().getModel(itemStack, null, null, 0);
 			prepareModel();
 			MatrixStack matrixStack = RenderSystem.getModelViewStack();
@@ -535,15 +986,13 @@ public class Equator {
 			MinecraftClient.getInstance().getItemRenderer().renderItem(itemStack, ModelTransformation.Mode.GUI,
 					leftHanded, itemMatrixStack, immediate, 0xF000F0, OverlayTexture.DEFAULT_UV, bakedModel);
 			immediate.draw();
-			RenderSystem.enableDepthTest();
+			finishModel();
 
 			if (!bakedModel.isSideLit())
 				DiffuseLighting.enableGuiDepthLighting();
 
 			matrixStack.pop();
 			RenderSystem.applyModelViewMatrix();
-
-			return this;
 		}
 
 		public ItemModel render(Vec3d pos, Quaterniondc quaternion) {
@@ -616,9 +1065,36 @@ public class Equator {
 		}
 	}
 
-	public record BlockModel(@NotNull BlockState blockState) implements ShortStringable, Cloneable {
+	/**
+	 * @param iconCache	The {@link IconCache} to draw the icon through, or {@code null} to use
+	 *                  the {@link IconCache#global() global} one, if any.
+	 */
+	public record BlockModel(@NotNull BlockState blockState, @Nullable IconCache iconCache) implements ShortStringable, Cloneable {
+		public BlockModel(@NotNull BlockState blockState) {
+			this(blockState, null);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull BlockModel swap(@NotNull BlockState blockState) {
+			return new BlockModel(blockState, iconCache);
+		}
+
+		@Contract("_ -> new")
+		public @NotNull BlockModel swap(@Nullable IconCache iconCache) {
+			return new BlockModel(blockState, iconCache);
+		}
+
 		@Contract("_, _ -> this")
 		public BlockModel render(@NotNull Vec3d pos, @NotNull Quaterniondc quaternion) {
+			DrawMetrics.open();
+			IconCache cache = iconCache(iconCache);
+			if (cache == null || !cache.draw(IconCache.model(blockState), pos, quaternion, this::renderModel))
+				renderModel(pos, quaternion);
+			DrawMetrics.close(DrawMetrics.Site.BLOCK_MODEL, 1, 0, 0);
+			return this;
+		}
+
+		private void renderModel(@NotNull Vec3d pos, @NotNull Quaterniondc quaternion) {
 			prepareModel();
 			MatrixStack matrixStack = RenderSystem.getModelViewStack();
 
@@ -634,12 +1110,10 @@ public class Equator {
 			MinecraftClient.getInstance().getBlockRenderManager().renderBlockAsEntity(blockState, blockMatrixStack,
 					immediate, 0xF000F0, OverlayTexture.DEFAULT_UV);
 			immediate.draw();
-			RenderSystem.enableDepthTest();
+			finishModel();
 
 			matrixStack.pop();
 			RenderSystem.applyModelViewMatrix();
-
-			return this;
 		}
 
 		public BlockModel render(Vec3d pos, int size) {
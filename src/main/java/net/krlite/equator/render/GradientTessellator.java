@@ -0,0 +1,269 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.color.MixCache;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.color.kernel.ColorKernels;
+import net.krlite.equator.geometry.Node;
+import net.krlite.equator.geometry.Rect;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+/**
+ * <h2>Gradient Tessellator</h2>
+ * Tessellates attenuated gradients into a single triangle strip.
+ * <br />
+ * Halving a gradient recursively with the same attenuation on every level converges to a
+ * closed-form weight curve, which is evaluated here from the binary digits of the position
+ * instead. The number of slices is computed up front from the nonlinearity of the attenuation
+ * and the on-screen pixel extent, so the vertex count grows linearly with the extent.
+ */
+public class GradientTessellator {
+	/**
+	 * The maximum number of slices of a single strip.
+	 */
+	public static final int MAX_SLICES = 1024;
+
+	/**
+	 * The on-screen pixels covered by one slice of a fully nonlinear gradient.
+	 */
+	public static final double NONLINEAR_PIXELS_PER_SLICE = 2;
+
+	/**
+	 * The on-screen pixels covered by one slice of a pigment-mixed gradient, which is never
+	 * linear in RGB space even under a linear attenuation.
+	 */
+	public static final double PIGMENT_PIXELS_PER_SLICE = 8;
+
+	private static final int WEIGHT_PRECISION = 24;
+
+	/**
+	 * Evaluates the weight of the far end of a gradient at a position.
+	 * @param position		The position along the gradient, between {@code 0} and {@code 1}.
+	 * @param attenuation	The attenuation of the gradient, where {@code 0.5} is linear.
+	 * @return				The weight of the far end, between {@code 0} and {@code 1}.
+	 */
+	public static double weight(double position, double attenuation) {
+		if (position <= 0) return 0;
+		if (position >= 1) return 1;
+		attenuation = Math.max(0, Math.min(1, attenuation));
+
+		// w(0.b1b2...) = b1 == 0 ? (1 - a) * w(0.b2...) : (1 - a) + a * w(0.b2...), folded from the least significant digit
+		long digits = (long) (position * (1L << WEIGHT_PRECISION));
+		double weight = 0;
+		for (int i = 0; i < WEIGHT_PRECISION; i++, digits >>= 1)
+			weight = (digits & 1) == 0 ? (1 - attenuation) * weight : (1 - attenuation) + attenuation * weight;
+		return weight;
+	}
+
+	/**
+	 * Computes the number of slices a gradient needs, which is always a power of two, so that
+	 * every slice boundary lands exactly on a point of the recursive subdivision.
+	 * @param pixels		The on-screen pixel extent along the gradient.
+	 * @param attenuation	The attenuation of the gradient.
+	 * @param pigmentMix	Whether the colors are pigment mixed.
+	 * @return				The number of slices.
+	 */
+	public static int slices(double pixels, double attenuation, boolean pigmentMix) {
+		double nonlinearity = Math.abs(2 * Math.max(0, Math.min(1, attenuation)) - 1);
+		double slices = Math.max(1, pixels * nonlinearity / NONLINEAR_PIXELS_PER_SLICE);
+		if (pigmentMix) slices = Math.max(slices, pixels / PIGMENT_PIXELS_PER_SLICE);
+
+		int limit = (int) Math.max(1, Math.min(MAX_SLICES, Math.ceil(pixels)));
+		int required = (int) Math.min(MAX_SLICES, Math.ceil(slices));
+		int powerOfTwo = required <= 1 ? 1 : Integer.highestOneBit(required - 1) << 1;
+		return Math.min(powerOfTwo, Integer.highestOneBit(limit));
+	}
+
+	/**
+	 * Tessellates a gradient from the upper edge to the lower edge.
+	 * @param tinted		The {@link Rect.Tinted} to tessellate, whose vertices must all have a color.
+	 * @param attenuation	The attenuation from the upper edge to the lower edge.
+	 * @param pigmentMix	Whether to mix the colors as pigments.
+	 * @param pixelsPerUnit	The on-screen pixels per unit of the coordinates.
+	 * @return				The tessellated {@link Strip}.
+	 */
+	public static Strip vertical(@NotNull Rect.Tinted tinted, double attenuation, boolean pigmentMix, double pixelsPerUnit) {
+		return vertical(tinted, attenuation, pigmentMix, pixelsPerUnit, null);
+	}
+
+	/**
+	 * @param mixCache	The {@link MixCache} to mix the colors through, or {@code null} to mix them as usual.
+	 * @see #vertical(Rect.Tinted, double, boolean, double)
+	 */
+	public static Strip vertical(@NotNull Rect.Tinted tinted, double attenuation, boolean pigmentMix, double pixelsPerUnit,
+								 @Nullable MixCache mixCache) {
+		Rect rect = tinted.getRect();
+		double pixels = Math.max(rect.getLeftTop().distanceTo(rect.getLeftBottom()),
+				rect.getRightTop().distanceTo(rect.getRightBottom())) * pixelsPerUnit;
+		return tessellate(true, slices(pixels, attenuation, pigmentMix), attenuation, pigmentMix, mixCache,
+				rect.getRightTop(), rect.getRightBottom(), tinted.getRightTop(), tinted.getRightBottom(),
+				rect.getLeftTop(), rect.getLeftBottom(), tinted.getLeftTop(), tinted.getLeftBottom());
+	}
+
+	/**
+	 * Tessellates a gradient from the left edge to the right edge.
+	 * @param tinted		The {@link Rect.Tinted} to tessellate, whose vertices must all have a color.
+	 * @param attenuation	The attenuation from the left edge to the right edge.
+	 * @param pigmentMix	Whether to mix the colors as pigments.
+	 * @param pixelsPerUnit	The on-screen pixels per unit of the coordinates.
+	 * @return				The tessellated {@link Strip}.
+	 */
+	public static Strip horizontal(@NotNull Rect.Tinted tinted, double attenuation, boolean pigmentMix, double pixelsPerUnit) {
+		return horizontal(tinted, attenuation, pigmentMix, pixelsPerUnit, null);
+	}
+
+	/**
+	 * @param mixCache	The {@link MixCache} to mix the colors through, or {@code null} to mix them as usual.
+	 * @see #horizontal(Rect.Tinted, double, boolean, double)
+	 */
+	public static Strip horizontal(@NotNull Rect.Tinted tinted, double attenuation, boolean pigmentMix, double pixelsPerUnit,
+									@Nullable MixCache mixCache) {
+		Rect rect = tinted.getRect();
+		double pixels = Math.max(rect.getLeftTop().distanceTo(rect.getRightTop()),
+				rect.getLeftBottom().distanceTo(rect.getRightBottom())) * pixelsPerUnit;
+		return tessellate(false, slices(pixels, attenuation, pigmentMix), attenuation, pigmentMix, mixCache,
+				rect.getLeftTop(), rect.getRightTop(), tinted.getLeftTop(), tinted.getRightTop(),
+				rect.getLeftBottom(), rect.getRightBottom(), tinted.getLeftBottom(), tinted.getRightBottom());
+	}
+
+	private static Strip tessellate(boolean vertical, int slices, double attenuation, boolean pigmentMix, @Nullable MixCache mixCache,
+									Node firstBegin, Node firstEnd, BasicRGBA<?> firstBeginColor, BasicRGBA<?> firstEndColor,
+									Node secondBegin, Node secondEnd, BasicRGBA<?> secondBeginColor, BasicRGBA<?> secondEndColor) {
+		DrawMetrics.gradient(slices);
+		Strip strip = new Strip(vertical, slices);
+		int vertices = strip.vertexCount();
+		float[] from = pigmentMix ? null : new float[4 * vertices], to = pigmentMix ? null : new float[4 * vertices],
+				ratios = pigmentMix ? null : new float[4 * vertices];
+
+		for (int i = 0; i <= slices; i++) {
+			double position = (double) i / slices, weight = weight(position, attenuation);
+			strip.put(2 * i, firstBegin, firstEnd, position);
+			strip.put(2 * i + 1, secondBegin, secondEnd, position);
+
+			if (pigmentMix) {
+				strip.put(2 * i, mix(firstBeginColor, firstEndColor, weight, mixCache));
+				strip.put(2 * i + 1, mix(secondBeginColor, secondEndColor, weight, mixCache));
+			} else {
+				// Gather the ends and weights of every channel, to be blended in bulk below
+				put(from, to, ratios, 2 * i, firstBeginColor, firstEndColor, (float) weight);
+				put(from, to, ratios, 2 * i + 1, secondBeginColor, secondEndColor, (float) weight);
+			}
+		}
+
+		if (!pigmentMix) ColorKernels.get().blend(from, to, ratios, strip.colors, 4 * vertices);
+		return strip;
+	}
+
+	private static BasicRGBA<?> mix(BasicRGBA<?> first, BasicRGBA<?> second, double ratio, @Nullable MixCache mixCache) {
+		return mixCache == null ? first.mix(second, ratio) : mixCache.mix(first, second, ratio);
+	}
+
+	private static void put(float[] from, float[] to, float[] ratios, int index, BasicRGBA<?> begin, BasicRGBA<?> end, float weight) {
+		int channel = 4 * index;
+		from[channel] = begin.getRedFloat();
+		from[channel + 1] = begin.getGreenFloat();
+		from[channel + 2] = begin.getBlueFloat();
+		from[channel + 3] = begin.getAlphaFloat();
+		to[channel] = end.getRedFloat();
+		to[channel + 1] = end.getGreenFloat();
+		to[channel + 2] = end.getBlueFloat();
+		to[channel + 3] = end.getAlphaFloat();
+		ratios[channel] = ratios[channel + 1] = ratios[channel + 2] = ratios[channel + 3] = weight;
+	}
+
+	/**
+	 * A tessellated gradient, stored as the vertices of a triangle strip in front-facing order.
+	 * For a vertical gradient the vertices alternate between the right and the left edge,
+	 * for a horizontal one between the upper and the lower edge.
+	 */
+	public static final class Strip {
+		private final boolean vertical;
+		private final int slices;
+		private final float[] positions, colors;
+
+		private Strip(boolean vertical, int slices) {
+			this.vertical = vertical;
+			this.slices = slices;
+			this.positions = new float[2 * 2 * (slices + 1)];
+			this.colors = new float[4 * 2 * (slices + 1)];
+		}
+
+		private void put(int index, Node begin, Node end, double position) {
+			positions[2 * index] = (float) (begin.getX() + (end.getX() - begin.getX()) * position);
+			positions[2 * index + 1] = (float) (begin.getY() + (end.getY() - begin.getY()) * position);
+		}
+
+		private void put(int index, BasicRGBA<?> color) {
+			colors[4 * index] = color.getRedFloat();
+			colors[4 * index + 1] = color.getGreenFloat();
+			colors[4 * index + 2] = color.getBlueFloat();
+			colors[4 * index + 3] = color.getAlphaFloat();
+		}
+
+		public boolean vertical() {
+			return vertical;
+		}
+
+		public int slices() {
+			return slices;
+		}
+
+		public int vertexCount() {
+			return 2 * (slices + 1);
+		}
+
+		public float x(int index) {
+			return positions[2 * index];
+		}
+
+		public float y(int index) {
+			return positions[2 * index + 1];
+		}
+
+		public float red(int index) {
+			return colors[4 * index];
+		}
+
+		public float green(int index) {
+			return colors[4 * index + 1];
+		}
+
+		public float blue(int index) {
+			return colors[4 * index + 2];
+		}
+
+		public float alpha(int index) {
+			return colors[4 * index + 3];
+		}
+
+		/**
+		 * Emits the vertices as a triangle strip.
+		 */
+		public void emit(@NotNull VertexConsumer consumer, @NotNull Matrix4f matrix) {
+			for (int i = 0; i < vertexCount(); i++) vertex(consumer, matrix, i);
+		}
+
+		/**
+		 * Emits the vertices as one quad per slice, in the same winding as {@link #emit(VertexConsumer, Matrix4f)}.
+		 * Quads are split into triangles along the diagonal from their first to their third vertex, so every
+		 * quad starts from the vertex that makes this the diagonal the strip splits the slice along, and
+		 * the batched gradient rasterizes exactly as the strip.
+		 */
+		public void emitQuads(@NotNull VertexConsumer consumer, @NotNull Matrix4f matrix) {
+			for (int i = 0; i < slices; i++) {
+				// The strip splits the slice into first, second, next first and second, next first, next second
+				int first = 2 * i, second = 2 * i + 1, nextFirst = 2 * i + 2, nextSecond = 2 * i + 3;
+				vertex(consumer, matrix, second);
+				vertex(consumer, matrix, nextSecond);
+				vertex(consumer, matrix, nextFirst);
+				vertex(consumer, matrix, first);
+			}
+		}
+
+		private void vertex(VertexConsumer consumer, Matrix4f matrix, int index) {
+			consumer.vertex(matrix, x(index), y(index), 0).color(red(index), green(index), blue(index), alpha(index)).next();
+		}
+	}
+}
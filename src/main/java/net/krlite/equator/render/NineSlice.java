@@ -0,0 +1,114 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.render.sprite.IdentifierSprite;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+/**
+ * The nine-slice layout of {@link Equator.Renderer#renderFixedOverlay(BasicRGBA)}, which keeps the
+ * corners of a sprite square while stretching its edges and center over the screen.
+ * <br />
+ * The slices replace the uvs of the sprite with fixed halves of the texture, so the layout only
+ * depends on the screen size. It is computed once and reused until the screen is resized, and
+ * emitted as plain quads sharing one draw call, with the halves mapped into the sheet they are drawn from.
+ */
+final class NineSlice {
+	private static final int FLOATS_PER_SLICE = 8;
+	private static @Nullable NineSlice cached;
+
+	/**
+	 * @param width		The scaled width of the screen.
+	 * @param height	The scaled height of the screen.
+	 * @return			The layout for the screen size, cached until the size changes.
+	 */
+	static NineSlice of(int width, int height) {
+		NineSlice layout = cached;
+		if (layout == null || layout.width != width || layout.height != height) cached = layout = new NineSlice(width, height);
+		return layout;
+	}
+
+	private final int width, height;
+	// Per slice: x, y, width, height, uBegin, vBegin, uEnd, vEnd
+	private final float[] slices = new float[9 * FLOATS_PER_SLICE];
+	private int count;
+
+	private NineSlice(int width, int height) {
+		this.width = width;
+		this.height = height;
+
+		float fixedSize = Math.min(width / 2F, height / 2F);
+
+		// Upper
+		if (width > height) put(fixedSize, 0, width - fixedSize * 2, fixedSize, 0.5F, 0, 0.5F, 0.5F);
+		// Left upper
+		put(0, 0, fixedSize, fixedSize, 0, 0, 0.5F, 0.5F);
+
+		// Left
+		if (height > width) put(0, fixedSize, fixedSize, height - fixedSize * 2, 0, 0.5F, 0.5F, 0.5F);
+		// Left lower
+		put(0, height - fixedSize, fixedSize, fixedSize, 0, 0.5F, 0.5F, 1);
+
+		// Lower
+		if (width > height) put(fixedSize, height - fixedSize, width - fixedSize * 2, fixedSize, 0.5F, 0.5F, 0.5F, 1);
+		// Right lower
+		put(width - fixedSize, height - fixedSize, fixedSize, fixedSize, 0.5F, 0.5F, 1, 1);
+
+		// Right
+		if (height > width) put(width - fixedSize, fixedSize, fixedSize, height - fixedSize * 2, 0.5F, 0.5F, 1, 0.5F);
+		// Right upper
+		put(width - fixedSize, 0, fixedSize, fixedSize, 0.5F, 0, 1, 0.5F);
+
+		// Center
+		if (width != height) put(fixedSize, fixedSize, width - fixedSize * 2, height - fixedSize * 2, 0.5F, 0.5F, 0.5F, 0.5F);
+	}
+
+	private void put(float x, float y, float width, float height, float uBegin, float vBegin, float uEnd, float vEnd) {
+		int offset = FLOATS_PER_SLICE * count++;
+		slices[offset] = x;
+		slices[offset + 1] = y;
+		slices[offset + 2] = width;
+		slices[offset + 3] = height;
+		slices[offset + 4] = uBegin;
+		slices[offset + 5] = vBegin;
+		slices[offset + 6] = uEnd;
+		slices[offset + 7] = vEnd;
+	}
+
+	int count() {
+		return count;
+	}
+
+	/**
+	 * Emits every slice as a quad in the {@code POSITION_TEXTURE_COLOR} format.
+	 * @param sheet	The whole texture, or the region of a {@link net.krlite.equator.render.atlas.RuntimeAtlas}
+	 *              page it is remapped into.
+	 */
+	void emit(@NotNull VertexConsumer consumer, @NotNull Matrix4f matrix, @NotNull IdentifierSprite sheet, @NotNull BasicRGBA<?> tint) {
+		float red = tint.getRedFloat(), green = tint.getGreenFloat(), blue = tint.getBlueFloat(), alpha = tint.getAlphaFloat();
+		float uOrigin = sheet.uBegin(), vOrigin = sheet.vBegin(), uSpan = sheet.uEnd() - uOrigin, vSpan = sheet.vEnd() - vOrigin;
+		for (int i = 0; i < count; i++) {
+			int offset = FLOATS_PER_SLICE * i;
+			float x = slices[offset], y = slices[offset + 1], right = x + slices[offset + 2], bottom = y + slices[offset + 3],
+					uBegin = uOrigin + uSpan * slices[offset + 4], vBegin = vOrigin + vSpan * slices[offset + 5],
+					uEnd = uOrigin + uSpan * slices[offset + 6], vEnd = vOrigin + vSpan * slices[offset + 7];
+
+			vertex(consumer, matrix, right, y, uEnd, vBegin, red, green, blue, alpha);
+			vertex(consumer, matrix, x, y, uBegin, vBegin, red, green, blue, alpha);
+			vertex(consumer, matrix, x, bottom, uBegin, vEnd, red, green, blue, alpha);
+			vertex(consumer, matrix, right, bottom, uEnd, vEnd, red, green, blue, alpha);
+		}
+	}
+
+	private static void vertex(VertexConsumer consumer, Matrix4f matrix, float x, float y, float u, float v,
+							   float red, float green, float blue, float alpha) {
+		// Transformed inline, as VertexConsumer#vertex(Matrix4f, ...) allocates a vector per vertex
+		consumer.vertex(
+				matrix.m00() * x + matrix.m10() * y + matrix.m30(),
+				matrix.m01() * x + matrix.m11() * y + matrix.m31(),
+				matrix.m02() * x + matrix.m12() * y + matrix.m32()
+		).texture(u, v).color(red, green, blue, alpha).next();
+	}
+}
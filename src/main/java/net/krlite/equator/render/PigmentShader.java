@@ -0,0 +1,142 @@
+package net.krlite.equator.render;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.scrtwpns.Mixbox;
+import net.krlite.equator.EquatorLib;
+import net.krlite.equator.EquatorLibClient;
+import net.krlite.equator.color.MixboxCounter;
+import net.krlite.equator.color.core.BasicRGBA;
+import net.krlite.equator.color.core.PigmentLut;
+import net.krlite.equator.geometry.Rect;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.GlUniform;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.NativeImageBackedTexture;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * <h2>Pigment Shader</h2>
+ * Draws pigment-mixed gradients as a single quad, by interpolating the Mixbox latent colors
+ * of the four corners per fragment in the {@code equator:pigment} core shader.
+ * @see PigmentLut
+ */
+public class PigmentShader {
+	public static final Identifier LUT = new Identifier(EquatorLib.MOD_ID, "pigment_lut");
+	public static final Supplier<ShaderProgram> PROGRAM = () ->
+			EquatorLibClient.positionPigmentProgram == null ? null : EquatorLibClient.positionPigmentProgram.getProgram();
+
+	private static boolean lutRegistered;
+
+	public static boolean isAvailable() {
+		return RenderSystem.isOnRenderThread() && PROGRAM.get() != null;
+	}
+
+	private static Identifier lut() {
+		if (!lutRegistered) {
+			NativeImage image = new NativeImage(NativeImage.Format.RGBA, PigmentLut.WIDTH, PigmentLut.HEIGHT, false);
+			for (int y = 0; y < PigmentLut.HEIGHT; y++)
+				for (int x = 0; x < PigmentLut.WIDTH; x++)
+					image.setColor(x, y, PigmentLut.texel(x, y));
+
+			MinecraftClient.getInstance().getTextureManager().registerTexture(LUT, new NativeImageBackedTexture(image));
+			lutRegistered = true;
+		}
+		return LUT;
+	}
+
+	/**
+	 * The axis the attenuation of a {@link Gradient} applies to.
+	 */
+	public enum Axis {
+		BILINEAR, VERTICAL, HORIZONTAL
+	}
+
+	/**
+	 * A Mixbox latent color, reduced to what the shader interpolates: the first three pigment
+	 * concentrations, the RGB residual and the alpha.
+	 */
+	public record Latent(float c0, float c1, float c2, float red, float green, float blue, float alpha) {
+		public static Latent of(@NotNull BasicRGBA<?> color) {
+			MixboxCounter.count(1);
+			float[] latent = Mixbox.rgbToLatent(color.toColorInt());
+			return new Latent(latent[0], latent[1], latent[2], latent[4], latent[5], latent[6], color.getAlphaFloat());
+		}
+
+		private static Latent interpolate(Latent first, Latent second, float ratio) {
+			return new Latent(
+					lerp(first.c0, second.c0, ratio), lerp(first.c1, second.c1, ratio), lerp(first.c2, second.c2, ratio),
+					lerp(first.red, second.red, ratio), lerp(first.green, second.green, ratio),
+					lerp(first.blue, second.blue, ratio), lerp(first.alpha, second.alpha, ratio)
+			);
+		}
+	}
+
+	/**
+	 * The uniforms of a pigment gradient, compared by value.
+	 */
+	public record Gradient(@NotNull Latent leftTop, @NotNull Latent leftBottom, @NotNull Latent rightBottom, @NotNull Latent rightTop,
+						   float attenuation, @NotNull Axis axis) implements DrawState.Uniforms {
+		public static Gradient of(@NotNull Rect.Tinted tinted, double attenuation, @NotNull Axis axis) {
+			return new Gradient(Latent.of(tinted.getLeftTop()), Latent.of(tinted.getLeftBottom()),
+					Latent.of(tinted.getRightBottom()), Latent.of(tinted.getRightTop()), (float) attenuation, axis);
+		}
+
+		public static Gradient vertical(@NotNull Rect.Tinted tinted, double upperToLowerAttenuation) {
+			return of(tinted, upperToLowerAttenuation, Axis.VERTICAL);
+		}
+
+		public static Gradient horizontal(@NotNull Rect.Tinted tinted, double leftToRightAttenuation) {
+			return of(tinted, leftToRightAttenuation, Axis.HORIZONTAL);
+		}
+
+		public DrawState state() {
+			return new DrawState(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE, PROGRAM, lut(), null, false, this);
+		}
+
+		@Override
+		public void apply(@NotNull ShaderProgram program) {
+			set(program, "Gradient", attenuation, axis.ordinal());
+			set(program, "LeftTop", leftTop);
+			set(program, "LeftBottom", leftBottom);
+			set(program, "RightBottom", rightBottom);
+			set(program, "RightTop", rightTop);
+		}
+
+		/**
+		 * Evaluates the gradient on the CPU, mirroring the fragment shader.
+		 * @param u	The horizontal coordinate inside the quad, from the left edge.
+		 * @param v	The vertical coordinate inside the quad, from the upper edge.
+		 * @return	The color in RGBA.
+		 */
+		public float[] evaluate(float u, float v) {
+			if (axis == Axis.VERTICAL) v = (float) GradientTessellator.weight(v, attenuation);
+			if (axis == Axis.HORIZONTAL) u = (float) GradientTessellator.weight(u, attenuation);
+
+			Latent latent = Latent.interpolate(Latent.interpolate(leftTop, rightTop, u), Latent.interpolate(leftBottom, rightBottom, u), v);
+			float[] rgb = PigmentLut.latentToRgb(new float[]{ latent.c0, latent.c1, latent.c2, 0, latent.red, latent.green, latent.blue });
+			return new float[]{ rgb[0], rgb[1], rgb[2], latent.alpha };
+		}
+
+		private static void set(ShaderProgram program, String name, Latent latent) {
+			@Nullable GlUniform pigment = program.getUniform(name + "Pigment"), residual = program.getUniform(name + "Residual");
+			if (pigment != null) pigment.set(latent.c0, latent.c1, latent.c2);
+			if (residual != null) residual.set(latent.red, latent.green, latent.blue, latent.alpha);
+		}
+
+		private static void set(ShaderProgram program, String name, float x, float y) {
+			@Nullable GlUniform uniform = program.getUniform(name);
+			if (uniform != null) uniform.set(x, y);
+		}
+	}
+
+	private static float lerp(float first, float second, float ratio) {
+		return first * (1 - ratio) + second * ratio;
+	}
+}
@@ -0,0 +1,241 @@
+package net.krlite.equator.render;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Render State Tracker</h2>
+ * A shadow of the render states {@link DrawState}s change, which skips the transitions to a state
+ * that is already applied. Every transition only records the wanted state, and {@link #flush()}
+ * applies the ones that differ from the last applied state.
+ * <br />
+ * Any code may change the render states through {@link RenderSystem} between two draw calls, so
+ * the shadow is only trusted inside a {@link #session(Runnable) session}, like a {@link Batch} flush
+ * or a {@link DisplayList} replay, where nothing else draws in between. There, {@link DrawState#restore()}
+ * is also deferred, so the restore of a draw call and the apply of the next one cancel out. Outside
+ * sessions, every transition is applied. Code calling {@link RenderSystem} directly inside a session
+ * must {@link #invalidate()} the shadow afterwards.
+ * <br />
+ * Everything here must run on the render thread.
+ */
+public class RenderStateTracker {
+	private static final RenderStateTracker INSTANCE = new RenderStateTracker();
+
+	public static RenderStateTracker getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * A blend function, applied separately to the colors and the alpha.
+	 */
+	public record BlendFunc(GlStateManager.SrcFactor srcColor, GlStateManager.DstFactor dstColor,
+							GlStateManager.SrcFactor srcAlpha, GlStateManager.DstFactor dstAlpha) {
+		/**
+		 * The blend function of {@link RenderSystem#defaultBlendFunc()}.
+		 */
+		public static final BlendFunc DEFAULT = new BlendFunc(GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA,
+				GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ZERO);
+
+		public static BlendFunc of(GlStateManager.SrcFactor src, GlStateManager.DstFactor dst) {
+			return new BlendFunc(src, dst, src, dst);
+		}
+	}
+
+	private enum Slot {
+		DEPTH_TEST, DEPTH_MASK, TEXTURE, BLEND, BLEND_FUNC, SHADER, SHADER_COLOR, SHADER_TEXTURE
+	}
+
+	private static final Slot[] SLOTS = Slot.values();
+
+	// The wanted and the last applied value of every slot, where an applied null is unknown
+	private final Object[] wanted = new Object[SLOTS.length], applied = new Object[SLOTS.length];
+	private final boolean[] touched = new boolean[SLOTS.length];
+	private BlendFunc defaultBlendFunc = BlendFunc.DEFAULT;
+	private int depth;
+	private long appliedCount, elidedCount;
+
+	private RenderStateTracker() {
+	}
+
+	/**
+	 * @return	Whether the shadow is trusted, as inside a {@link #session(Runnable) session}.
+	 */
+	public boolean tracking() {
+		return depth > 0;
+	}
+
+	/**
+	 * @return	The number of transitions applied through {@link RenderSystem}.
+	 */
+	public long applied() {
+		return appliedCount;
+	}
+
+	/**
+	 * @return	The number of transitions skipped, as their state was already applied.
+	 */
+	public long elided() {
+		return elidedCount;
+	}
+
+	public double elisionRate() {
+		return appliedCount + elidedCount == 0 ? 0 : (double) elidedCount / (appliedCount + elidedCount);
+	}
+
+	public void resetCounters() {
+		appliedCount = elidedCount = 0;
+	}
+
+	/**
+	 * Runs a drawing that changes the render states only through this tracker, trusting the shadow
+	 * throughout. The deferred transitions are applied when the outermost session ends.
+	 * @param drawing	The drawing.
+	 */
+	public void session(@NotNull Runnable drawing) {
+		if (depth++ == 0) invalidate();
+		try {
+			drawing.run();
+		} finally {
+			if (--depth == 0) flush();
+		}
+	}
+
+	/**
+	 * Forgets the applied states, so that every following transition is applied.
+	 */
+	public void invalidate() {
+		Arrays.fill(applied, null);
+	}
+
+	private void want(Slot slot, Object value) {
+		wanted[slot.ordinal()] = value;
+		touched[slot.ordinal()] = true;
+	}
+
+	public void depthTest(boolean enabled) {
+		want(Slot.DEPTH_TEST, enabled);
+	}
+
+	public void depthMask(boolean enabled) {
+		want(Slot.DEPTH_MASK, enabled);
+	}
+
+	public void texture(boolean enabled) {
+		want(Slot.TEXTURE, enabled);
+	}
+
+	public void blend(boolean enabled) {
+		want(Slot.BLEND, enabled);
+	}
+
+	public void blendFunc(@NotNull BlendFunc blendFunc) {
+		want(Slot.BLEND_FUNC, blendFunc);
+	}
+
+	/**
+	 * Wants the blend function {@link DrawState}s draw with, which is {@link BlendFunc#DEFAULT} unless
+	 * replaced {@link #withDefaultBlendFunc(BlendFunc, Runnable) for a drawing}.
+	 */
+	public void defaultBlendFunc() {
+		blendFunc(defaultBlendFunc);
+	}
+
+	/**
+	 * Runs a drawing with another default blend function, like one accumulating the alpha of a
+	 * transparent target, which {@link BlendFunc#DEFAULT} overwrites.
+	 * @param blendFunc	The blend function {@link #defaultBlendFunc()} wants throughout the drawing.
+	 * @param drawing	The drawing.
+	 */
+	public void withDefaultBlendFunc(@NotNull BlendFunc blendFunc, @NotNull Runnable drawing) {
+		BlendFunc previous = defaultBlendFunc;
+		defaultBlendFunc = blendFunc;
+		try {
+			drawing.run();
+		} finally {
+			defaultBlendFunc = previous;
+		}
+	}
+
+	/**
+	 * @param shader	The shader supplier, which must be a shared constant to be recognized as already applied.
+	 */
+	public void shader(@NotNull Supplier<ShaderProgram> shader) {
+		want(Slot.SHADER, shader);
+	}
+
+	public void shaderColor(@NotNull DrawState.ShaderColor shaderColor) {
+		want(Slot.SHADER_COLOR, shaderColor);
+	}
+
+	public void shaderColor(float red, float green, float blue, float alpha) {
+		shaderColor(new DrawState.ShaderColor(red, green, blue, alpha));
+	}
+
+	public void shaderTexture(@NotNull Identifier texture) {
+		want(Slot.SHADER_TEXTURE, texture);
+	}
+
+	/**
+	 * Applies the wanted states that differ from the applied ones.
+	 */
+	public void flush() {
+		for (Slot slot : SLOTS) {
+			int index = slot.ordinal();
+			if (!touched[index]) continue;
+			touched[index] = false;
+
+			Object value = wanted[index];
+			if (Objects.equals(applied[index], value)) {
+				elidedCount++;
+				continue;
+			}
+
+			apply(slot, value);
+			applied[index] = value;
+			appliedCount++;
+		}
+	}
+
+	/**
+	 * Applies the wanted states, unless in a session, where they are deferred to the next {@link #flush()}.
+	 */
+	public void settle() {
+		if (!tracking()) flush();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void apply(Slot slot, Object value) {
+		switch (slot) {
+			case DEPTH_TEST -> {
+				if ((boolean) value) RenderSystem.enableDepthTest();
+				else RenderSystem.disableDepthTest();
+			}
+			case DEPTH_MASK -> RenderSystem.depthMask((boolean) value);
+			case TEXTURE -> {
+				if ((boolean) value) RenderSystem.enableTexture();
+				else RenderSystem.disableTexture();
+			}
+			case BLEND -> {
+				if ((boolean) value) RenderSystem.enableBlend();
+				else RenderSystem.disableBlend();
+			}
+			case BLEND_FUNC -> {
+				BlendFunc blendFunc = (BlendFunc) value;
+				RenderSystem.blendFuncSeparate(blendFunc.srcColor(), blendFunc.dstColor(), blendFunc.srcAlpha(), blendFunc.dstAlpha());
+			}
+			case SHADER -> RenderSystem.setShader((Supplier<ShaderProgram>) value);
+			case SHADER_COLOR -> {
+				DrawState.ShaderColor shaderColor = (DrawState.ShaderColor) value;
+				RenderSystem.setShaderColor(shaderColor.red(), shaderColor.green(), shaderColor.blue(), shaderColor.alpha());
+			}
+			case SHADER_TEXTURE -> RenderSystem.setShaderTexture(0, (Identifier) value);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package net.krlite.equator.render;
+
+import com.google.common.collect.ImmutableMap;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.EquatorLibClient;
+import net.krlite.equator.render.vertex.GenericVertexConsumer;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+import net.minecraft.client.render.VertexFormats;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * <h2>SDF Shader</h2>
+ * Draws rounded rectangles, circles, rings and soft shadows as a single quad each, by evaluating
+ * the signed distance to the shape per fragment in the {@code equator:sdf} core shader.
+ * <br />
+ * The uvs of a quad carry the position relative to the center of the shape, and every vertex carries
+ * the shape itself in a generic element. All shapes therefore share {@link #STATE}, and are merged
+ * by a {@link Batch} wherever they are drawn.
+ */
+public class SdfShader {
+	public static final Supplier<ShaderProgram> PROGRAM = () ->
+			EquatorLibClient.sdfProgram == null ? null : EquatorLibClient.sdfProgram.getProgram();
+
+	/**
+	 * The position, the uv relative to the center of the shape, the color, and the shape as
+	 * {@code halfWidth, halfHeight, radius, thickness}.
+	 */
+	public static final VertexFormat FORMAT = new VertexFormat(ImmutableMap.of(
+			"Position", VertexFormats.POSITION_ELEMENT,
+			"UV0", VertexFormats.TEXTURE_ELEMENT,
+			"Color", VertexFormats.COLOR_ELEMENT,
+			"Shape", new VertexFormatElement(0, VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Type.GENERIC, 4)
+	));
+
+	public static final DrawState STATE = new DrawState(VertexFormat.DrawMode.QUADS, FORMAT, PROGRAM, null, null, false, null);
+
+	public static boolean isAvailable() {
+		return RenderSystem.isOnRenderThread() && PROGRAM.get() != null;
+	}
+
+	/**
+	 * A shape, compared by value. Every shape is a rounded rectangle centered at the origin.
+	 * @param halfWidth		Half the width of the shape.
+	 * @param halfHeight	Half the height of the shape.
+	 * @param radius		The radius of the corners, at most half the shorter side.
+	 * @param thickness		The thickness of the outline, or {@code 0} to fill the shape.
+	 * @param softness		The width of the edge the coverage falls off across, centered on the outline.
+	 */
+	public record Shape(float halfWidth, float halfHeight, float radius, float thickness, float softness) {
+		public Shape {
+			halfWidth = Math.max(0, halfWidth);
+			halfHeight = Math.max(0, halfHeight);
+			radius = Math.max(0, Math.min(radius, Math.min(halfWidth, halfHeight)));
+			thickness = Math.max(0, thickness);
+			// The coverage is undefined for a hard edge
+			softness = Math.max(1E-3F, softness);
+		}
+
+		/**
+		 * @param pixelsPerUnit	The physical pixels per unit, so that the edge is anti-aliased across one pixel.
+		 */
+		public static Shape roundedRect(double width, double height, double radius, double pixelsPerUnit) {
+			return new Shape((float) width / 2, (float) height / 2, (float) radius, 0, (float) (1 / pixelsPerUnit));
+		}
+
+		public static Shape circle(double radius, double pixelsPerUnit) {
+			return roundedRect(2 * radius, 2 * radius, radius, pixelsPerUnit);
+		}
+
+		/**
+		 * @param thickness	The thickness of the ring, growing inwards from the radius.
+		 */
+		public static Shape ring(double radius, double thickness, double pixelsPerUnit) {
+			return new Shape((float) radius, (float) radius, (float) radius, (float) thickness, (float) (1 / pixelsPerUnit));
+		}
+
+		/**
+		 * @param softness	The width of the blur, centered on the outline of the rounded rectangle.
+		 */
+		public static Shape shadow(double width, double height, double radius, double softness, double pixelsPerUnit) {
+			return new Shape((float) width / 2, (float) height / 2, (float) radius, 0, (float) (softness + 1 / pixelsPerUnit));
+		}
+
+		/**
+		 * @return	How far the quad must extend beyond the shape to cover its falloff.
+		 */
+		public float extent() {
+			return softness / 2;
+		}
+
+		/**
+		 * Writes the shape into the generic element of a vertex in {@link #FORMAT}. The softness is not
+		 * written, as the shader recovers it from how far the uvs of the quad extend beyond the shape.
+		 */
+		@Contract("_ -> param1")
+		public VertexConsumer write(@NotNull VertexConsumer consumer) {
+			return GenericVertexConsumer.generic(consumer, halfWidth, halfHeight, radius, thickness);
+		}
+
+		/**
+		 * Evaluates the signed distance on the CPU, mirroring the fragment shader.
+		 * @param x	The horizontal position, relative to the center.
+		 * @param y	The vertical position, relative to the center.
+		 * @return	The distance to the outline, negative inside the shape.
+		 */
+		public float distance(float x, float y) {
+			float qx = Math.abs(x) - halfWidth + radius, qy = Math.abs(y) - halfHeight + radius;
+			float distance = (float) Math.hypot(Math.max(qx, 0), Math.max(qy, 0)) + Math.min(Math.max(qx, qy), 0) - radius;
+			if (thickness > 0) distance = Math.abs(distance + thickness / 2) - thickness / 2;
+			return distance;
+		}
+
+		/**
+		 * Evaluates the coverage on the CPU, mirroring the fragment shader.
+		 * @return	The coverage between {@code 0} and {@code 1}, which multiplies the alpha.
+		 */
+		public float coverage(float x, float y) {
+			return 1 - smoothstep(-softness / 2, softness / 2, distance(x, y));
+		}
+
+		/**
+		 * Traces the outline of the rounded rectangle, for drawing the shape as polygons when the shader is unavailable.
+		 * @param inset		How far to move the outline inwards.
+		 * @param segments	The number of segments per corner.
+		 * @return			The positions of the outline, relative to the center, as {@code x, y} pairs
+		 * 					in clockwise order from the right top corner.
+		 */
+		public float[] outline(float inset, int segments) {
+			float halfWidth = Math.max(0, this.halfWidth - inset), halfHeight = Math.max(0, this.halfHeight - inset),
+					radius = Math.max(0, Math.min(this.radius - inset, Math.min(halfWidth, halfHeight)));
+			segments = Math.max(1, segments);
+			float[] outline = new float[2 * 4 * (segments + 1)];
+
+			int index = 0;
+			for (int corner = 0; corner < 4; corner++) {
+				// Right top, right bottom, left bottom, left top, in screen coordinates
+				float signX = corner < 2 ? 1 : -1, signY = corner == 0 || corner == 3 ? -1 : 1;
+				double start = -Math.PI / 2 + corner * Math.PI / 2;
+
+				for (int segment = 0; segment <= segments; segment++) {
+					double angle = start + Math.PI / 2 * segment / segments;
+					outline[index++] = signX * (halfWidth - radius) + radius * (float) Math.cos(angle);
+					outline[index++] = signY * (halfHeight - radius) + radius * (float) Math.sin(angle);
+				}
+			}
+			return outline;
+		}
+	}
+
+	private static float smoothstep(float edge0, float edge1, float x) {
+		float t = Math.max(0, Math.min(1, (x - edge0) / (edge1 - edge0)));
+		return t * t * (3 - 2 * t);
+	}
+}
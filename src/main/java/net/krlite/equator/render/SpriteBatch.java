@@ -0,0 +1,178 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.color.PackedColor;
+import net.krlite.equator.color.PreciseColor;
+import net.krlite.equator.render.atlas.RuntimeAtlas;
+import net.krlite.equator.render.sprite.HorizontalSprite;
+import net.krlite.equator.render.sprite.IdentifierSprite;
+import net.krlite.equator.render.sprite.SurfaceSprite;
+import net.krlite.equator.render.vertex.VertexSink;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <h2>Sprite Batch</h2>
+ * Draws many frames of one sprite sheet, like the animation frames of a {@link HorizontalSprite}
+ * or {@link SurfaceSprite}, in a single draw call. Every instance only stores its position,
+ * size, frame and packed tint, and the uvs are computed from the frame grid by the {@link SpriteShader},
+ * or while emitting on the CPU, so no {@link IdentifierSprite} is created per instance.
+ * <br />
+ * Frame indices start from {@code 1} and are clamped to the grid, as in {@link HorizontalSprite#get(int)}
+ * and {@link SurfaceSprite#get(int, int)}.
+ */
+public class SpriteBatch {
+	@Contract("_ -> new")
+	public static SpriteBatch of(@NotNull HorizontalSprite sprite) {
+		return new SpriteBatch(sprite.identifier(), sprite.step(), 1);
+	}
+
+	@Contract("_ -> new")
+	public static SpriteBatch of(@NotNull SurfaceSprite sprite) {
+		return new SpriteBatch(sprite.identifier(), sprite.stepX(), sprite.stepY());
+	}
+
+	private final Identifier texture;
+	private final int columns, rows;
+	// Per instance: x, y, width, height
+	private float[] bounds = new float[4 * 64];
+	// Per instance: column, row
+	private int[] frames = new int[2 * 64];
+	private int[] tints = new int[64];
+	private int size;
+
+	/**
+	 * @param texture	The sprite sheet.
+	 * @param columns	The number of frames horizontally.
+	 * @param rows		The number of frames vertically.
+	 */
+	public SpriteBatch(@NotNull Identifier texture, int columns, int rows) {
+		this.texture = texture;
+		this.columns = Math.max(1, columns);
+		this.rows = Math.max(1, rows);
+	}
+
+	public Identifier texture() {
+		return texture;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	private int allocate() {
+		if (size == tints.length) {
+			int capacity = tints.length * 2;
+			bounds = Arrays.copyOf(bounds, 4 * capacity);
+			frames = Arrays.copyOf(frames, 2 * capacity);
+			tints = Arrays.copyOf(tints, capacity);
+		}
+		return size++;
+	}
+
+	/**
+	 * Adds an instance of a frame.
+	 * @param column	The column of the frame, from {@code 1}.
+	 * @param row		The row of the frame, from {@code 1}.
+	 * @param tint		The tint, as a packed ARGB color.
+	 */
+	@Contract("_, _, _, _, _, _, _ -> this")
+	public SpriteBatch add(double x, double y, double width, double height, int column, int row, int tint) {
+		int index = allocate();
+		bounds[4 * index] = (float) x;
+		bounds[4 * index + 1] = (float) y;
+		bounds[4 * index + 2] = (float) width;
+		bounds[4 * index + 3] = (float) height;
+		frames[2 * index] = MathHelper.clamp(column, 1, columns);
+		frames[2 * index + 1] = MathHelper.clamp(row, 1, rows);
+		tints[index] = tint;
+		return this;
+	}
+
+	/**
+	 * Adds an instance of a frame, counting the frames row by row.
+	 * @param frame	The index of the frame, from {@code 1}.
+	 * @param tint	The tint, as a packed ARGB color.
+	 */
+	@Contract("_, _, _, _, _, _ -> this")
+	public SpriteBatch add(double x, double y, double width, double height, int frame, int tint) {
+		frame = MathHelper.clamp(frame, 1, columns * rows) - 1;
+		return add(x, y, width, height, frame % columns + 1, frame / columns + 1, tint);
+	}
+
+	@Contract("_, _, _, _, _ -> this")
+	public SpriteBatch add(double x, double y, double width, double height, int frame) {
+		return add(x, y, width, height, frame, PackedColor.WHITE);
+	}
+
+	/**
+	 * Draws every instance in a single draw call. The sheet is drawn from the {@link RuntimeAtlas} if it
+	 * is registered there. Instances are drawn instanced through the {@link SpriteShader} when drawing
+	 * directly, and expanded into quads on the CPU when the shader is unavailable, or when batching or
+	 * recording, which needs their vertices.
+	 * @param matrixStack	The {@link MatrixStack} to transform the instances by.
+	 */
+	public void render(@NotNull MatrixStack matrixStack) {
+		if (size == 0) return;
+
+		IdentifierSprite sheet = RuntimeAtlas.getInstance().remap(IdentifierSprite.of(texture));
+		Matrix4f matrix = matrixStack.peek().getPositionMatrix();
+		VertexSink sink = Equator.sink();
+
+		if (!sink.batching() && !sink.headless() && SpriteShader.isAvailable()) renderInstanced(sheet, matrix);
+		else renderQuads(sink, sheet, matrix);
+	}
+
+	private void renderInstanced(IdentifierSprite sheet, Matrix4f matrix) {
+		ByteBuffer instances = SpriteShader.stage(size);
+		for (int i = 0; i < size; i++) {
+			int tint = tints[i];
+			instances.putFloat(bounds[4 * i]).putFloat(bounds[4 * i + 1]).putFloat(bounds[4 * i + 2]).putFloat(bounds[4 * i + 3])
+					.putFloat(frames[2 * i]).putFloat(frames[2 * i + 1])
+					.put((byte) PackedColor.red(tint)).put((byte) PackedColor.green(tint)).put((byte) PackedColor.blue(tint)).put((byte) PackedColor.alpha(tint));
+		}
+
+		SpriteShader.Sheet uniforms = new SpriteShader.Sheet(matrix, sheet.uBegin(), sheet.vBegin(), sheet.uEnd(), sheet.vEnd(), columns, rows);
+		SpriteShader.draw(SpriteShader.state(sheet.identifier(), uniforms), instances.flip(), size);
+	}
+
+	private void renderQuads(VertexSink sink, IdentifierSprite sheet, Matrix4f matrix) {
+		DrawState state = DrawState.textured(sheet.identifier(), PreciseColor.WHITE);
+		VertexConsumer consumer = sink.begin(state);
+		// Mirrors the sprite vertex shader
+		float uSpan = (sheet.uEnd() - sheet.uBegin()) / columns, vSpan = (sheet.vEnd() - sheet.vBegin()) / rows;
+
+		for (int i = 0; i < size; i++) {
+			float x = bounds[4 * i], y = bounds[4 * i + 1], right = x + bounds[4 * i + 2], bottom = y + bounds[4 * i + 3];
+			float uBegin = sheet.uBegin() + (frames[2 * i] - 1) * uSpan, uEnd = sheet.uBegin() + frames[2 * i] * uSpan,
+					vBegin = sheet.vBegin() + (frames[2 * i + 1] - 1) * vSpan, vEnd = sheet.vBegin() + frames[2 * i + 1] * vSpan;
+			int tint = tints[i];
+
+			vertex(consumer, matrix, right, y, uEnd, vBegin, tint);
+			vertex(consumer, matrix, x, y, uBegin, vBegin, tint);
+			vertex(consumer, matrix, x, bottom, uBegin, vEnd, tint);
+			vertex(consumer, matrix, right, bottom, uEnd, vEnd, tint);
+		}
+
+		sink.end(state);
+	}
+
+	private static void vertex(VertexConsumer consumer, Matrix4f matrix, float x, float y, float u, float v, int tint) {
+		consumer.vertex(
+				matrix.m00() * x + matrix.m10() * y + matrix.m30(),
+				matrix.m01() * x + matrix.m11() * y + matrix.m31(),
+				matrix.m02() * x + matrix.m12() * y + matrix.m32()
+		).texture(u, v).color(PackedColor.red(tint), PackedColor.green(tint), PackedColor.blue(tint), PackedColor.alpha(tint)).next();
+	}
+}
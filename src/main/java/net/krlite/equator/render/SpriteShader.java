@@ -0,0 +1,160 @@
+package net.krlite.equator.render;
+
+import com.google.common.collect.ImmutableMap;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.EquatorLibClient;
+import net.minecraft.client.gl.GlUniform;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Sprite Shader</h2>
+ * Draws the instances of a {@link SpriteBatch} with {@code glDrawArraysInstanced}, through the
+ * {@code equator:sprite} core shader. Every instance is a single record in an instance buffer,
+ * advanced once per instance by a vertex attribute divisor, and the shader expands it into a quad
+ * and computes the uvs of its frame from the grid of the sprite sheet.
+ * <br />
+ * Vertex attribute divisors need OpenGL 3.3, which some drivers lack. Everything here must run on the render thread.
+ */
+public class SpriteShader {
+	public static final Supplier<ShaderProgram> PROGRAM = () ->
+			EquatorLibClient.spriteProgram == null ? null : EquatorLibClient.spriteProgram.getProgram();
+
+	/**
+	 * The attributes of an instance: the bounds as {@code x, y, width, height}, the frame as
+	 * {@code column, row} from {@code 1}, and the tint.
+	 */
+	public static final VertexFormat FORMAT = new VertexFormat(ImmutableMap.of(
+			"Bounds", new VertexFormatElement(0, VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Type.GENERIC, 4),
+			"Frame", new VertexFormatElement(0, VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Type.GENERIC, 2),
+			"Color", VertexFormats.COLOR_ELEMENT
+	));
+
+	/**
+	 * The size of an instance in bytes.
+	 */
+	public static final int STRIDE = 4 * 4 + 2 * 4 + 4;
+
+	private static int vertexArray, buffer;
+	private static @Nullable ByteBuffer staging;
+
+	public static boolean isAvailable() {
+		return RenderSystem.isOnRenderThread() && PROGRAM.get() != null && GL.getCapabilities().OpenGL33;
+	}
+
+	/**
+	 * The uniforms of a sprite sheet, compared by value.
+	 * @param transform	The transform of every instance, applied before the model view.
+	 * @param uBegin	The u begin of the sheet, which may be remapped into a {@link net.krlite.equator.render.atlas.RuntimeAtlas}.
+	 * @param vBegin	The v begin of the sheet.
+	 * @param uEnd		The u end of the sheet.
+	 * @param vEnd		The v end of the sheet.
+	 * @param columns	The number of frames horizontally.
+	 * @param rows		The number of frames vertically.
+	 */
+	public record Sheet(@NotNull Matrix4fc transform, float uBegin, float vBegin, float uEnd, float vEnd,
+						int columns, int rows) implements DrawState.Uniforms {
+		public Sheet {
+			// The matrix of a stack changes as soon as it is pushed
+			transform = new Matrix4f(transform);
+		}
+
+		@Override
+		public void apply(@NotNull ShaderProgram program) {
+			@Nullable GlUniform transform = program.getUniform("Transform"), sheet = program.getUniform("Sheet"), grid = program.getUniform("Grid");
+			if (transform != null) transform.set(new Matrix4f(this.transform));
+			if (sheet != null) sheet.set(uBegin, vBegin, uEnd, vEnd);
+			if (grid != null) grid.set((float) columns, (float) rows);
+		}
+	}
+
+	/**
+	 * @param texture	The texture of the sheet, or of the atlas page it is remapped into.
+	 */
+	public static DrawState state(@NotNull Identifier texture, @NotNull Sheet sheet) {
+		return new DrawState(VertexFormat.DrawMode.TRIANGLE_STRIP, FORMAT, PROGRAM, texture,
+				new DrawState.ShaderColor(1, 1, 1, 1), true, sheet);
+	}
+
+	/**
+	 * @param instances	The number of instances to write.
+	 * @return			A buffer of at least that many instances, cleared for writing.
+	 */
+	public static @NotNull ByteBuffer stage(int instances) {
+		int capacity = instances * STRIDE;
+		if (staging == null || staging.capacity() < capacity)
+			staging = MemoryUtil.memRealloc(staging, Math.max(capacity, staging == null ? 64 * STRIDE : 2 * staging.capacity()));
+		return staging.clear();
+	}
+
+	/**
+	 * Uploads the instances and draws them in a single instanced draw call.
+	 * @param state		The state built by {@link #state(Identifier, Sheet)}.
+	 * @param instances	The instances, flipped for reading.
+	 * @param count		The number of instances.
+	 */
+	public static void draw(@NotNull DrawState state, @NotNull ByteBuffer instances, int count) {
+		state.apply();
+		ShaderProgram program = RenderSystem.getShader();
+		if (program != null) {
+			if (vertexArray == 0) createVertexArray();
+
+			// The uniforms a vertex buffer sets before drawing
+			program.addSampler("Sampler0", RenderSystem.getShaderTexture(0));
+			if (program.modelViewMat != null) program.modelViewMat.set(RenderSystem.getModelViewMatrix());
+			if (program.projectionMat != null) program.projectionMat.set(RenderSystem.getProjectionMatrix());
+			if (program.colorModulator != null) program.colorModulator.set(RenderSystem.getShaderColor());
+
+			GlStateManager._glBindVertexArray(vertexArray);
+			GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+			// Orphans the storage of the last draw call, which the GPU may still read
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instances, GL15.GL_STREAM_DRAW);
+
+			program.bind();
+			GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, count);
+			program.unbind();
+
+			// The vertex array changed behind the buffer renderer, which would otherwise skip binding its own
+			BufferRenderer.resetCurrentVertexBuffer();
+			GlStateManager._glBindVertexArray(0);
+		}
+		state.restore();
+	}
+
+	private static void createVertexArray() {
+		vertexArray = GlStateManager._glGenVertexArrays();
+		buffer = GlStateManager._glGenBuffers();
+		GlStateManager._glBindVertexArray(vertexArray);
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+
+		// The attributes are bound in the order of the format
+		attribute(0, 4, GL11.GL_FLOAT, false, 0);
+		attribute(1, 2, GL11.GL_FLOAT, false, 4 * 4);
+		attribute(2, 4, GL11.GL_UNSIGNED_BYTE, true, 4 * 4 + 2 * 4);
+	}
+
+	private static void attribute(int index, int size, int type, boolean normalized, int offset) {
+		GL20.glEnableVertexAttribArray(index);
+		GL20.glVertexAttribPointer(index, size, type, normalized, STRIDE, offset);
+		GL33.glVertexAttribDivisor(index, 1);
+	}
+}
@@ -0,0 +1,317 @@
+package net.krlite.equator.render.atlas;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.joml.Quaterniond;
+import org.joml.Quaterniondc;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h2>Icon Cache</h2>
+ * A bounded LRU cache of item and block icons, each rendered once into a slot of a shared framebuffer
+ * and drawn as a single textured quad afterwards, instead of rendering the full model every frame.
+ * <br />
+ * Icons are keyed on the model, the quaternion rounded to {@code 1 / buckets} in every component, and
+ * the size in pixels, so a rotation changing every frame should be rounded by the caller or drawn directly.
+ * Items with an enchantment glint are animated and never cached, while other animated textures freeze at
+ * the frame they were cached at. Every icon must fit a {@link #tileSize() tile}, larger ones are drawn directly.
+ * <br />
+ * Models are rebuilt on every resource reload, which {@link #invalidateAll() invalidates} every cached icon.
+ * Everything here must run on the render thread.
+ */
+public class IconCache implements AutoCloseable {
+	private static @Nullable IconCache global;
+	private static int generation;
+
+	/**
+	 * @return	The cache every {@link net.krlite.equator.render.Equator.ItemModel} and
+	 * 			{@link net.krlite.equator.render.Equator.BlockModel} without its own cache
+	 * 			draws through, or {@code null} if there is none.
+	 */
+	public static @Nullable IconCache global() {
+		return global;
+	}
+
+	/**
+	 * @param cache	The cache, or {@code null} to render every model directly.
+	 */
+	public static void enableGlobally(@Nullable IconCache cache) {
+		global = cache;
+	}
+
+	/**
+	 * Invalidates the icons of every cache, which are rendered again when they are next drawn.
+	 */
+	public static void invalidateAll() {
+		generation++;
+	}
+
+	public static final int DEFAULT_CAPACITY = 1024, DEFAULT_PAGE_SIZE = 2048, DEFAULT_TILE_SIZE = 256, DEFAULT_BUCKETS = 256;
+	private static final int MIN_SLOT_SIZE = 16;
+	// The extent of a rotated model relative to its size, covering the diagonal of a full block
+	private static final double ROTATED_EXTENT = 1.75;
+
+	/**
+	 * Renders a model with the left top of its unrotated bounds at a position, like
+	 * {@link net.krlite.equator.render.Equator.ItemModel#render(Vec3d, Quaterniondc)} does.
+	 */
+	@FunctionalInterface
+	public interface Drawing {
+		void draw(@NotNull Vec3d pos, @NotNull Quaterniondc quaternion);
+	}
+
+	private record ItemIcon(Item item, @Nullable NbtCompound nbt, boolean leftHanded) {
+	}
+
+	private record BlockIcon(BlockState blockState) {
+	}
+
+	private record Key(Object model, double x, double y, double z, double w, int pixels) {
+	}
+
+	/**
+	 * @return	The model of an item stack to cache the icon of, or {@code null} if the icon is animated.
+	 */
+	public static @Nullable Object model(@NotNull ItemStack itemStack, boolean leftHanded) {
+		if (itemStack.isEmpty() || itemStack.hasGlint()) return null;
+		NbtCompound nbt = itemStack.getNbt();
+		return new ItemIcon(itemStack.getItem(), nbt == null ? null : nbt.copy(), leftHanded);
+	}
+
+	public static @NotNull Object model(@NotNull BlockState blockState) {
+		return new BlockIcon(blockState);
+	}
+
+	private final int capacity, buckets;
+	private final SlotAllocator slots;
+	private final Map<Key, SlotAllocator.Slot> icons;
+	private @Nullable SimpleFramebuffer framebuffer;
+	private int seenGeneration = generation;
+	private long hits, misses, bypasses;
+
+	/**
+	 * @param capacity	The maximum number of cached icons.
+	 * @param pageSize	The width and height of the framebuffer.
+	 * @param tileSize	The width and height of a tile, which is also the largest icon size in pixels.
+	 * @param buckets	The number of buckets per unit every quaternion component is rounded to.
+	 */
+	public IconCache(int capacity, int pageSize, int tileSize, int buckets) {
+		this.capacity = Math.max(1, capacity);
+		this.buckets = Math.max(1, buckets);
+		this.slots = new SlotAllocator(pageSize, tileSize, Math.min(MIN_SLOT_SIZE, tileSize));
+		this.icons = new LinkedHashMap<>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, SlotAllocator.Slot> eldest) {
+				if (size() <= IconCache.this.capacity) return false;
+				slots.free(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	public IconCache() {
+		this(DEFAULT_CAPACITY, DEFAULT_PAGE_SIZE, DEFAULT_TILE_SIZE, DEFAULT_BUCKETS);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return icons.size();
+	}
+
+	public int tileSize() {
+		return slots.tileSize();
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	/**
+	 * @return	The number of draws that could not be cached, and must be rendered directly.
+	 */
+	public long bypasses() {
+		return bypasses;
+	}
+
+	public double hitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	public void clear() {
+		icons.clear();
+		slots.clear();
+		hits = misses = bypasses = 0;
+	}
+
+	/**
+	 * Draws the icon of a model, rendering it into the cache first if it is missing.
+	 * @param model			The model from {@link #model(ItemStack, boolean)} or {@link #model(BlockState)}.
+	 * @param pos			The left top of the unrotated bounds of the model.
+	 * @param quaternion	The quaternion, whose {@code w} component also scales the model.
+	 * @param drawing		Renders the model directly, used to fill the cache.
+	 * @return				Whether the icon was drawn, which fails if it is too large to cache.
+	 */
+	public boolean draw(@NotNull Object model, @NotNull Vec3d pos, @NotNull Quaterniondc quaternion, @NotNull Drawing drawing) {
+		RenderSystem.assertOnRenderThread();
+		if (seenGeneration != generation) {
+			icons.clear();
+			slots.clear();
+			seenGeneration = generation;
+		}
+
+		// Render the rounded quaternion, so every icon of a bucket is the same
+		Quaterniond rounded = new Quaterniond(round(quaternion.x()), round(quaternion.y()), round(quaternion.z()), round(quaternion.w()));
+		double size = 16 * rounded.w();
+		boolean rotated = rounded.x() != 0 || rounded.y() != 0 || rounded.z() != 0;
+		double extent = Math.abs(size) * (rotated ? ROTATED_EXTENT : 1);
+		int pixels = (int) Math.ceil(extent * MinecraftClient.getInstance().getWindow().getScaleFactor());
+		if (pixels <= 0 || pixels > slots.tileSize()) {
+			bypasses++;
+			return false;
+		}
+
+		Key key = new Key(model, rounded.x(), rounded.y(), rounded.z(), rounded.w(), pixels);
+		SlotAllocator.Slot slot = icons.get(key);
+
+		if (slot != null) hits++;
+		else {
+			slot = allocate(pixels);
+			if (slot == null) {
+				bypasses++;
+				return false;
+			}
+
+			misses++;
+			capture(slot, pixels, size, extent, rounded, drawing);
+			icons.put(key, slot);
+		}
+
+		double left = pos.x + (size - extent) / 2, top = pos.y + (size - extent) / 2;
+		composite(slot, pixels, left, top, 100 + pos.z, extent);
+		return true;
+	}
+
+	private double round(double component) {
+		return (double) Math.round(component * buckets) / buckets;
+	}
+
+	private @Nullable SlotAllocator.Slot allocate(int pixels) {
+		SlotAllocator.Slot slot = slots.allocate(pixels);
+
+		// Evict the least recently drawn icons until a slot of this size frees up
+		Iterator<SlotAllocator.Slot> eldest = icons.values().iterator();
+		while (slot == null && eldest.hasNext()) {
+			slots.free(eldest.next());
+			eldest.remove();
+			slot = slots.allocate(pixels);
+		}
+		return slot;
+	}
+
+	private void capture(SlotAllocator.Slot slot, int pixels, double size, double extent, Quaterniondc quaternion, Drawing drawing) {
+		if (framebuffer == null) {
+			framebuffer = new SimpleFramebuffer(slots.size(), slots.size(), true, MinecraftClient.IS_SYSTEM_MAC);
+			framebuffer.setClearColor(0, 0, 0, 0);
+		}
+
+		// Icons may be cached while drawing into any target, which is bound back afterwards
+		int readFramebuffer = GlStateManager._getInteger(GL30.GL_READ_FRAMEBUFFER_BINDING);
+		int drawFramebuffer = GlStateManager._getInteger(GL30.GL_DRAW_FRAMEBUFFER_BINDING);
+		int[] viewport = new int[4], scissorBox = new int[4];
+		GL11.glGetIntegerv(GL11.GL_VIEWPORT, viewport);
+		// The slot is scissored to keep the neighbouring icons, while the scissor of the caller is kept for its own draws
+		boolean scissored = GL11.glIsEnabled(GL11.GL_SCISSOR_TEST);
+		GL11.glGetIntegerv(GL11.GL_SCISSOR_BOX, scissorBox);
+
+		framebuffer.beginWrite(false);
+		RenderSystem.viewport(slot.x(), slot.y(), pixels, pixels);
+		RenderSystem.enableScissor(slot.x(), slot.y(), slot.size(), slot.size());
+		RenderSystem.clearColor(0, 0, 0, 0);
+		RenderSystem.clear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT, MinecraftClient.IS_SYSTEM_MAC);
+
+		// The same projection as the screen, narrowed to the bounds of the model
+		double center = size / 2;
+		RenderSystem.backupProjectionMatrix();
+		RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(
+				(float) (center - extent / 2), (float) (center + extent / 2),
+				(float) (center + extent / 2), (float) (center - extent / 2), 1000, 3000
+		));
+		MatrixStack matrixStack = RenderSystem.getModelViewStack();
+		matrixStack.push();
+		matrixStack.loadIdentity();
+		matrixStack.translate(0, 0, -2000);
+		RenderSystem.applyModelViewMatrix();
+
+		drawing.draw(Vec3d.ZERO, quaternion);
+
+		matrixStack.pop();
+		RenderSystem.applyModelViewMatrix();
+		RenderSystem.restoreProjectionMatrix();
+		if (scissored) RenderSystem.enableScissor(scissorBox[0], scissorBox[1], scissorBox[2], scissorBox[3]);
+		else RenderSystem.disableScissor();
+		GlStateManager._glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, readFramebuffer);
+		GlStateManager._glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, drawFramebuffer);
+		RenderSystem.viewport(viewport[0], viewport[1], viewport[2], viewport[3]);
+	}
+
+	private void composite(SlotAllocator.Slot slot, int pixels, double left, double top, double z, double extent) {
+		float uBegin = (float) slot.x() / slots.size(), uEnd = (float) (slot.x() + pixels) / slots.size();
+		// Framebuffer textures start from the left bottom
+		float vBottom = (float) slot.y() / slots.size(), vTop = (float) (slot.y() + pixels) / slots.size();
+		float x0 = (float) left, y0 = (float) top, x1 = (float) (left + extent), y1 = (float) (top + extent);
+
+		RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+		RenderSystem.setShaderTexture(0, framebuffer.getColorAttachment());
+		RenderSystem.setShaderColor(1, 1, 1, 1);
+		RenderSystem.enableBlend();
+		// The icons are rendered onto a transparent slot, which leaves their colors premultiplied by their alpha
+		RenderSystem.blendFunc(GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
+
+		BufferBuilder builder = Tessellator.getInstance().getBuffer();
+		builder.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+		builder.vertex(x1, y0, z).texture(uEnd, vTop).next();
+		builder.vertex(x0, y0, z).texture(uBegin, vTop).next();
+		builder.vertex(x0, y1, z).texture(uBegin, vBottom).next();
+		builder.vertex(x1, y1, z).texture(uEnd, vBottom).next();
+		BufferRenderer.drawWithGlobalProgram(builder.end());
+
+		RenderSystem.defaultBlendFunc();
+	}
+
+	@Override
+	public void close() {
+		if (framebuffer != null) framebuffer.delete();
+		framebuffer = null;
+		icons.clear();
+		slots.clear();
+	}
+}
@@ -0,0 +1,196 @@
+package net.krlite.equator.render.atlas;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.EquatorLib;
+import net.krlite.equator.render.sprite.IdentifierSprite;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.NativeImageBackedTexture;
+import net.minecraft.resource.Resource;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <h2>Runtime Atlas</h2>
+ * Packs registered sprite textures into a few large atlas pages with a {@link SkylinePacker},
+ * so that sprites from different source images share a texture, and thus a draw call.
+ * <br />
+ * Once a texture is {@link #register(Identifier) registered}, {@link net.krlite.equator.render.Equator.Renderer}
+ * transparently draws its sprites from the atlas through {@link #remap(IdentifierSprite)}. Only sprites
+ * whose uvs stay within the source texture are remapped, as repeating uvs cannot wrap inside a page.
+ */
+public class RuntimeAtlas implements AutoCloseable {
+	public static final int DEFAULT_PAGE_SIZE = 1024, DEFAULT_PADDING = 1;
+
+	private static final RuntimeAtlas INSTANCE = new RuntimeAtlas(new Identifier(EquatorLib.MOD_ID, "atlas"), DEFAULT_PAGE_SIZE, DEFAULT_PADDING);
+
+	/**
+	 * @return	The atlas {@link net.krlite.equator.render.Equator.Renderer} draws from.
+	 */
+	public static RuntimeAtlas getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * The area of a source texture inside an atlas page.
+	 */
+	public record Region(@NotNull Identifier page, float uBegin, float vBegin, float uEnd, float vEnd) {
+		public float u(float u) {
+			return uBegin + (uEnd - uBegin) * u;
+		}
+
+		public float v(float v) {
+			return vBegin + (vEnd - vBegin) * v;
+		}
+
+		/**
+		 * Maps a sprite of the source texture into the page.
+		 */
+		public IdentifierSprite map(@NotNull IdentifierSprite sprite) {
+			return new IdentifierSprite(page, u(sprite.uBegin()), v(sprite.vBegin()), u(sprite.uEnd()), v(sprite.vEnd()));
+		}
+	}
+
+	/**
+	 * A page of the atlas. Its image is only the cleared background the texture is created from, as packed
+	 * images are uploaded straight from their own memory into their placement, without copying them into
+	 * the page or uploading the rest of it again.
+	 */
+	private final class Page {
+		private final Identifier identifier;
+		private final SkylinePacker packer = new SkylinePacker(pageSize, pageSize, padding);
+		private final NativeImageBackedTexture texture;
+
+		private Page(int index) {
+			this.identifier = new Identifier(prefix.getNamespace(), prefix.getPath() + "/" + index);
+			this.texture = new NativeImageBackedTexture(new NativeImage(NativeImage.Format.RGBA, pageSize, pageSize, true));
+			MinecraftClient.getInstance().getTextureManager().registerTexture(identifier, texture);
+		}
+
+		private @Nullable Region put(NativeImage image) {
+			SkylinePacker.Placement placement = packer.pack(image.getWidth(), image.getHeight());
+			if (placement == null) return null;
+
+			// A single glTexSubImage2D of the placed rows, which runs right away on the render thread
+			texture.bindTexture();
+			image.upload(0, placement.x(), placement.y(), 0, 0, image.getWidth(), image.getHeight(), false, false);
+
+			return new Region(identifier,
+					(float) placement.x() / pageSize, (float) placement.y() / pageSize,
+					(float) (placement.x() + placement.width()) / pageSize, (float) (placement.y() + placement.height()) / pageSize);
+		}
+	}
+
+	private final Identifier prefix;
+	private final int pageSize, padding;
+	private final List<Page> pages = new ArrayList<>();
+	private final Map<Identifier, Region> regions = new HashMap<>();
+	private final SkylinePacker.Report empty;
+
+	/**
+	 * @param prefix	The prefix of the identifiers of the pages.
+	 * @param pageSize	The width and height of every page.
+	 * @param padding	The gap between two packed textures.
+	 */
+	public RuntimeAtlas(@NotNull Identifier prefix, int pageSize, int padding) {
+		this.prefix = prefix;
+		this.pageSize = pageSize;
+		this.padding = padding;
+		this.empty = new SkylinePacker.Report(0, 0, 0, 0, pageSize, 0);
+	}
+
+	/**
+	 * Packs a texture into the atlas, loading it from the resource manager.
+	 * @param texture	The texture, like one built by {@link net.krlite.equator.util.IdentifierBuilder#png(String, String...)}.
+	 * @return			Whether the texture is in the atlas, which fails if it is missing or larger than a page.
+	 */
+	public boolean register(@NotNull Identifier texture) {
+		if (regions.containsKey(texture)) return true;
+		RenderSystem.assertOnRenderThreadOrInit();
+
+		Optional<Resource> resource = MinecraftClient.getInstance().getResourceManager().getResource(texture);
+		if (resource.isEmpty()) return false;
+
+		try (InputStream stream = resource.get().getInputStream(); NativeImage image = NativeImage.read(NativeImage.Format.RGBA, stream)) {
+			return register(texture, image);
+		} catch (IOException ioException) {
+			EquatorLib.LOGGER.error("Failed to load texture " + texture + " into the runtime atlas", ioException);
+			return false;
+		}
+	}
+
+	/**
+	 * Packs an image into the atlas under an identifier. The image is uploaded right away and can be closed afterwards.
+	 * @return	Whether the image is in the atlas, which fails if it is larger than a page.
+	 */
+	public boolean register(@NotNull Identifier texture, @NotNull NativeImage image) {
+		if (regions.containsKey(texture)) return true;
+		if (image.getWidth() > pageSize || image.getHeight() > pageSize) return false;
+		RenderSystem.assertOnRenderThreadOrInit();
+
+		for (Page page : pages) {
+			Region region = page.put(image);
+			if (region != null) {
+				regions.put(texture, region);
+				return true;
+			}
+		}
+
+		Page page = new Page(pages.size());
+		pages.add(page);
+		Region region = page.put(image);
+		if (region != null) regions.put(texture, region);
+		return region != null;
+	}
+
+	public boolean contains(@NotNull Identifier texture) {
+		return regions.containsKey(texture);
+	}
+
+	public @Nullable Region region(@NotNull Identifier texture) {
+		return regions.get(texture);
+	}
+
+	/**
+	 * Maps a sprite into the atlas if its texture is registered and its uvs stay within the texture.
+	 * @return	The sprite in the atlas, or the sprite itself if it cannot be mapped.
+	 */
+	public IdentifierSprite remap(@NotNull IdentifierSprite sprite) {
+		if (regions.isEmpty()) return sprite;
+		Region region = regions.get(sprite.identifier());
+		if (region == null || !within(sprite.uBegin()) || !within(sprite.vBegin()) || !within(sprite.uEnd()) || !within(sprite.vEnd()))
+			return sprite;
+		return region.map(sprite);
+	}
+
+	private static boolean within(float uv) {
+		return uv >= 0 && uv <= 1;
+	}
+
+	public int pageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * @return	The packing efficiency of every page, merged as if the pages were stacked.
+	 */
+	public SkylinePacker.Report report() {
+		return pages.stream().map(page -> page.packer.report()).reduce(empty, SkylinePacker.Report::merge);
+	}
+
+	@Override
+	public void close() {
+		pages.forEach(page -> MinecraftClient.getInstance().getTextureManager().destroyTexture(page.identifier));
+		pages.clear();
+		regions.clear();
+	}
+}
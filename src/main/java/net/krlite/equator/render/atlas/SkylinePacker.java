@@ -0,0 +1,167 @@
+package net.krlite.equator.render.atlas;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h2>Skyline Packer</h2>
+ * Packs rectangles into a fixed-size area with the bottom-left skyline heuristic: every rectangle
+ * is placed at the lowest position the skyline allows, breaking ties by the leftmost position.
+ * The packing only depends on the order of the rectangles, so it is fully deterministic and
+ * needs no GL context.
+ */
+public class SkylinePacker {
+	/**
+	 * A placed rectangle, excluding the padding.
+	 */
+	public record Placement(int x, int y, int width, int height) {
+	}
+
+	/**
+	 * The packing efficiency.
+	 * @param placed		The number of rectangles placed.
+	 * @param rejected		The number of rectangles that did not fit.
+	 * @param usedArea		The area of the placed rectangles, excluding the padding.
+	 * @param usedHeight	The height of the highest point of the skyline.
+	 * @param width			The width of the packing area.
+	 * @param height		The height of the packing area.
+	 */
+	public record Report(int placed, int rejected, long usedArea, int usedHeight, int width, int height) {
+		/**
+		 * @return	The ratio of the used area to the area below the highest point of the skyline.
+		 */
+		public double efficiency() {
+			return usedHeight == 0 ? 0 : (double) usedArea / ((long) width * usedHeight);
+		}
+
+		/**
+		 * @return	The ratio of the used area to the whole packing area.
+		 */
+		public double occupancy() {
+			return height == 0 ? 0 : (double) usedArea / ((long) width * height);
+		}
+
+		/**
+		 * Merges the reports of two packing areas of the same width, as if they were stacked.
+		 */
+		public Report merge(Report another) {
+			return new Report(placed + another.placed, rejected + another.rejected, usedArea + another.usedArea,
+					usedHeight + another.usedHeight, width, height + another.height);
+		}
+	}
+
+	private static final class Segment {
+		private int x, y, width;
+
+		private Segment(int x, int y, int width) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+		}
+	}
+
+	private final int width, height, padding;
+	private final List<Segment> skyline = new ArrayList<>();
+	private int placed, rejected, usedHeight;
+	private long usedArea;
+
+	/**
+	 * @param width		The width of the packing area.
+	 * @param height	The height of the packing area.
+	 * @param padding	The gap to keep to the right of and below every rectangle.
+	 */
+	public SkylinePacker(int width, int height, int padding) {
+		this.width = width;
+		this.height = height;
+		this.padding = Math.max(0, padding);
+		skyline.add(new Segment(0, 0, width));
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * Places a rectangle.
+	 * @return	The {@link Placement}, or {@code null} if the rectangle does not fit.
+	 */
+	public @Nullable Placement pack(int width, int height) {
+		int paddedWidth = width + padding, paddedHeight = height + padding;
+		int bestIndex = -1, bestX = 0, bestY = Integer.MAX_VALUE;
+
+		for (int i = 0; i < skyline.size(); i++) {
+			int x = skyline.get(i).x, y = fit(i, paddedWidth);
+			// The padding may hang over the bottom edge, the rectangle itself may not
+			if (y < 0 || y + height > this.height) continue;
+			if (y < bestY || (y == bestY && x < bestX)) {
+				bestIndex = i;
+				bestX = x;
+				bestY = y;
+			}
+		}
+
+		if (bestIndex < 0) {
+			rejected++;
+			return null;
+		}
+
+		insert(bestIndex, bestX, bestY + paddedHeight, paddedWidth);
+		placed++;
+		usedArea += (long) width * height;
+		usedHeight = Math.max(usedHeight, Math.min(this.height, bestY + height));
+		return new Placement(bestX, bestY, width, height);
+	}
+
+	/**
+	 * @return	The lowest y a rectangle starting at the segment can be placed at, or {@code -1} if it exceeds the right edge.
+	 */
+	private int fit(int index, int width) {
+		int x = skyline.get(index).x;
+		// The padding may hang over the right edge, the rectangle itself may not
+		if (x + width - padding > this.width) return -1;
+
+		int y = 0, remaining = width;
+		for (int i = index; i < skyline.size() && remaining > 0; i++) {
+			Segment segment = skyline.get(i);
+			y = Math.max(y, segment.y);
+			remaining -= segment.width;
+		}
+		return y;
+	}
+
+	private void insert(int index, int x, int y, int width) {
+		width = Math.min(width, this.width - x);
+		skyline.add(index, new Segment(x, y, width));
+
+		// Cut the segments now covered by the new one
+		for (int i = index + 1; i < skyline.size(); i++) {
+			Segment segment = skyline.get(i), previous = skyline.get(i - 1);
+			int overlap = previous.x + previous.width - segment.x;
+			if (overlap <= 0) break;
+
+			segment.x += overlap;
+			segment.width -= overlap;
+			if (segment.width > 0) break;
+			skyline.remove(i--);
+		}
+
+		// Merge neighbours at the same height
+		for (int i = 0; i < skyline.size() - 1; i++) {
+			Segment segment = skyline.get(i), next = skyline.get(i + 1);
+			if (segment.y == next.y) {
+				segment.width += next.width;
+				skyline.remove(i-- + 1);
+			}
+		}
+	}
+
+	public Report report() {
+		return new Report(placed, rejected, usedArea, usedHeight, width, height);
+	}
+}
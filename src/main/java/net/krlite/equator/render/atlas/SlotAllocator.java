@@ -0,0 +1,153 @@
+package net.krlite.equator.render.atlas;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <h2>Slot Allocator</h2>
+ * Splits a square area into square tiles, and every tile into equal square slots of a power-of-two
+ * size, so that slots can be freed and reused in any order. Unlike a {@link SkylinePacker}, this suits
+ * caches that evict their entries: a freed slot is immediately reusable by the next entry of its size,
+ * and a tile whose slots are all free returns to the pool for entries of any size.
+ * <br />
+ * The allocation only depends on the order of the calls, so it is fully deterministic and needs no GL context.
+ */
+public class SlotAllocator {
+	/**
+	 * An allocated slot.
+	 */
+	public record Slot(int x, int y, int size) {
+	}
+
+	private static final class Tile {
+		private final int x, y;
+		private final Deque<Slot> free = new ArrayDeque<>();
+		private int slotSize, used;
+
+		private Tile(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	private final int size, tileSize, minSlotSize;
+	private final Tile[] tiles;
+	private final Deque<Tile> freeTiles = new ArrayDeque<>();
+	// The tiles of every slot size that still have free slots
+	private final Map<Integer, Deque<Tile>> partialTiles = new HashMap<>();
+	private int usedSlots;
+
+	/**
+	 * @param size			The width and height of the area.
+	 * @param tileSize		The width and height of a tile, which is also the largest slot size.
+	 * @param minSlotSize	The smallest slot size.
+	 */
+	public SlotAllocator(int size, int tileSize, int minSlotSize) {
+		if (Integer.bitCount(tileSize) != 1 || Integer.bitCount(minSlotSize) != 1 || minSlotSize > tileSize || tileSize > size)
+			throw new IllegalArgumentException("The tile and slot sizes must be powers of two, no larger than the area");
+
+		this.size = size;
+		this.tileSize = tileSize;
+		this.minSlotSize = minSlotSize;
+
+		int tilesPerRow = size / tileSize;
+		this.tiles = new Tile[tilesPerRow * tilesPerRow];
+		for (int i = 0; i < tiles.length; i++) {
+			tiles[i] = new Tile(i % tilesPerRow * tileSize, i / tilesPerRow * tileSize);
+			freeTiles.add(tiles[i]);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int tileSize() {
+		return tileSize;
+	}
+
+	public int usedSlots() {
+		return usedSlots;
+	}
+
+	public int freeTiles() {
+		return freeTiles.size();
+	}
+
+	/**
+	 * @return	The size of the slots an extent is allocated in, or {@code -1} if it is larger than a tile.
+	 */
+	public int slotSize(int extent) {
+		if (extent > tileSize) return -1;
+		return Math.max(minSlotSize, Integer.highestOneBit(Math.max(1, extent - 1)) << 1);
+	}
+
+	/**
+	 * Allocates a slot fitting an extent.
+	 * @return	The slot, or {@code null} if the extent is larger than a tile or no slot of its size is free.
+	 */
+	public @Nullable Slot allocate(int extent) {
+		int slotSize = slotSize(extent);
+		if (slotSize < 0) return null;
+
+		Deque<Tile> partial = partialTiles.computeIfAbsent(slotSize, key -> new ArrayDeque<>());
+		Tile tile = partial.peekFirst();
+		if (tile == null) {
+			tile = freeTiles.pollFirst();
+			if (tile == null) return null;
+			split(tile, slotSize);
+			partial.addFirst(tile);
+		}
+
+		Slot slot = tile.free.pollFirst();
+		tile.used++;
+		usedSlots++;
+		if (tile.free.isEmpty()) partial.removeFirst();
+		return slot;
+	}
+
+	private void split(Tile tile, int slotSize) {
+		tile.slotSize = slotSize;
+		for (int y = 0; y < tileSize; y += slotSize)
+			for (int x = 0; x < tileSize; x += slotSize)
+				tile.free.addLast(new Slot(tile.x + x, tile.y + y, slotSize));
+	}
+
+	/**
+	 * Frees a slot, which must have been allocated by this allocator and not freed since.
+	 */
+	public void free(@NotNull Slot slot) {
+		int tilesPerRow = size / tileSize;
+		Tile tile = tiles[slot.y() / tileSize * tilesPerRow + slot.x() / tileSize];
+		if (tile.used == 0 || tile.slotSize != slot.size()) throw new IllegalArgumentException("The slot " + slot + " is not allocated");
+
+		Deque<Tile> partial = partialTiles.get(tile.slotSize);
+		if (tile.free.isEmpty()) partial.addLast(tile);
+		tile.free.addFirst(slot);
+		tile.used--;
+		usedSlots--;
+
+		if (tile.used == 0) {
+			partial.remove(tile);
+			tile.free.clear();
+			tile.slotSize = 0;
+			freeTiles.addLast(tile);
+		}
+	}
+
+	public void clear() {
+		partialTiles.clear();
+		freeTiles.clear();
+		for (Tile tile : tiles) {
+			tile.free.clear();
+			tile.slotSize = tile.used = 0;
+			freeTiles.add(tile);
+		}
+		usedSlots = 0;
+	}
+}
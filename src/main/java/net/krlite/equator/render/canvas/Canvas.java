@@ -0,0 +1,177 @@
+package net.krlite.equator.render.canvas;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.render.RenderStateTracker;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.client.util.Window;
+import net.minecraft.client.util.math.MatrixStack;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * <h2>Canvas</h2>
+ * A cached layer of {@link net.krlite.equator.render.Equator} drawings, kept in a framebuffer
+ * the size of the window. Every frame, the elements of the canvas are declared with the inputs
+ * their drawings depend on, and only the {@link DirtyRegions dirty regions} of the elements whose
+ * inputs changed are cleared and redrawn, before the whole layer is composited onto the screen.
+ * <pre>{@code
+ * canvas.element("score", score, bounds, matrixStack -> writer.swap(matrixStack).write(...))
+ *       .element("health", health, bounds, matrixStack -> painter.swap(matrixStack).paint(...))
+ *       .render();
+ * }</pre>
+ * An element must not draw outside its bounds, and the elements overlapping a redrawn region are
+ * redrawn in the order they were first declared. Everything here must run on the render thread.
+ */
+public class Canvas implements AutoCloseable {
+	private record Element(Rect bounds, Consumer<MatrixStack> drawing) {
+	}
+
+	// Accumulates the alpha of the transparent layer, which the default blending overwrites with the alpha of the last drawing
+	private static final RenderStateTracker.BlendFunc REDRAW_BLEND_FUNC = new RenderStateTracker.BlendFunc(
+			GlStateManager.SrcFactor.SRC_ALPHA, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA,
+			GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA
+	);
+
+	private final DirtyRegions dirtyRegions = new DirtyRegions(0, 0);
+	private final Map<Object, Element> elements = new LinkedHashMap<>();
+	private @Nullable SimpleFramebuffer framebuffer;
+	private long redrawnPixels;
+
+	public DirtyRegions dirtyRegions() {
+		return dirtyRegions;
+	}
+
+	/**
+	 * @return	The number of pixels redrawn since the canvas was created.
+	 */
+	public long redrawnPixels() {
+		return redrawnPixels;
+	}
+
+	/**
+	 * Declares an element for this frame.
+	 * @param key		The key identifying the element across frames.
+	 * @param inputs	Everything the drawing depends on, compared by {@link Object#equals(Object)}.
+	 * @param bounds	The bounds of everything the drawing draws.
+	 * @param drawing	The drawing, given a fresh {@link MatrixStack} whenever it is redrawn.
+	 */
+	@Contract("_, _, _, _ -> this")
+	public Canvas element(@NotNull Object key, @Nullable Object inputs, @NotNull Rect bounds, @NotNull Consumer<MatrixStack> drawing) {
+		dirtyRegions.track(key, inputs, bounds, pixelsPerUnit());
+		elements.put(key, new Element(bounds, drawing));
+		return this;
+	}
+
+	/**
+	 * Redraws the dirty regions of the canvas, and composites it onto the current framebuffer.
+	 * Elements not declared since the last render are removed.
+	 */
+	public void render() {
+		RenderSystem.assertOnRenderThread();
+		Window window = MinecraftClient.getInstance().getWindow();
+		int width = window.getFramebufferWidth(), height = window.getFramebufferHeight();
+
+		if (framebuffer == null) {
+			framebuffer = new SimpleFramebuffer(width, height, true, MinecraftClient.IS_SYSTEM_MAC);
+			framebuffer.setClearColor(0, 0, 0, 0);
+			dirtyRegions.resize(width, height);
+		} else if (framebuffer.textureWidth != width || framebuffer.textureHeight != height) {
+			framebuffer.resize(width, height, MinecraftClient.IS_SYSTEM_MAC);
+			dirtyRegions.resize(width, height);
+		}
+
+		dirtyRegions.sweep().forEach(elements::remove);
+		List<DirtyRegions.Region> regions = dirtyRegions.flush();
+		if (!regions.isEmpty()) redraw(regions, height);
+
+		composite(window);
+	}
+
+	private void redraw(List<DirtyRegions.Region> regions, int height) {
+		// The canvas may be rendered while drawing into any target and inside any scissor, which are restored afterwards
+		int readFramebuffer = GlStateManager._getInteger(GL30.GL_READ_FRAMEBUFFER_BINDING);
+		int drawFramebuffer = GlStateManager._getInteger(GL30.GL_DRAW_FRAMEBUFFER_BINDING);
+		int[] viewport = new int[4], scissorBox = new int[4];
+		GL11.glGetIntegerv(GL11.GL_VIEWPORT, viewport);
+		boolean scissored = GL11.glIsEnabled(GL11.GL_SCISSOR_TEST);
+		GL11.glGetIntegerv(GL11.GL_SCISSOR_BOX, scissorBox);
+
+		framebuffer.beginWrite(true);
+		double pixelsPerUnit = pixelsPerUnit();
+
+		RenderStateTracker.getInstance().withDefaultBlendFunc(REDRAW_BLEND_FUNC, () -> {
+			for (DirtyRegions.Region region : regions) {
+				// Scissor boxes start from the left bottom
+				RenderSystem.enableScissor(region.x(), height - region.bottom(), region.width(), region.height());
+				RenderSystem.clearColor(0, 0, 0, 0);
+				RenderSystem.clear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT, MinecraftClient.IS_SYSTEM_MAC);
+
+				for (Element element : elements.values()) {
+					if (DirtyRegions.Region.of(element.bounds, pixelsPerUnit).intersects(region))
+						element.drawing.accept(new MatrixStack());
+				}
+
+				redrawnPixels += region.area();
+			}
+		});
+
+		if (scissored) RenderSystem.enableScissor(scissorBox[0], scissorBox[1], scissorBox[2], scissorBox[3]);
+		else RenderSystem.disableScissor();
+		GlStateManager._glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, readFramebuffer);
+		GlStateManager._glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, drawFramebuffer);
+		RenderSystem.viewport(viewport[0], viewport[1], viewport[2], viewport[3]);
+	}
+
+	private void composite(Window window) {
+		float width = window.getScaledWidth(), height = window.getScaledHeight();
+
+		RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+		RenderSystem.setShaderTexture(0, framebuffer.getColorAttachment());
+		RenderSystem.setShaderColor(1, 1, 1, 1);
+		RenderSystem.disableDepthTest();
+		RenderSystem.enableBlend();
+		// The redraw blending leaves the colors of the canvas premultiplied by their alpha
+		RenderSystem.blendFunc(GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
+
+		// Framebuffer textures start from the left bottom
+		BufferBuilder builder = Tessellator.getInstance().getBuffer();
+		builder.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+		builder.vertex(width, 0, 0).texture(1, 1).next();
+		builder.vertex(0, 0, 0).texture(0, 1).next();
+		builder.vertex(0, height, 0).texture(0, 0).next();
+		builder.vertex(width, height, 0).texture(1, 0).next();
+		BufferRenderer.drawWithGlobalProgram(builder.end());
+
+		RenderSystem.defaultBlendFunc();
+		RenderSystem.enableDepthTest();
+	}
+
+	private static double pixelsPerUnit() {
+		return MinecraftClient.getInstance().getWindow().getScaleFactor();
+	}
+
+	@Override
+	public void close() {
+		if (framebuffer != null) framebuffer.delete();
+		framebuffer = null;
+		elements.clear();
+		dirtyRegions.resize(0, 0);
+	}
+}
@@ -0,0 +1,254 @@
+package net.krlite.equator.render.canvas;
+
+import net.krlite.equator.geometry.Rect;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <h2>Dirty Regions</h2>
+ * Tracks which pixels of a cached render target are out of date. Regions are invalidated either
+ * directly, or by {@link #track(Object, Object, Rect, double) tracking} keyed elements whose inputs
+ * or bounds changed since the last frame, which invalidates both their old and their new bounds.
+ * <br />
+ * {@link #flush()} merges the invalidated regions into fewer rectangles to redraw, falling back
+ * to a single full redraw once the dirty area exceeds {@link #fullRedrawRatio()} of the target.
+ * <br />
+ * Everything here is in pixels of the target, with the origin at the left top, and needs no GL.
+ * @see Canvas
+ */
+public class DirtyRegions {
+	/**
+	 * A rectangle of pixels.
+	 */
+	public record Region(int x, int y, int width, int height) {
+		/**
+		 * The pixels a {@link Rect} touches, padded by a pixel for anti-aliased edges.
+		 * @param pixelsPerUnit	The pixels per unit of the rect.
+		 */
+		public static Region of(@NotNull Rect rect, double pixelsPerUnit) {
+			double minX = Math.min(Math.min(rect.getLeftTop().getX(), rect.getLeftBottom().getX()), Math.min(rect.getRightBottom().getX(), rect.getRightTop().getX())),
+					minY = Math.min(Math.min(rect.getLeftTop().getY(), rect.getLeftBottom().getY()), Math.min(rect.getRightBottom().getY(), rect.getRightTop().getY())),
+					maxX = Math.max(Math.max(rect.getLeftTop().getX(), rect.getLeftBottom().getX()), Math.max(rect.getRightBottom().getX(), rect.getRightTop().getX())),
+					maxY = Math.max(Math.max(rect.getLeftTop().getY(), rect.getLeftBottom().getY()), Math.max(rect.getRightBottom().getY(), rect.getRightTop().getY()));
+
+			int x = (int) Math.floor(minX * pixelsPerUnit) - 1, y = (int) Math.floor(minY * pixelsPerUnit) - 1;
+			return new Region(x, y, (int) Math.ceil(maxX * pixelsPerUnit) + 1 - x, (int) Math.ceil(maxY * pixelsPerUnit) + 1 - y);
+		}
+
+		public int right() {
+			return x + width;
+		}
+
+		public int bottom() {
+			return y + height;
+		}
+
+		public long area() {
+			return (long) width * height;
+		}
+
+		public boolean isEmpty() {
+			return width <= 0 || height <= 0;
+		}
+
+		public boolean touches(@NotNull Region another) {
+			return x <= another.right() && another.x <= right() && y <= another.bottom() && another.y <= bottom();
+		}
+
+		/**
+		 * @return	Whether the two regions touch, and their union has no more pixels than the two of them.
+		 */
+		public boolean mergeable(@NotNull Region another) {
+			return touches(another) && union(another).area() <= area() + another.area();
+		}
+
+		public boolean intersects(@NotNull Region another) {
+			return x < another.right() && another.x < right() && y < another.bottom() && another.y < bottom();
+		}
+
+		@Contract("_ -> new")
+		public Region union(@NotNull Region another) {
+			int x = Math.min(this.x, another.x), y = Math.min(this.y, another.y);
+			return new Region(x, y, Math.max(right(), another.right()) - x, Math.max(bottom(), another.bottom()) - y);
+		}
+
+		@Contract("_, _ -> new")
+		public Region clip(int width, int height) {
+			int x = Math.max(0, this.x), y = Math.max(0, this.y);
+			return new Region(x, y, Math.min(width, right()) - x, Math.min(height, bottom()) - y);
+		}
+	}
+
+	private record Element(@Nullable Object inputs, Region bounds) {
+	}
+
+	public static final double DEFAULT_FULL_REDRAW_RATIO = 0.6;
+
+	private final List<Region> regions = new ArrayList<>();
+	private final Map<Object, Element> elements = new HashMap<>();
+	private final Set<Object> tracked = new HashSet<>();
+	private final double fullRedrawRatio;
+	private int width, height;
+
+	/**
+	 * @param width				The width of the target.
+	 * @param height			The height of the target.
+	 * @param fullRedrawRatio	The ratio of the dirty area to the target area above which the whole target is redrawn.
+	 */
+	public DirtyRegions(int width, int height, double fullRedrawRatio) {
+		this.width = width;
+		this.height = height;
+		this.fullRedrawRatio = fullRedrawRatio;
+		invalidateAll();
+	}
+
+	public DirtyRegions(int width, int height) {
+		this(width, height, DEFAULT_FULL_REDRAW_RATIO);
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	public double fullRedrawRatio() {
+		return fullRedrawRatio;
+	}
+
+	public boolean isDirty() {
+		return !regions.isEmpty();
+	}
+
+	/**
+	 * Resizes the target, which invalidates all of it.
+	 */
+	public void resize(int width, int height) {
+		this.width = width;
+		this.height = height;
+		invalidateAll();
+	}
+
+	public void invalidateAll() {
+		regions.clear();
+		invalidate(new Region(0, 0, width, height));
+	}
+
+	public void invalidate(@NotNull Region region) {
+		region = region.clip(width, height);
+		if (!region.isEmpty()) regions.add(region);
+	}
+
+	public void invalidate(@NotNull Rect rect, double pixelsPerUnit) {
+		invalidate(Region.of(rect, pixelsPerUnit));
+	}
+
+	/**
+	 * Tracks an element drawn this frame, invalidating its old and new bounds if its inputs or bounds changed.
+	 * @param key			The key identifying the element across frames.
+	 * @param inputs		Everything the drawing of the element depends on, compared by {@link Object#equals(Object)}.
+	 * @param bounds		The bounds of everything the element draws.
+	 * @param pixelsPerUnit	The pixels per unit of the bounds.
+	 * @return				Whether the element was invalidated.
+	 */
+	public boolean track(@NotNull Object key, @Nullable Object inputs, @NotNull Rect bounds, double pixelsPerUnit) {
+		return track(key, inputs, Region.of(bounds, pixelsPerUnit));
+	}
+
+	public boolean track(@NotNull Object key, @Nullable Object inputs, @NotNull Region bounds) {
+		tracked.add(key);
+		Element previous = elements.put(key, new Element(inputs, bounds));
+		if (previous != null && Objects.equals(previous.inputs, inputs) && previous.bounds.equals(bounds)) return false;
+
+		if (previous != null) invalidate(previous.bounds);
+		invalidate(bounds);
+		return true;
+	}
+
+	/**
+	 * Forgets the elements not tracked since the last sweep, invalidating their bounds.
+	 * @return	The keys of the forgotten elements.
+	 */
+	public List<Object> sweep() {
+		List<Object> removed = new ArrayList<>();
+		for (Iterator<Map.Entry<Object, Element>> iterator = elements.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<Object, Element> entry = iterator.next();
+			if (tracked.contains(entry.getKey())) continue;
+
+			invalidate(entry.getValue().bounds);
+			removed.add(entry.getKey());
+			iterator.remove();
+		}
+		tracked.clear();
+		return removed;
+	}
+
+	/**
+	 * Merges the invalidated regions without clearing them.
+	 * Regions are only merged where their union costs no extra pixels, so the results may still overlap,
+	 * which only redraws the overlaps twice.
+	 * @return	Regions covering every invalidated pixel.
+	 */
+	public List<Region> merge() {
+		List<Region> merged = new ArrayList<>(regions);
+		boolean changed = merged.size() > 1;
+
+		// A union can grow into regions already passed, so sweep until nothing merges
+		while (changed) {
+			changed = false;
+			merged.sort(Comparator.comparingInt(Region::x));
+
+			List<Region> result = new ArrayList<>(merged.size());
+			// The indices of the results whose horizontal interval may still reach the sweep line
+			List<Integer> active = new ArrayList<>();
+
+			for (Region region : merged) {
+				active.removeIf(index -> result.get(index).right() < region.x());
+
+				int absorbing = -1;
+				for (int index : active) {
+					if (result.get(index).mergeable(region)) {
+						absorbing = index;
+						break;
+					}
+				}
+
+				if (absorbing >= 0) {
+					result.set(absorbing, result.get(absorbing).union(region));
+					changed = true;
+				} else {
+					active.add(result.size());
+					result.add(region);
+				}
+			}
+			merged = result;
+		}
+
+		long area = merged.stream().mapToLong(Region::area).sum();
+		if (area > fullRedrawRatio * width * height) return List.of(new Region(0, 0, width, height));
+		return merged;
+	}
+
+	/**
+	 * Merges and clears the invalidated regions.
+	 * @see #merge()
+	 */
+	public List<Region> flush() {
+		List<Region> merged = merge();
+		regions.clear();
+		return merged;
+	}
+}
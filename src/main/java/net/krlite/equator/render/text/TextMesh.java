@@ -0,0 +1,118 @@
+package net.krlite.equator.render.text;
+
+import net.krlite.equator.render.vertex.VertexStore;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.render.LightmapTextureManager;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.StringVisitable;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <h2>Text Mesh</h2>
+ * The glyph quads of a text, laid out once by the {@link TextRenderer} and kept per {@link RenderLayer},
+ * so that drawing the text again only transforms and uploads the recorded vertices.
+ * <br />
+ * The scale is baked into the vertices, while the position is applied while rendering.
+ * @see TextMeshCache
+ */
+public final class TextMesh {
+	/**
+	 * Lays out a text into a new mesh.
+	 * @param text		The text, only checked for obfuscated styles.
+	 * @param ordered	The ordered form of the text, which is what gets laid out.
+	 */
+	static TextMesh record(@NotNull TextRenderer textRenderer, @NotNull Text text, @NotNull OrderedText ordered,
+						   float scale, boolean shadow, int color, int generation) {
+		Map<RenderLayer, VertexStore> layers = new LinkedHashMap<>();
+		// Obfuscated glyphs change every frame, so they can never be replayed
+		boolean animated = text.visit((style, string) -> style.isObfuscated() ? StringVisitable.TERMINATE_VISIT : Optional.empty(), Style.EMPTY).isPresent();
+
+		if (!animated) textRenderer.draw(ordered, 0, 0, color, shadow, new Matrix4f().scale(scale, scale, 1),
+				layer -> layers.computeIfAbsent(layer, l -> new VertexStore()), false, 0, LightmapTextureManager.MAX_LIGHT_COORDINATE);
+
+		return new TextMesh(layers, textRenderer.getWidth(ordered), scale, animated, generation);
+	}
+
+	private final Map<RenderLayer, VertexStore> layers;
+	private final int width, generation;
+	private final float scale;
+	private final boolean animated;
+
+	private TextMesh(Map<RenderLayer, VertexStore> layers, int width, float scale, boolean animated, int generation) {
+		this.layers = layers;
+		this.width = width;
+		this.scale = scale;
+		this.animated = animated;
+		this.generation = generation;
+	}
+
+	/**
+	 * @return	The width of the text, without the scale.
+	 */
+	public int width() {
+		return width;
+	}
+
+	public float scale() {
+		return scale;
+	}
+
+	/**
+	 * @return	Whether the text contains obfuscated glyphs, in which case the mesh is empty and the text must be drawn directly.
+	 */
+	public boolean animated() {
+		return animated;
+	}
+
+	int generation() {
+		return generation;
+	}
+
+	public int vertexCount() {
+		return layers.values().stream().mapToInt(VertexStore::count).sum();
+	}
+
+	/**
+	 * Renders the mesh as {@link TextRenderer#draw(net.minecraft.client.util.math.MatrixStack, OrderedText, float, float, int)}
+	 * would render the text, after translating by the depth and scaling by the scale of the mesh.
+	 * @param matrix	The position matrix.
+	 * @param x			The x coordinate, before scaling.
+	 * @param y			The y coordinate, before scaling.
+	 * @param z			The depth.
+	 */
+	public void render(@NotNull Matrix4f matrix, double x, double y, double z) {
+		if (layers.isEmpty()) return;
+		VertexConsumerProvider.Immediate immediate = VertexConsumerProvider.immediate(Tessellator.getInstance().getBuffer());
+		float offsetX = (float) (scale * x), offsetY = (float) (scale * y), offsetZ = (float) z;
+
+		for (Map.Entry<RenderLayer, VertexStore> entry : layers.entrySet()) {
+			VertexConsumer consumer = immediate.getBuffer(entry.getKey());
+			VertexStore vertices = entry.getValue();
+
+			for (int i = 0; i < vertices.count(); i++) {
+				float vx = vertices.x(i) + offsetX, vy = vertices.y(i) + offsetY, vz = vertices.z(i) + offsetZ;
+				int color = vertices.color(i);
+				consumer.vertex(
+						matrix.m00() * vx + matrix.m10() * vy + matrix.m20() * vz + matrix.m30(),
+						matrix.m01() * vx + matrix.m11() * vy + matrix.m21() * vz + matrix.m31(),
+						matrix.m02() * vx + matrix.m12() * vy + matrix.m22() * vz + matrix.m32()
+				).color((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, color >>> 24)
+						.texture(vertices.u(i), vertices.v(i))
+						.light(LightmapTextureManager.MAX_LIGHT_COORDINATE).next();
+			}
+		}
+
+		immediate.draw();
+	}
+}
@@ -0,0 +1,159 @@
+package net.krlite.equator.render.text;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <h2>Text Mesh Cache</h2>
+ * A bounded LRU cache of {@link TextMesh text meshes}, keyed on the text, scale, shadow and color,
+ * so that texts drawn every frame, like scoreboards and tooltips, are only laid out once.
+ * <br />
+ * Texts are compared by {@link Text#equals(Object)}, so a text should not be mutated after it is
+ * written through a cache. Texts with obfuscated glyphs are never replayed.
+ * <br />
+ * The glyph atlases are rebuilt on every resource reload, which {@link #invalidateAll() invalidates}
+ * every cached mesh. Meshes are recorded and rendered on the render thread, but the layout of large
+ * sets of texts can be {@link #prepare(Collection, float, boolean, int, Executor) prepared} on a worker pool.
+ */
+public class TextMeshCache {
+	private static @Nullable TextMeshCache global;
+	private static int generation;
+
+	/**
+	 * @return	The cache every {@link net.krlite.equator.render.Equator.Writer} without its own cache
+	 * 			writes through, or {@code null} if there is none.
+	 */
+	public static @Nullable TextMeshCache global() {
+		return global;
+	}
+
+	/**
+	 * @param cache	The cache, or {@code null} to lay out every text again.
+	 */
+	public static void enableGlobally(@Nullable TextMeshCache cache) {
+		global = cache;
+	}
+
+	/**
+	 * Invalidates the meshes of every cache, which are re-recorded when they are next used.
+	 */
+	public static void invalidateAll() {
+		generation++;
+	}
+
+	public static final int DEFAULT_CAPACITY = 512;
+
+	private record Key(Text text, float scale, boolean shadow, int color) {
+	}
+
+	private final int capacity;
+	private final Map<Key, TextMesh> meshes;
+	private long hits, misses;
+
+	/**
+	 * @param capacity	The maximum number of cached meshes.
+	 */
+	public TextMeshCache(int capacity) {
+		this.capacity = Math.max(1, capacity);
+		this.meshes = new LinkedHashMap<>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, TextMesh> eldest) {
+				return size() > TextMeshCache.this.capacity;
+			}
+		};
+	}
+
+	public TextMeshCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return meshes.size();
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	public double hitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	public void clear() {
+		meshes.clear();
+		hits = misses = 0;
+	}
+
+	/**
+	 * Gets the mesh of a text, laying it out first if it is missing or invalidated.
+	 * @param scale		The scale of the text.
+	 * @param shadow	Whether the text has a shadow.
+	 * @param color		The color of the text, in ARGB.
+	 * @return			The mesh, or {@code null} if the text has obfuscated glyphs and must be drawn directly.
+	 */
+	public @Nullable TextMesh get(@NotNull Text text, float scale, boolean shadow, int color) {
+		RenderSystem.assertOnRenderThread();
+		Key key = new Key(text, scale, shadow, color);
+		TextMesh mesh = meshes.get(key);
+
+		if (mesh != null && mesh.generation() == generation) hits++;
+		else {
+			misses++;
+			mesh = TextMesh.record(MinecraftClient.getInstance().textRenderer, text, text.asOrderedText(), scale, shadow, color, generation);
+			meshes.put(key, mesh);
+		}
+
+		return mesh.animated() ? null : mesh;
+	}
+
+	/**
+	 * Prepares the meshes of many texts. The texts are reordered for their direction and flattened into
+	 * {@link OrderedText ordered texts} on an executor, while the glyphs, which the font renderer can
+	 * only bake on the render thread, are laid out on the render thread afterwards.
+	 * @param executor	The executor to order the texts on.
+	 * @return			A future completed on the render thread once every mesh is cached.
+	 */
+	public CompletableFuture<Void> prepare(@NotNull Collection<? extends Text> texts, float scale, boolean shadow, int color, @NotNull Executor executor) {
+		List<Text> copy = List.copyOf(texts);
+
+		return CompletableFuture.supplyAsync(() -> copy.stream().map(Text::asOrderedText).toList(), executor)
+					   .thenAcceptAsync(ordered -> {
+						   for (int i = 0; i < copy.size(); i++) {
+							   Key key = new Key(copy.get(i), scale, shadow, color);
+							   TextMesh mesh = meshes.get(key);
+							   if (mesh != null && mesh.generation() == generation) continue;
+
+							   meshes.put(key, TextMesh.record(MinecraftClient.getInstance().textRenderer,
+									   copy.get(i), ordered.get(i), scale, shadow, color, generation));
+						   }
+					   }, MinecraftClient.getInstance());
+	}
+
+	/**
+	 * Prepares the meshes of many texts on the main worker pool.
+	 * @see #prepare(Collection, float, boolean, int, Executor)
+	 */
+	public CompletableFuture<Void> prepare(@NotNull Collection<? extends Text> texts, float scale, boolean shadow, int color) {
+		return prepare(texts, scale, shadow, color, Util.getMainWorkerExecutor());
+	}
+}
@@ -0,0 +1,38 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The GL-backed {@link VertexSink}, which applies the {@link DrawState}, fills the
+ * {@link Tessellator} buffer and draws it immediately.
+ */
+public class BufferVertexSink implements VertexSink {
+	public static final BufferVertexSink INSTANCE = new BufferVertexSink();
+
+	protected BufferVertexSink() {
+	}
+
+	@Override
+	public VertexConsumer begin(@NotNull DrawState state) {
+		state.apply();
+		BufferBuilder builder = Tessellator.getInstance().getBuffer();
+		builder.begin(state.drawMode(), state.format());
+		return builder;
+	}
+
+	@Override
+	public void end(@NotNull DrawState state) {
+		Tessellator.getInstance().draw();
+		state.restore();
+	}
+
+	@Override
+	public double pixelsPerUnit() {
+		return MinecraftClient.getInstance().getWindow().getScaleFactor();
+	}
+}
@@ -0,0 +1,38 @@
+package net.krlite.equator.render.vertex;
+
+import net.minecraft.client.render.BufferVertexConsumer;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormatElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link VertexConsumer} that also accepts a {@link VertexFormatElement.Type#GENERIC} element of
+ * four floats, which custom formats like the one of {@link net.krlite.equator.render.SdfShader}
+ * place after the position, uv and color elements.
+ */
+public interface GenericVertexConsumer {
+	void generic(float x, float y, float z, float w);
+
+	/**
+	 * Writes a generic element into any {@link VertexConsumer}. A {@link net.minecraft.client.render.BufferBuilder}
+	 * takes it if its format expects a generic element next, and consumers that know nothing of generic elements
+	 * ignore it, so the same vertices can be written into formats without one.
+	 * @return	The consumer, for chaining.
+	 */
+	static VertexConsumer generic(@NotNull VertexConsumer consumer, float x, float y, float z, float w) {
+		if (consumer instanceof GenericVertexConsumer generic) {
+			generic.generic(x, y, z, w);
+		} else if (consumer instanceof BufferVertexConsumer buffer) {
+			VertexFormatElement element = buffer.getCurrentElement();
+			if (element.getType() == VertexFormatElement.Type.GENERIC && element.getComponentType() == VertexFormatElement.ComponentType.FLOAT
+						&& element.getComponentCount() == 4) {
+				buffer.putFloat(0, x);
+				buffer.putFloat(4, y);
+				buffer.putFloat(8, z);
+				buffer.putFloat(12, w);
+				buffer.nextElement();
+			}
+		}
+		return consumer;
+	}
+}
@@ -0,0 +1,171 @@
+package net.krlite.equator.render.vertex;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.krlite.equator.render.DrawState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.util.Window;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The GL {@link RingBackend}, a vertex buffer mapped once with {@code GL_MAP_PERSISTENT_BIT} and
+ * {@code GL_MAP_COHERENT_BIT}, synchronized with fence sync objects. Every {@link VertexFormat} gets
+ * a vertex array reading from the buffer, and draw calls address their vertices through the base
+ * vertex of {@code glDrawElementsBaseVertex}, so nothing is rebound or uploaded between them.
+ * <br />
+ * Persistent mapping needs OpenGL 4.4 or {@code ARB_buffer_storage}, which some drivers, like the
+ * ones of macOS, lack. Everything here must run on the render thread.
+ */
+public class GlRingBackend implements RingBackend {
+	private static final int FLAGS = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+	// Waits are split into slices, so that a lost context does not block forever
+	private static final long WAIT_NANOS = 1_000_000_000L;
+
+	public static boolean isSupported() {
+		RenderSystem.assertOnRenderThread();
+		GLCapabilities capabilities = GL.getCapabilities();
+		return capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+	}
+
+	/**
+	 * @param capacity	The size of the buffer in bytes.
+	 * @return			The backend, or {@code null} if buffers cannot be mapped persistently.
+	 */
+	public static @Nullable GlRingBackend create(int capacity) {
+		return isSupported() ? new GlRingBackend(capacity) : null;
+	}
+
+	private final int buffer;
+	private final ByteBuffer mapped;
+	private final Map<VertexFormat, Integer> vertexArrays = new HashMap<>();
+	private final Set<Long> fences = new HashSet<>();
+	private boolean closed;
+
+	private GlRingBackend(int capacity) {
+		buffer = GlStateManager._glGenBuffers();
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+		GL44.glBufferStorage(GL15.GL_ARRAY_BUFFER, capacity, FLAGS);
+		ByteBuffer mapped = GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, 0, capacity, FLAGS);
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+		if (mapped == null) {
+			GlStateManager._glDeleteBuffers(buffer);
+			throw new IllegalStateException("Failed to map a vertex buffer of " + capacity + " bytes");
+		}
+		this.mapped = mapped;
+	}
+
+	@Override
+	public @NotNull ByteBuffer buffer() {
+		return mapped;
+	}
+
+	@Override
+	public long fence() {
+		long fence = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		fences.add(fence);
+		return fence;
+	}
+
+	@Override
+	public boolean await(long fence) {
+		if (!fences.remove(fence)) throw new IllegalArgumentException("The fence " + fence + " is not pending");
+
+		int status = GL32.glClientWaitSync(fence, 0, 0);
+		boolean signaled = status == GL32.GL_ALREADY_SIGNALED || status == GL32.GL_CONDITION_SATISFIED;
+		while (status == GL32.GL_TIMEOUT_EXPIRED)
+			status = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, WAIT_NANOS);
+
+		GL32.glDeleteSync(fence);
+		return signaled;
+	}
+
+	@Override
+	public void draw(@NotNull DrawState state, int firstVertex, int vertexCount) {
+		state.apply();
+		ShaderProgram program = RenderSystem.getShader();
+		if (program != null) {
+			VertexFormat.DrawMode drawMode = state.drawMode();
+			int indexCount = drawMode.getIndexCount(vertexCount);
+
+			GlStateManager._glBindVertexArray(vertexArrays.computeIfAbsent(state.format(), this::createVertexArray));
+			RenderSystem.ShapeIndexBuffer indices = RenderSystem.getSequentialBuffer(drawMode);
+			indices.bindAndGrow(indexCount);
+
+			setupProgram(program, drawMode);
+			program.bind();
+			GL32.glDrawElementsBaseVertex(drawMode.glMode, indexCount, indices.getIndexType().glType, 0, firstVertex);
+			program.unbind();
+
+			// The vertex array changed behind the buffer renderer, which would otherwise skip binding its own
+			BufferRenderer.resetCurrentVertexBuffer();
+			GlStateManager._glBindVertexArray(0);
+		}
+		state.restore();
+	}
+
+	private int createVertexArray(VertexFormat format) {
+		int vertexArray = GlStateManager._glGenVertexArrays();
+		GlStateManager._glBindVertexArray(vertexArray);
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+		format.setupState();
+		return vertexArray;
+	}
+
+	// The uniforms a vertex buffer sets before drawing
+	private static void setupProgram(ShaderProgram program, VertexFormat.DrawMode drawMode) {
+		for (int sampler = 0; sampler < 12; sampler++)
+			program.addSampler("Sampler" + sampler, RenderSystem.getShaderTexture(sampler));
+
+		if (program.modelViewMat != null) program.modelViewMat.set(RenderSystem.getModelViewMatrix());
+		if (program.projectionMat != null) program.projectionMat.set(RenderSystem.getProjectionMatrix());
+		if (program.viewRotationMat != null) program.viewRotationMat.set(RenderSystem.getInverseViewRotationMatrix());
+		if (program.colorModulator != null) program.colorModulator.set(RenderSystem.getShaderColor());
+		if (program.fogStart != null) program.fogStart.set(RenderSystem.getShaderFogStart());
+		if (program.fogEnd != null) program.fogEnd.set(RenderSystem.getShaderFogEnd());
+		if (program.fogColor != null) program.fogColor.set(RenderSystem.getShaderFogColor());
+		if (program.fogShape != null) program.fogShape.set(RenderSystem.getShaderFogShape().getId());
+		if (program.textureMat != null) program.textureMat.set(RenderSystem.getTextureMatrix());
+		if (program.gameTime != null) program.gameTime.set(RenderSystem.getShaderGameTime());
+		if (program.screenSize != null) {
+			Window window = MinecraftClient.getInstance().getWindow();
+			program.screenSize.set((float) window.getFramebufferWidth(), (float) window.getFramebufferHeight());
+		}
+		if (program.lineWidth != null && (drawMode == VertexFormat.DrawMode.LINES || drawMode == VertexFormat.DrawMode.LINE_STRIP))
+			program.lineWidth.set(RenderSystem.getShaderLineWidth());
+
+		RenderSystem.setupShaderLights(program);
+	}
+
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+
+		fences.forEach(GL32::glDeleteSync);
+		fences.clear();
+		vertexArrays.values().forEach(GlStateManager::_glDeleteVertexArrays);
+		vertexArrays.clear();
+
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+		GL15.glUnmapBuffer(GL15.GL_ARRAY_BUFFER);
+		GlStateManager._glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+		GlStateManager._glDeleteBuffers(buffer);
+	}
+}
@@ -0,0 +1,105 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An in-memory {@link VertexSink} that records every draw call and its vertices, so that the
+ * output of {@link net.krlite.equator.render.Equator} can be measured and compared on a plain
+ * JVM without a GL context.
+ */
+public class MemoryVertexSink implements VertexSink {
+	private final double pixelsPerUnit;
+	private final boolean headless;
+	private final VertexStore vertices = new VertexStore();
+	private final List<DrawState> states = new ArrayList<>();
+	private int[] firstVertices = new int[16];
+	private @Nullable DrawState building;
+
+	/**
+	 * @param pixelsPerUnit	The on-screen pixels per unit to tessellate for, like the GUI scale.
+	 * @param headless		Whether GPU-only paths should be avoided, which must be {@code true}
+	 *                      without a GL context.
+	 */
+	public MemoryVertexSink(double pixelsPerUnit, boolean headless) {
+		this.pixelsPerUnit = pixelsPerUnit;
+		this.headless = headless;
+	}
+
+	/**
+	 * @param pixelsPerUnit	The on-screen pixels per unit to tessellate for, like the GUI scale.
+	 */
+	public MemoryVertexSink(double pixelsPerUnit) {
+		this(pixelsPerUnit, true);
+	}
+
+	public MemoryVertexSink() {
+		this(1);
+	}
+
+	@Override
+	public VertexConsumer begin(@NotNull DrawState state) {
+		if (building != null) throw new IllegalStateException("Already building a draw call");
+		building = state;
+
+		if (states.size() == firstVertices.length) firstVertices = Arrays.copyOf(firstVertices, firstVertices.length * 2);
+		firstVertices[states.size()] = vertices.count();
+		states.add(state);
+		return vertices;
+	}
+
+	@Override
+	public void end(@NotNull DrawState state) {
+		if (building != state) throw new IllegalStateException("Not building a draw call in this state");
+		building = null;
+	}
+
+	@Override
+	public double pixelsPerUnit() {
+		return pixelsPerUnit;
+	}
+
+	@Override
+	public boolean headless() {
+		return headless;
+	}
+
+	public int drawCount() {
+		return states.size();
+	}
+
+	public DrawState state(int draw) {
+		return states.get(draw);
+	}
+
+	public int firstVertex(int draw) {
+		return firstVertices[draw];
+	}
+
+	public int vertexCount(int draw) {
+		return (draw + 1 < states.size() ? firstVertices[draw + 1] : vertices.count()) - firstVertices[draw];
+	}
+
+	public int vertexCount() {
+		return vertices.count();
+	}
+
+	/**
+	 * @return	The recorded vertices of all draw calls, in emission order.
+	 */
+	public VertexStore vertices() {
+		return vertices;
+	}
+
+	public void clear() {
+		if (building != null) throw new IllegalStateException("Cannot clear while building a draw call");
+		vertices.clear();
+		states.clear();
+	}
+}
@@ -0,0 +1,55 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <h2>Ring Backend</h2>
+ * The memory and the synchronization a {@link VertexRing} streams vertices through. The memory
+ * stays mapped for the lifetime of the backend, and fences mark the point in the submitted draw
+ * calls after which a region of it may be written again.
+ * @see GlRingBackend
+ * @see SimulatedRingBackend
+ */
+public interface RingBackend extends AutoCloseable {
+	/**
+	 * @return	The mapped memory, whose capacity is the size of the ring in bytes.
+	 */
+	@NotNull ByteBuffer buffer();
+
+	/**
+	 * Inserts a fence after every draw call submitted so far.
+	 * @return	The handle of the fence, which is never {@code 0}.
+	 */
+	long fence();
+
+	/**
+	 * Blocks until a fence is signaled, and releases it.
+	 * @param fence	The handle of the fence.
+	 * @return		Whether the fence was already signaled, so that nothing had to wait.
+	 */
+	boolean await(long fence);
+
+	/**
+	 * Draws the vertices written to the ring since a vertex.
+	 * @param state			The {@link DrawState} to draw in.
+	 * @param firstVertex	The index of the first vertex, in vertices of the format of the state.
+	 * @param vertexCount	The number of vertices.
+	 */
+	void draw(@NotNull DrawState state, int firstVertex, int vertexCount);
+
+	/**
+	 * Whether this backend runs without a GL context.
+	 */
+	default boolean headless() {
+		return false;
+	}
+
+	/**
+	 * Releases the memory and every pending fence.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,121 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link RingBackend} on plain memory, which records every draw call and simulates a GPU running a
+ * number of fences behind, so that the partitioning and the waits of a {@link VertexRing} can be
+ * measured and checked on a plain JVM without a GL context.
+ * <br />
+ * Every recorded draw call keeps the number of fences inserted before it, so a caller can check that
+ * its bytes stay untouched until a later fence is awaited.
+ */
+public class SimulatedRingBackend implements RingBackend {
+	/**
+	 * A recorded draw call.
+	 * @param state			The {@link DrawState} of the draw call.
+	 * @param firstVertex	The index of the first vertex.
+	 * @param vertexCount	The number of vertices.
+	 * @param fencesBefore	The number of fences inserted before the draw call was submitted.
+	 */
+	public record Draw(@NotNull DrawState state, int firstVertex, int vertexCount, long fencesBefore) {
+	}
+
+	private final ByteBuffer buffer;
+	private final int latency;
+	private final Set<Long> pending = new HashSet<>();
+	private final List<Draw> draws = new ArrayList<>();
+	// Fences up to this one are signaled
+	private long lastFence, signaled;
+	private long stalls;
+
+	/**
+	 * @param capacity	The size of the ring in bytes.
+	 * @param latency	The number of fences the simulated GPU runs behind, where a fence is signaled
+	 *                  once this many more are inserted after it.
+	 */
+	public SimulatedRingBackend(int capacity, int latency) {
+		this.buffer = ByteBuffer.allocateDirect(capacity);
+		this.latency = Math.max(0, latency);
+	}
+
+	@Override
+	public @NotNull ByteBuffer buffer() {
+		return buffer;
+	}
+
+	@Override
+	public long fence() {
+		long fence = ++lastFence;
+		pending.add(fence);
+		signaled = Math.max(signaled, fence - latency);
+		return fence;
+	}
+
+	@Override
+	public boolean await(long fence) {
+		if (!pending.remove(fence)) throw new IllegalArgumentException("The fence " + fence + " is not pending");
+		if (fence <= signaled) return true;
+
+		// Waiting drains the simulated GPU up to the fence
+		signaled = fence;
+		stalls++;
+		return false;
+	}
+
+	@Override
+	public void draw(@NotNull DrawState state, int firstVertex, int vertexCount) {
+		int stride = state.format().getVertexSizeByte();
+		if (firstVertex < 0 || (long) (firstVertex + vertexCount) * stride > buffer.capacity())
+			throw new IndexOutOfBoundsException("The vertices " + firstVertex + " to " + (firstVertex + vertexCount) + " are outside the ring");
+		draws.add(new Draw(state, firstVertex, vertexCount, lastFence));
+	}
+
+	/**
+	 * Signals every fence, as if the GPU became idle.
+	 */
+	public void finish() {
+		signaled = lastFence;
+	}
+
+	@Override
+	public boolean headless() {
+		return true;
+	}
+
+	public @NotNull List<Draw> draws() {
+		return Collections.unmodifiableList(draws);
+	}
+
+	public void clearDraws() {
+		draws.clear();
+	}
+
+	/**
+	 * @return	The number of fences inserted and not yet awaited.
+	 */
+	public int pendingFences() {
+		return pending.size();
+	}
+
+	/**
+	 * @return	The number of awaited fences that were not signaled yet.
+	 */
+	public long stalls() {
+		return stalls;
+	}
+
+	@Override
+	public void close() {
+		pending.clear();
+		draws.clear();
+	}
+}
@@ -0,0 +1,302 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.List;
+
+/**
+ * A {@link VertexSink} that writes the vertices of every draw call in place into a {@link VertexRing},
+ * instead of filling the {@link net.minecraft.client.render.Tessellator} buffer and uploading a copy of
+ * it for every draw call like {@link BufferVertexSink}. Use it through
+ * {@link net.krlite.equator.render.Equator#withSink(VertexSink, Runnable)}:
+ * <pre>{@code
+ * StreamingVertexSink sink = StreamingVertexSink.create();
+ * if (sink != null) Equator.withSink(sink, drawing);
+ * else drawing.run();
+ * }</pre>
+ * Only the position, uv, color and {@link GenericVertexConsumer generic} elements
+ * {@link net.krlite.equator.render.Equator} emits are supported. A single draw call, including a merged
+ * {@link net.krlite.equator.render.Batch} run, that outgrows the ring is moved out of it and drawn through
+ * a fallback sink instead. Everything here must run on the render thread.
+ */
+public class StreamingVertexSink implements VertexSink, AutoCloseable {
+	public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024, DEFAULT_SEGMENTS = 4;
+
+	/**
+	 * Creates a sink streaming through a persistently mapped GL buffer.
+	 * @return	The sink, or {@code null} if the GL context cannot map buffers persistently.
+	 * @see GlRingBackend#isSupported()
+	 */
+	public static @Nullable StreamingVertexSink create() {
+		GlRingBackend backend = GlRingBackend.create(DEFAULT_CAPACITY);
+		return backend == null ? null : new StreamingVertexSink(backend, DEFAULT_SEGMENTS);
+	}
+
+	private final RingBackend backend;
+	private final VertexRing ring;
+	private final VertexSink fallback;
+	private final RingVertexConsumer consumer = new RingVertexConsumer();
+	private @Nullable DrawState building;
+	private long fallbacks;
+
+	/**
+	 * @param backend	The backend to stream through, which the sink takes ownership of.
+	 * @param segments	The number of segments of the ring.
+	 * @param fallback	The sink to draw the draw calls that do not fit in the ring through.
+	 */
+	public StreamingVertexSink(@NotNull RingBackend backend, int segments, @NotNull VertexSink fallback) {
+		this.backend = backend;
+		this.ring = new VertexRing(backend, segments);
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Streams through a backend, drawing the draw calls that do not fit in the ring through the
+	 * {@link net.minecraft.client.render.Tessellator}.
+	 */
+	public StreamingVertexSink(@NotNull RingBackend backend, int segments) {
+		this(backend, segments, BufferVertexSink.INSTANCE);
+	}
+
+	public @NotNull VertexRing ring() {
+		return ring;
+	}
+
+	/**
+	 * @return	The number of draw calls that did not fit in the ring and were drawn through the fallback sink.
+	 */
+	public long fallbacks() {
+		return fallbacks;
+	}
+
+	@Override
+	public VertexConsumer begin(@NotNull DrawState state) {
+		if (building != null) throw new IllegalStateException("Already building a draw call");
+		consumer.layout(state.format());
+		ring.begin(consumer.stride);
+		building = state;
+		return consumer;
+	}
+
+	@Override
+	public void end(@NotNull DrawState state) {
+		if (building != state) throw new IllegalStateException("Not building a draw call in this state");
+		building = null;
+
+		int offset = ring.end(), count = consumer.count;
+		if (consumer.overflow != null) {
+			// The bytes left in the ring are never drawn, and are overwritten in the next lap
+			VertexStore overflow = consumer.overflow;
+			consumer.overflow = null;
+			overflow.replay(fallback.begin(state), state.uvMapped(), state.colorful());
+			fallback.end(state);
+			fallbacks++;
+		} else if (count > 0) backend.draw(state, offset / consumer.stride, count);
+	}
+
+	@Override
+	public double pixelsPerUnit() {
+		return headless() ? 1 : MinecraftClient.getInstance().getWindow().getScaleFactor();
+	}
+
+	@Override
+	public boolean headless() {
+		return backend.headless();
+	}
+
+	@Override
+	public void close() {
+		backend.close();
+	}
+
+	/**
+	 * Writes every vertex into the ring as soon as it is {@link #next() completed}. Once a vertex does not
+	 * fit, the vertices written so far are read back into a {@link VertexStore}, which records the rest.
+	 */
+	private final class RingVertexConsumer implements VertexConsumer, GenericVertexConsumer {
+		private static final int POSITION = 0, UV = 1, COLOR = 2, GENERIC = 3;
+
+		private @Nullable VertexFormat format;
+		private int[] kinds = new int[0], offsets = new int[0];
+		private int stride, count;
+		private float x, y, z, u, v, genericX, genericY, genericZ, genericW;
+		private int red = 255, green = 255, blue = 255, alpha = 255;
+		private boolean colorFixed;
+		private final VertexStore spilled = new VertexStore();
+		private @Nullable VertexStore overflow;
+
+		private void layout(VertexFormat format) {
+			count = 0;
+			overflow = null;
+			if (format == this.format) return;
+
+			List<VertexFormatElement> elements = format.getElements();
+			int[] kinds = new int[elements.size()], offsets = new int[elements.size()];
+			int offset = 0;
+			for (int i = 0; i < elements.size(); i++) {
+				VertexFormatElement element = elements.get(i);
+				kinds[i] = switch (element.getType()) {
+					case POSITION -> POSITION;
+					case COLOR -> COLOR;
+					case UV -> {
+						if (element.getUvIndex() != 0) throw new IllegalArgumentException("Only the first uv element can be streamed, not " + element);
+						yield UV;
+					}
+					case GENERIC -> {
+						if (element.getComponentType() != VertexFormatElement.ComponentType.FLOAT || element.getComponentCount() != 4)
+							throw new IllegalArgumentException("Only generic elements of four floats can be streamed, not " + element);
+						yield GENERIC;
+					}
+					default -> throw new IllegalArgumentException("The element " + element + " cannot be streamed");
+				};
+				offsets[i] = offset;
+				offset += element.getByteLength();
+			}
+
+			this.format = format;
+			this.kinds = kinds;
+			this.offsets = offsets;
+			this.stride = format.getVertexSizeByte();
+		}
+
+		@Override
+		public VertexConsumer vertex(double x, double y, double z) {
+			this.x = (float) x;
+			this.y = (float) y;
+			this.z = (float) z;
+			return this;
+		}
+
+		@Override
+		public VertexConsumer color(int red, int green, int blue, int alpha) {
+			if (colorFixed) return this;
+			this.red = red;
+			this.green = green;
+			this.blue = blue;
+			this.alpha = alpha;
+			return this;
+		}
+
+		@Override
+		public VertexConsumer texture(float u, float v) {
+			this.u = u;
+			this.v = v;
+			return this;
+		}
+
+		@Override
+		public void generic(float x, float y, float z, float w) {
+			genericX = x;
+			genericY = y;
+			genericZ = z;
+			genericW = w;
+		}
+
+		@Override
+		public VertexConsumer overlay(int u, int v) {
+			return this;
+		}
+
+		@Override
+		public VertexConsumer light(int u, int v) {
+			return this;
+		}
+
+		@Override
+		public VertexConsumer normal(float x, float y, float z) {
+			return this;
+		}
+
+		@Override
+		public void next() {
+			if (overflow == null && !ring.fits(stride)) spill();
+			if (overflow != null) {
+				record(overflow);
+				count++;
+				return;
+			}
+
+			long address = ring.reserve(stride);
+			for (int i = 0; i < kinds.length; i++) {
+				long element = address + offsets[i];
+				switch (kinds[i]) {
+					case POSITION -> {
+						MemoryUtil.memPutFloat(element, x);
+						MemoryUtil.memPutFloat(element + 4, y);
+						MemoryUtil.memPutFloat(element + 8, z);
+					}
+					case UV -> {
+						MemoryUtil.memPutFloat(element, u);
+						MemoryUtil.memPutFloat(element + 4, v);
+					}
+					case COLOR -> {
+						MemoryUtil.memPutByte(element, (byte) red);
+						MemoryUtil.memPutByte(element + 1, (byte) green);
+						MemoryUtil.memPutByte(element + 2, (byte) blue);
+						MemoryUtil.memPutByte(element + 3, (byte) alpha);
+					}
+					case GENERIC -> {
+						MemoryUtil.memPutFloat(element, genericX);
+						MemoryUtil.memPutFloat(element + 4, genericY);
+						MemoryUtil.memPutFloat(element + 8, genericZ);
+						MemoryUtil.memPutFloat(element + 12, genericW);
+					}
+				}
+			}
+			count++;
+		}
+
+		private void spill() {
+			VertexStore overflow = spilled;
+			overflow.clear();
+			long address = ring.address();
+
+			for (int vertex = 0; vertex < count; vertex++) {
+				for (int i = 0; i < kinds.length; i++) {
+					long element = address + (long) vertex * stride + offsets[i];
+					switch (kinds[i]) {
+						case POSITION -> overflow.vertex(MemoryUtil.memGetFloat(element), MemoryUtil.memGetFloat(element + 4), MemoryUtil.memGetFloat(element + 8));
+						case UV -> overflow.texture(MemoryUtil.memGetFloat(element), MemoryUtil.memGetFloat(element + 4));
+						case COLOR -> overflow.color(MemoryUtil.memGetByte(element) & 0xFF, MemoryUtil.memGetByte(element + 1) & 0xFF,
+								MemoryUtil.memGetByte(element + 2) & 0xFF, MemoryUtil.memGetByte(element + 3) & 0xFF);
+						case GENERIC -> overflow.generic(MemoryUtil.memGetFloat(element), MemoryUtil.memGetFloat(element + 4),
+								MemoryUtil.memGetFloat(element + 8), MemoryUtil.memGetFloat(element + 12));
+					}
+				}
+				overflow.next();
+			}
+			this.overflow = overflow;
+		}
+
+		private void record(VertexStore overflow) {
+			for (int kind : kinds) {
+				switch (kind) {
+					case POSITION -> overflow.vertex(x, y, z);
+					case UV -> overflow.texture(u, v);
+					case COLOR -> overflow.color(red, green, blue, alpha);
+					case GENERIC -> overflow.generic(genericX, genericY, genericZ, genericW);
+				}
+			}
+			overflow.next();
+		}
+
+		@Override
+		public void fixedColor(int red, int green, int blue, int alpha) {
+			colorFixed = false;
+			color(red, green, blue, alpha);
+			colorFixed = true;
+		}
+
+		@Override
+		public void unfixColor() {
+			colorFixed = false;
+		}
+	}
+}
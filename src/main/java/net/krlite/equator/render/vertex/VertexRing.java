@@ -0,0 +1,187 @@
+package net.krlite.equator.render.vertex;
+
+import org.jetbrains.annotations.NotNull;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <h2>Vertex Ring</h2>
+ * Streams the vertices of consecutive draw calls through the mapped memory of a {@link RingBackend},
+ * writing them in place instead of filling a buffer and uploading it for every draw call.
+ * <br />
+ * The ring is split into equal segments. A segment is fenced once the draw calls written into it are
+ * submitted, and awaited before it is written again in the next lap, so the writer only waits when it
+ * catches up with draw calls the GPU has not finished. A draw call always occupies a contiguous range:
+ * one reaching the end of the ring is moved to its start, which copies the vertices it wrote so far.
+ * A single draw call must therefore fit in the ring before its own start, which is at least half the
+ * ring for draw calls smaller than a segment.
+ * <br />
+ * The ring only tracks bytes, so it runs with a {@link SimulatedRingBackend} on a plain JVM.
+ */
+public class VertexRing {
+	private final RingBackend backend;
+	private final long address;
+	private final int capacity, segmentSize;
+	// The pending fence of every segment, or 0 if it may be written
+	private final long[] fences;
+	// The range of the open draw call, where a negative start means there is none
+	private int start = -1, head;
+	// The bytes from the start of the ring whose segments are acquired or fenced in this lap, always whole segments
+	private int acquired, fenced;
+	private long stalls, wraps, movedBytes;
+
+	/**
+	 * @param backend	The backend to stream through.
+	 * @param segments	The number of segments, at least {@code 2}.
+	 */
+	public VertexRing(@NotNull RingBackend backend, int segments) {
+		ByteBuffer buffer = backend.buffer();
+		if (segments < 2 || buffer.capacity() < segments)
+			throw new IllegalArgumentException("A ring of " + buffer.capacity() + " bytes cannot be split into " + segments + " segments");
+
+		this.backend = backend;
+		this.address = MemoryUtil.memAddress(buffer, 0);
+		this.segmentSize = buffer.capacity() / segments;
+		this.capacity = segmentSize * segments;
+		this.fences = new long[segments];
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int segments() {
+		return fences.length;
+	}
+
+	public int segmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * @return	The number of segments the writer had to wait for, as the GPU was still reading them.
+	 */
+	public long stalls() {
+		return stalls;
+	}
+
+	/**
+	 * @return	The number of times the writer returned to the start of the ring.
+	 */
+	public long wraps() {
+		return wraps;
+	}
+
+	/**
+	 * @return	The bytes copied by draw calls moved to the start of the ring.
+	 */
+	public long movedBytes() {
+		return movedBytes;
+	}
+
+	/**
+	 * Opens a draw call, fencing the segments the draw calls before it have filled.
+	 * @param stride	The size of a vertex in bytes, which the draw call starts at a multiple of.
+	 * @return			The offset of the draw call in bytes.
+	 */
+	public int begin(int stride) {
+		if (start >= 0) throw new IllegalStateException("Already streaming a draw call");
+		fence(head);
+
+		int aligned = (head + stride - 1) / stride * stride;
+		if (aligned + stride > capacity) {
+			wrap();
+			aligned = 0;
+		}
+		return start = head = aligned;
+	}
+
+	/**
+	 * @param bytes	The number of bytes, like a vertex.
+	 * @return		Whether the bytes can be {@link #reserve(int) reserved} for the open draw call, which
+	 * 				otherwise does not fit in the ring before its own start.
+	 */
+	public boolean fits(int bytes) {
+		if (start < 0) throw new IllegalStateException("Not streaming a draw call");
+		return head + bytes <= capacity || head - start + bytes <= start;
+	}
+
+	/**
+	 * @return	The address of the bytes written to the open draw call so far.
+	 */
+	public long address() {
+		if (start < 0) throw new IllegalStateException("Not streaming a draw call");
+		return address + start;
+	}
+
+	/**
+	 * Reserves the bytes following the ones written to the open draw call, waiting for the GPU if
+	 * they were not read yet. The draw call is moved to the start of the ring if they do not fit.
+	 * @param bytes	The number of bytes, like a vertex.
+	 * @return		The address to write them to.
+	 * @throws IllegalStateException	If the draw call does not fit in the ring before its own start.
+	 * @see #fits(int)
+	 */
+	public long reserve(int bytes) {
+		if (start < 0) throw new IllegalStateException("Not streaming a draw call");
+		if (head + bytes > capacity) move(bytes);
+
+		acquire(head + bytes);
+		long reserved = address + head;
+		head += bytes;
+		return reserved;
+	}
+
+	/**
+	 * Closes the open draw call, whose vertices must be submitted before the next one begins.
+	 * @return	The offset of the draw call in bytes, which may have moved since {@link #begin(int)}.
+	 */
+	public int end() {
+		if (start < 0) throw new IllegalStateException("Not streaming a draw call");
+		int offset = start;
+		start = -1;
+		return offset;
+	}
+
+	private void move(int bytes) {
+		int length = head - start;
+		if (length + bytes > start)
+			throw new IllegalStateException("A draw call of " + (length + bytes) + " bytes does not fit in the ring before its start at " + start);
+
+		wrap();
+		acquire(length + bytes);
+		MemoryUtil.memCopy(address + start, address, length);
+		movedBytes += length;
+		start = 0;
+		head = length;
+	}
+
+	private void wrap() {
+		// Every acquired segment left is filled as far as this lap goes, the others keep their fences from the lap before
+		fence(acquired);
+		acquired = fenced = 0;
+		wraps++;
+	}
+
+	// Fences the whole segments up to an offset that are acquired and not yet fenced
+	private void fence(int limit) {
+		limit = Math.min(limit, acquired);
+		while (fenced + segmentSize <= limit) {
+			fences[fenced / segmentSize] = backend.fence();
+			fenced += segmentSize;
+		}
+	}
+
+	// Awaits the segments up to an offset that are not yet acquired
+	private void acquire(int limit) {
+		while (acquired < limit) {
+			int index = acquired / segmentSize;
+			if (fences[index] != 0) {
+				if (!backend.await(fences[index])) stalls++;
+				fences[index] = 0;
+			}
+			acquired += segmentSize;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package net.krlite.equator.render.vertex;
+
+import net.krlite.equator.render.DrawState;
+import net.krlite.equator.render.Equator;
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <h2>Vertex Sink</h2>
+ * The destination of the vertices {@link Equator} emits. Every draw call is bracketed by
+ * {@link #begin(DrawState)} and {@link #end(DrawState)}, with already transformed vertices
+ * written to the returned {@link VertexConsumer} in between.
+ * @see BufferVertexSink
+ * @see MemoryVertexSink
+ */
+public interface VertexSink {
+	/**
+	 * Begins a draw call.
+	 * @param state	The {@link DrawState} of the draw call.
+	 * @return		The {@link VertexConsumer} to write the vertices to.
+	 */
+	VertexConsumer begin(@NotNull DrawState state);
+
+	/**
+	 * Ends the draw call begun with the same {@link DrawState}.
+	 * @param state	The {@link DrawState} of the draw call.
+	 */
+	void end(@NotNull DrawState state);
+
+	/**
+	 * The on-screen pixels per unit of the emitted coordinates, used to decide tessellation density.
+	 */
+	default double pixelsPerUnit() {
+		return 1;
+	}
+
+	/**
+	 * Whether this sink merges consecutive draw calls, in which case primitives that cannot be
+	 * concatenated should be emitted in a mergeable form instead.
+	 */
+	default boolean batching() {
+		return false;
+	}
+
+	/**
+	 * Whether this sink runs without a GL context, in which case GPU-only paths are not taken.
+	 */
+	default boolean headless() {
+		return false;
+	}
+}
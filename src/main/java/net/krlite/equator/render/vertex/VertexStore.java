@@ -0,0 +1,211 @@
+package net.krlite.equator.render.vertex;
+
+import net.minecraft.client.render.VertexConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A growable {@link VertexConsumer} that records positions, uvs and packed ARGB colors into
+ * primitive arrays, along with the bounding box of the positions. Generic elements are only
+ * recorded once a vertex carries one.
+ */
+public class VertexStore implements VertexConsumer, GenericVertexConsumer {
+	private float[] positions = new float[3 * 64], uvs = new float[2 * 64];
+	private @Nullable float[] generics;
+	private int[] colors = new int[64];
+	private int count, fixedColor;
+	private boolean colorFixed;
+	private float minX, minY, maxX, maxY;
+
+	public VertexStore() {
+		clear();
+	}
+
+	public int count() {
+		return count;
+	}
+
+	public float x(int index) {
+		return positions[3 * index];
+	}
+
+	public float y(int index) {
+		return positions[3 * index + 1];
+	}
+
+	public float z(int index) {
+		return positions[3 * index + 2];
+	}
+
+	public float u(int index) {
+		return uvs[2 * index];
+	}
+
+	public float v(int index) {
+		return uvs[2 * index + 1];
+	}
+
+	/**
+	 * @return	The color of the vertex, packed in ARGB.
+	 */
+	public int color(int index) {
+		return colors[index];
+	}
+
+	/**
+	 * @param component	The component of the generic element, from {@code 0} to {@code 3}.
+	 * @return			The component, or {@code 0} if the vertex carries no generic element.
+	 */
+	public float generic(int index, int component) {
+		return generics == null ? 0 : generics[4 * index + component];
+	}
+
+	public float minX() {
+		return minX;
+	}
+
+	public float minY() {
+		return minY;
+	}
+
+	public float maxX() {
+		return maxX;
+	}
+
+	public float maxY() {
+		return maxY;
+	}
+
+	public boolean overlaps(@NotNull VertexStore another) {
+		return another.minX <= maxX && another.maxX >= minX && another.minY <= maxY && another.maxY >= minY;
+	}
+
+	public void clear() {
+		count = 0;
+		minX = minY = Float.POSITIVE_INFINITY;
+		maxX = maxY = Float.NEGATIVE_INFINITY;
+	}
+
+	private void ensureCapacity(int vertices) {
+		if (vertices <= colors.length) return;
+		int capacity = Math.max(vertices, colors.length * 2);
+		positions = Arrays.copyOf(positions, 3 * capacity);
+		uvs = Arrays.copyOf(uvs, 2 * capacity);
+		colors = Arrays.copyOf(colors, capacity);
+		if (generics != null) generics = Arrays.copyOf(generics, 4 * capacity);
+	}
+
+	public void append(@NotNull VertexStore another) {
+		ensureCapacity(count + another.count);
+		System.arraycopy(another.positions, 0, positions, 3 * count, 3 * another.count);
+		System.arraycopy(another.uvs, 0, uvs, 2 * count, 2 * another.count);
+		System.arraycopy(another.colors, 0, colors, count, another.count);
+		if (another.generics != null) {
+			if (generics == null) generics = new float[4 * colors.length];
+			System.arraycopy(another.generics, 0, generics, 4 * count, 4 * another.count);
+		} else if (generics != null) Arrays.fill(generics, 4 * count, 4 * (count + another.count), 0);
+		count += another.count;
+		minX = Math.min(minX, another.minX);
+		minY = Math.min(minY, another.minY);
+		maxX = Math.max(maxX, another.maxX);
+		maxY = Math.max(maxY, another.maxY);
+	}
+
+	/**
+	 * Writes a range of the recorded vertices to another {@link VertexConsumer}, along with their generic
+	 * elements if any were recorded.
+	 * @param consumer	The {@link VertexConsumer} to write to.
+	 * @param first		The index of the first vertex.
+	 * @param count		The number of vertices.
+	 * @param textured	Whether to write the uvs.
+	 * @param colorful	Whether to write the colors.
+	 */
+	public void replay(@NotNull VertexConsumer consumer, int first, int count, boolean textured, boolean colorful) {
+		for (int i = first; i < first + count; i++) {
+			consumer.vertex(x(i), y(i), z(i));
+			if (textured) consumer.texture(u(i), v(i));
+			if (colorful) {
+				int color = colors[i];
+				consumer.color((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, color >>> 24);
+			}
+			if (generics != null)
+				GenericVertexConsumer.generic(consumer, generics[4 * i], generics[4 * i + 1], generics[4 * i + 2], generics[4 * i + 3]);
+			consumer.next();
+		}
+	}
+
+	public void replay(@NotNull VertexConsumer consumer, boolean textured, boolean colorful) {
+		replay(consumer, 0, count, textured, colorful);
+	}
+
+	@Override
+	public VertexConsumer vertex(double x, double y, double z) {
+		ensureCapacity(count + 1);
+		positions[3 * count] = (float) x;
+		positions[3 * count + 1] = (float) y;
+		positions[3 * count + 2] = (float) z;
+		if (generics != null) Arrays.fill(generics, 4 * count, 4 * count + 4, 0);
+		if (colorFixed) colors[count] = fixedColor;
+		minX = Math.min(minX, (float) x);
+		minY = Math.min(minY, (float) y);
+		maxX = Math.max(maxX, (float) x);
+		maxY = Math.max(maxY, (float) y);
+		return this;
+	}
+
+	@Override
+	public VertexConsumer color(int red, int green, int blue, int alpha) {
+		if (colorFixed) return this;
+		colors[count] = (alpha & 0xFF) << 24 | (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+		return this;
+	}
+
+	@Override
+	public VertexConsumer texture(float u, float v) {
+		uvs[2 * count] = u;
+		uvs[2 * count + 1] = v;
+		return this;
+	}
+
+	@Override
+	public void generic(float x, float y, float z, float w) {
+		if (generics == null) generics = new float[4 * colors.length];
+		generics[4 * count] = x;
+		generics[4 * count + 1] = y;
+		generics[4 * count + 2] = z;
+		generics[4 * count + 3] = w;
+	}
+
+	@Override
+	public VertexConsumer overlay(int u, int v) {
+		return this;
+	}
+
+	@Override
+	public VertexConsumer light(int u, int v) {
+		return this;
+	}
+
+	@Override
+	public VertexConsumer normal(float x, float y, float z) {
+		return this;
+	}
+
+	@Override
+	public void next() {
+		count++;
+	}
+
+	@Override
+	public void fixedColor(int red, int green, int blue, int alpha) {
+		fixedColor = (alpha & 0xFF) << 24 | (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+		colorFixed = true;
+	}
+
+	@Override
+	public void unfixColor() {
+		colorFixed = false;
+	}
+}
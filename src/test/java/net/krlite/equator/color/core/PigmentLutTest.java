@@ -0,0 +1,86 @@
+package net.krlite.equator.color.core;
+
+import com.scrtwpns.Mixbox;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PigmentLutTest {
+	// Half a step of the encoded range
+	private static final float QUANTIZATION = (PigmentLut.MAX - PigmentLut.MIN) / 255 / 2 + 1E-4F;
+
+	private static void assertRgbEquals(float[] expected, float[] actual, float tolerance, String message) {
+		for (int channel = 0; channel < 3; channel++) {
+			assertEquals(expected[channel], actual[channel], tolerance,
+					() -> message + ": expected " + Arrays.toString(expected) + " but was " + Arrays.toString(actual));
+		}
+	}
+
+	@Test
+	void gridPointsMatchMixbox() {
+		Random random = new Random(3);
+		float[] latent = new float[Mixbox.LATENT_SIZE];
+
+		for (int trial = 0; trial < 2000; trial++) {
+			// Valid latent colors stay within the simplex of the concentrations
+			int i = random.nextInt(PigmentLut.RESOLUTION), j = random.nextInt(PigmentLut.RESOLUTION - i),
+					k = random.nextInt(PigmentLut.RESOLUTION - i - j);
+			latent[0] = (float) i / (PigmentLut.RESOLUTION - 1);
+			latent[1] = (float) j / (PigmentLut.RESOLUTION - 1);
+			latent[2] = (float) k / (PigmentLut.RESOLUTION - 1);
+			latent[3] = 1 - latent[0] - latent[1] - latent[2];
+			// The residual must be added before clamping, even where it pulls an overshooting polynomial back
+			for (int channel = 4; channel < 7; channel++) latent[channel] = random.nextFloat() * 0.6F - 0.3F;
+
+			assertRgbEquals(Mixbox.latentToFloatRgb(latent), PigmentLut.latentToRgb(latent), QUANTIZATION, "Trial " + trial);
+		}
+	}
+
+	@Test
+	void mixesMatchMixbox() {
+		Random random = new Random(30);
+
+		for (int trial = 0; trial < 2000; trial++) {
+			float[] first = Mixbox.rgbToLatent(random.nextInt()), second = Mixbox.rgbToLatent(random.nextInt());
+			float ratio = random.nextFloat();
+			float[] mixed = new float[Mixbox.LATENT_SIZE];
+			for (int index = 0; index < mixed.length; index++)
+				mixed[index] = PigmentLut.lerp(first[index], second[index], ratio);
+
+			// Off the grid, the trilinear interpolation of the table adds to the quantization
+			assertRgbEquals(Mixbox.latentToFloatRgb(mixed), PigmentLut.latentToRgb(mixed), 0.03F, "Trial " + trial);
+		}
+	}
+
+	@Test
+	void pureColorsSurviveTheTable() {
+		for (int color : new int[] { 0xFF0000, 0x00FF00, 0x0000FF, 0xFFFFFF, 0x000000, 0xFFFF00, 0x808080 }) {
+			float[] rgb = PigmentLut.latentToRgb(Mixbox.rgbToLatent(color));
+			assertRgbEquals(new float[] { (color >> 16 & 0xFF) / 255F, (color >> 8 & 0xFF) / 255F, (color & 0xFF) / 255F },
+					rgb, 0.03F, Integer.toHexString(color));
+		}
+	}
+
+	@Test
+	void texelsEncodeTheTable() {
+		for (int y = 0; y < PigmentLut.HEIGHT; y += 7) {
+			for (int x = 0; x < PigmentLut.WIDTH; x += 5) {
+				int texel = PigmentLut.texel(x, y);
+				assertEquals(0xFF, texel >>> 24);
+
+				// The grid point the texel holds, sampled without interpolation
+				int i = x % PigmentLut.RESOLUTION, j = y % PigmentLut.RESOLUTION,
+						k = (y / PigmentLut.RESOLUTION) * PigmentLut.TILES + x / PigmentLut.RESOLUTION;
+				float[] rgb = PigmentLut.sample((float) i / (PigmentLut.RESOLUTION - 1), (float) j / (PigmentLut.RESOLUTION - 1),
+						(float) k / (PigmentLut.RESOLUTION - 1));
+				float[] decoded = new float[3];
+				for (int channel = 0; channel < 3; channel++)
+					decoded[channel] = PigmentLut.MIN + (PigmentLut.MAX - PigmentLut.MIN) * (texel >> (8 * channel) & 0xFF) / 255F;
+				assertRgbEquals(decoded, rgb, 1E-4F, "Texel " + x + ", " + y);
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package net.krlite.equator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableRectTest {
+	private static final double EPSILON = 1E-9;
+
+	private static void assertSameCorners(Rect expected, MutableRect actual, String message) {
+		Rect rect = actual.toRect();
+		Node[] expectedCorners = { expected.getLeftTop(), expected.getLeftBottom(), expected.getRightBottom(), expected.getRightTop() },
+				actualCorners = { rect.getLeftTop(), rect.getLeftBottom(), rect.getRightBottom(), rect.getRightTop() };
+		for (int i = 0; i < 4; i++) {
+			assertEquals(expectedCorners[i].getX(), actualCorners[i].getX(), EPSILON, message + ", corner " + i);
+			assertEquals(expectedCorners[i].getY(), actualCorners[i].getY(), EPSILON, message + ", corner " + i);
+		}
+	}
+
+	@Test
+	void centerMatchesRect() {
+		Rect rect = new Rect(10, 20, 64, 48).rotateByLeftTop(30);
+		MutableRect mutable = new MutableRect(rect);
+		assertEquals(rect.getCenterX(), mutable.getCenterX(), EPSILON);
+		assertEquals(rect.getCenterY(), mutable.getCenterY(), EPSILON);
+	}
+
+	@Test
+	void transformsAroundTheCenterMatchRect() {
+		Random random = new Random(7);
+		for (int trial = 0; trial < 200; trial++) {
+			Rect rect = new Rect(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100,
+					1 + random.nextDouble() * 80, 1 + random.nextDouble() * 80);
+			double angle = random.nextDouble() * 360, scale = 0.25 + random.nextDouble() * 2, another = random.nextDouble() * 360;
+
+			Rect expected = rect.rotateByLeftTop(angle).scaleByCenter(scale).rotateByCenter(another);
+			MutableRect actual = new MutableRect(rect).rotateByLeftTop(angle).scaleByCenter(scale).rotateByCenter(another);
+			assertSameCorners(expected, actual, "Trial " + trial);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package net.krlite.equator.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+	private static Rect randomRect(Random random, double extent) {
+		Rect rect = new Rect(random.nextDouble() * extent - extent / 4, random.nextDouble() * extent - extent / 4,
+				1 + random.nextDouble() * 40, 1 + random.nextDouble() * 40);
+		return random.nextBoolean() ? rect : rect.rotateByCenter(random.nextDouble() * 360);
+	}
+
+	// The values in insertion order, where updates keep the order and reinsertions move to the end
+	private static List<Integer> contain(Map<Integer, Rect> rects, Node node) {
+		List<Integer> values = new ArrayList<>();
+		rects.forEach((value, rect) -> {
+			if (rect.contains(node)) values.add(value);
+		});
+		return values;
+	}
+
+	private static double nearestDistance(Map<Integer, Rect> rects, Node node) {
+		return rects.values().stream().mapToDouble(rect -> rect.distanceTo(node)).min().orElse(Double.NaN);
+	}
+
+	// The bounding box as min x, min y, max x, max y
+	private static double[] bounds(Rect rect) {
+		Node[] corners = { rect.getLeftTop(), rect.getLeftBottom(), rect.getRightBottom(), rect.getRightTop() };
+		double[] bounds = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+		for (Node corner : corners) {
+			bounds[0] = Math.min(bounds[0], corner.getX());
+			bounds[1] = Math.min(bounds[1], corner.getY());
+			bounds[2] = Math.max(bounds[2], corner.getX());
+			bounds[3] = Math.max(bounds[3], corner.getY());
+		}
+		return bounds;
+	}
+
+	@Test
+	void emptyGrid() {
+		SpatialGrid<Integer> grid = new SpatialGrid<>(16);
+		assertNull(grid.nearest(0, 0));
+		assertNull(grid.topmost(0, 0));
+		assertEquals(List.of(), grid.query(0, 0));
+		assertEquals(List.of(), grid.query(new Rect(-100, -100, 200, 200)));
+	}
+
+	@Test
+	void topmostIsTheLastInserted() {
+		SpatialGrid<String> grid = new SpatialGrid<>(16);
+		grid.insert("below", new Rect(0, 0, 40, 40)).insert("above", new Rect(10, 10, 40, 40));
+		assertEquals(List.of("below", "above"), grid.query(20, 20));
+		assertEquals("above", grid.topmost(20, 20));
+		assertEquals("below", grid.topmost(5, 5));
+
+		// Updates keep the order
+		grid.update("below", new Rect(5, 5, 40, 40));
+		assertEquals("above", grid.topmost(20, 20));
+	}
+
+	@Test
+	void nearestAfterRemovingTheOutermostValues() {
+		SpatialGrid<String> grid = new SpatialGrid<>(10);
+		grid.insert("near", new Rect(0, 0, 5, 5)).insert("far", new Rect(10_000, 10_000, 5, 5));
+		assertEquals("far", grid.nearest(20_000, 20_000));
+
+		grid.remove("far");
+		assertEquals("near", grid.nearest(20_000, 20_000));
+		assertEquals("near", grid.nearest(-500, 3));
+
+		grid.update("near", new Rect(-1000, -1000, 5, 5));
+		assertEquals("near", grid.nearest(0, 0));
+	}
+
+	@Test
+	void matchesALinearScan() {
+		Random random = new Random(18);
+		double extent = 600;
+		SpatialGrid<Integer> grid = new SpatialGrid<>(24);
+		Map<Integer, Rect> rects = new LinkedHashMap<>();
+
+		for (int step = 0; step < 4000; step++) {
+			int value = random.nextInt(300);
+			switch (random.nextInt(4)) {
+				case 0, 1 -> {
+					Rect rect = randomRect(random, extent);
+					grid.insert(value, rect);
+					rects.put(value, rect);
+				}
+				case 2 -> {
+					Rect rect = randomRect(random, extent);
+					grid.update(value, rect);
+					rects.put(value, rect);
+				}
+				default -> assertEquals(rects.remove(value) != null, grid.remove(value));
+			}
+			assertEquals(rects.size(), grid.size());
+
+			// Points both inside and far outside the occupied range
+			double spread = random.nextBoolean() ? extent : 8 * extent;
+			Node node = new Node(random.nextDouble() * spread - spread / 4, random.nextDouble() * spread - spread / 4);
+
+			List<Integer> contained = contain(rects, node);
+			assertEquals(contained, grid.query(node), "Step " + step);
+			assertEquals(contained.isEmpty() ? null : contained.get(contained.size() - 1), grid.topmost(node.getX(), node.getY()), "Step " + step);
+
+			Integer nearest = grid.nearest(node);
+			if (rects.isEmpty()) assertNull(nearest, "Step " + step);
+			else assertEquals(nearestDistance(rects, node), rects.get(nearest).distanceTo(node), 1E-9, "Step " + step);
+		}
+	}
+
+	@Test
+	void rangeQueriesMatchALinearScan() {
+		Random random = new Random(81);
+		SpatialGrid<Integer> grid = new SpatialGrid<>(32);
+		Map<Integer, Rect> rects = new LinkedHashMap<>();
+		for (int value = 0; value < 400; value++) {
+			Rect rect = randomRect(random, 800);
+			grid.insert(value, rect);
+			rects.put(value, rect);
+		}
+		for (int value = 0; value < 400; value += 3) {
+			grid.remove(value);
+			rects.remove(value);
+		}
+
+		for (int trial = 0; trial < 200; trial++) {
+			Rect range = randomRect(random, 1000);
+			double[] bounds = bounds(range);
+
+			List<Integer> expected = new ArrayList<>();
+			rects.forEach((value, rect) -> {
+				double[] another = bounds(rect);
+				if (another[0] <= bounds[2] && another[2] >= bounds[0] && another[1] <= bounds[3] && another[3] >= bounds[1]) expected.add(value);
+			});
+			assertEquals(expected, grid.query(range), "Trial " + trial);
+		}
+	}
+}
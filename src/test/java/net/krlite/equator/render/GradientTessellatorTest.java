@@ -0,0 +1,86 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.color.PreciseColor;
+import net.krlite.equator.geometry.Rect;
+import net.krlite.equator.render.vertex.VertexStore;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientTessellatorTest {
+	private static final Rect.Tinted TINTED = new Rect(10, 20, 64, 48).new Tinted(
+			new PreciseColor(1, 0, 0, 1), new PreciseColor(0, 1, 0, 1),
+			new PreciseColor(0, 0, 1, 0.5), new PreciseColor(1, 1, 0, 0.25)
+	);
+
+	// A triangle as its vertex indices, rotated to start from the smallest while keeping the winding
+	private static String triangle(VertexStore store, int a, int b, int c) {
+		String[] vertices = { vertex(store, a), vertex(store, b), vertex(store, c) };
+		int smallest = 0;
+		for (int i = 1; i < 3; i++) if (vertices[i].compareTo(vertices[smallest]) < 0) smallest = i;
+		return vertices[smallest] + " " + vertices[(smallest + 1) % 3] + " " + vertices[(smallest + 2) % 3];
+	}
+
+	private static String vertex(VertexStore store, int index) {
+		return "(" + store.x(index) + ", " + store.y(index) + ", " + Integer.toHexString(store.color(index)) + ")";
+	}
+
+	private static List<String> stripTriangles(GradientTessellator.Strip strip) {
+		VertexStore store = new VertexStore();
+		strip.emit(store, new Matrix4f());
+
+		List<String> triangles = new ArrayList<>();
+		for (int i = 0; i + 2 < store.count(); i++) {
+			// Every odd triangle of a strip swaps its first two vertices to keep the winding
+			if (i % 2 == 0) triangles.add(triangle(store, i, i + 1, i + 2));
+			else triangles.add(triangle(store, i + 1, i, i + 2));
+		}
+		return triangles;
+	}
+
+	private static List<String> quadTriangles(GradientTessellator.Strip strip) {
+		VertexStore store = new VertexStore();
+		strip.emitQuads(store, new Matrix4f());
+
+		List<String> triangles = new ArrayList<>();
+		for (int i = 0; i + 3 < store.count(); i += 4) {
+			// The index buffer of quads
+			triangles.add(triangle(store, i, i + 1, i + 2));
+			triangles.add(triangle(store, i + 2, i + 3, i));
+		}
+		return triangles;
+	}
+
+	private static void assertSameTriangles(GradientTessellator.Strip strip) {
+		List<String> fromStrip = stripTriangles(strip), fromQuads = quadTriangles(strip);
+		assertEquals(2 * strip.slices(), fromStrip.size());
+		assertEquals(fromStrip.size(), fromQuads.size());
+		assertTrue(fromQuads.containsAll(fromStrip) && fromStrip.containsAll(fromQuads),
+				() -> "The strip " + fromStrip + " differs from the quads " + fromQuads);
+	}
+
+	@Test
+	void verticalQuadsSplitAlongTheStripDiagonal() {
+		for (double attenuation : new double[] { 0.5, 0.2, 0.8 })
+			assertSameTriangles(GradientTessellator.vertical(TINTED, attenuation, false, 2));
+	}
+
+	@Test
+	void horizontalQuadsSplitAlongTheStripDiagonal() {
+		for (double attenuation : new double[] { 0.5, 0.2, 0.8 })
+			assertSameTriangles(GradientTessellator.horizontal(TINTED, attenuation, false, 2));
+	}
+
+	@Test
+	void slicesArePowersOfTwo() {
+		for (int pixels = 1; pixels < 4096; pixels += 7) {
+			int slices = GradientTessellator.slices(pixels, 0.9, false);
+			assertEquals(1, Integer.bitCount(slices), "Pixels " + pixels);
+			assertTrue(slices <= GradientTessellator.MAX_SLICES);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package net.krlite.equator.render;
+
+import net.krlite.equator.render.vertex.VertexStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SdfShaderTest {
+	private static final float EPSILON = 1E-4F;
+
+	@Test
+	void circleDistanceIsRadial() {
+		SdfShader.Shape circle = SdfShader.Shape.circle(10, 1);
+		Random random = new Random(16);
+		for (int trial = 0; trial < 1000; trial++) {
+			float x = random.nextFloat() * 40 - 20, y = random.nextFloat() * 40 - 20;
+			assertEquals(Math.hypot(x, y) - 10, circle.distance(x, y), EPSILON, "Position " + x + ", " + y);
+		}
+	}
+
+	@Test
+	void roundedRectDistance() {
+		SdfShader.Shape rect = SdfShader.Shape.roundedRect(40, 20, 4, 1);
+		assertEquals(-10, rect.distance(0, 0), EPSILON);
+		// On the straight sides
+		assertEquals(0, rect.distance(20, 0), EPSILON);
+		assertEquals(0, rect.distance(0, -10), EPSILON);
+		assertEquals(5, rect.distance(25, 0), EPSILON);
+		// Beyond the rounded corner, measured from the center of its arc
+		assertEquals(4 * Math.sqrt(2) - 4, rect.distance(20, 10), EPSILON);
+		assertEquals(2 * Math.sqrt(2) - 4, rect.distance(18, 8), EPSILON);
+	}
+
+	@Test
+	void radiusIsClampedToTheShorterSide() {
+		SdfShader.Shape rect = SdfShader.Shape.roundedRect(40, 20, 100, 1);
+		assertEquals(10F, rect.radius());
+		assertEquals(0, rect.distance(20, 0), EPSILON);
+		assertEquals(0, rect.distance(10, 10), EPSILON);
+	}
+
+	@Test
+	void ringIsHollow() {
+		SdfShader.Shape ring = SdfShader.Shape.ring(10, 2, 1);
+		assertEquals(8, ring.distance(0, 0), EPSILON);
+		assertEquals(-1, ring.distance(9, 0), EPSILON);
+		assertEquals(0, ring.distance(0, 8), EPSILON);
+		assertEquals(0, ring.distance(0, -10), EPSILON);
+		assertEquals(3, ring.distance(13, 0), EPSILON);
+	}
+
+	@Test
+	void coverageFallsOffAcrossTheSoftness() {
+		SdfShader.Shape shadow = SdfShader.Shape.shadow(40, 20, 0, 6, 1);
+		assertEquals(7, shadow.softness(), EPSILON);
+		assertEquals(1, shadow.coverage(0, 0), EPSILON);
+		assertEquals(0.5F, shadow.coverage(20, 0), EPSILON);
+		assertEquals(1, shadow.coverage(20 - 3.5F, 0), EPSILON);
+		assertEquals(0, shadow.coverage(20 + 3.5F, 0), EPSILON);
+
+		float previous = 1;
+		for (float x = 10; x < 30; x += 0.25F) {
+			float coverage = shadow.coverage(x, 0);
+			assertTrue(coverage <= previous, "Position " + x);
+			previous = coverage;
+		}
+	}
+
+	@Test
+	void quadCoversTheFalloff() {
+		SdfShader.Shape[] shapes = {
+				SdfShader.Shape.roundedRect(40, 20, 4, 2), SdfShader.Shape.circle(7, 3),
+				SdfShader.Shape.ring(12, 3, 1), SdfShader.Shape.shadow(64, 32, 8, 10, 2)
+		};
+		for (SdfShader.Shape shape : shapes) {
+			float right = shape.halfWidth() + shape.extent(), bottom = shape.halfHeight() + shape.extent();
+			assertEquals(0, shape.coverage(right, 0), EPSILON, shape.toString());
+			assertEquals(0, shape.coverage(0, bottom), EPSILON, shape.toString());
+			assertEquals(0, shape.coverage(right, bottom), EPSILON, shape.toString());
+
+			// The shader recovers the softness from the uvs of the quad
+			assertEquals(shape.softness(), 2 * (Math.abs(right) - shape.halfWidth()), EPSILON, shape.toString());
+		}
+	}
+
+	@Test
+	void outlineLiesOnTheShape() {
+		SdfShader.Shape shape = new SdfShader.Shape(30, 15, 6, 3, 1);
+		float[] outer = shape.outline(0, 8), inner = shape.outline(shape.thickness(), 8);
+		SdfShader.Shape filled = new SdfShader.Shape(30, 15, 6, 0, 1);
+		for (int i = 0; i < outer.length; i += 2) {
+			assertEquals(0, filled.distance(outer[i], outer[i + 1]), EPSILON, "Point " + i / 2);
+			assertEquals(0, shape.distance(outer[i], outer[i + 1]), EPSILON, "Point " + i / 2);
+			assertEquals(0, shape.distance(inner[i], inner[i + 1]), EPSILON, "Point " + i / 2);
+		}
+	}
+
+	@Test
+	void writeCarriesTheShape() {
+		SdfShader.Shape shape = SdfShader.Shape.ring(10, 2, 1);
+		VertexStore store = new VertexStore();
+		store.vertex(0, 0, 0).texture(1, 1).color(255, 255, 255, 255);
+		shape.write(store).next();
+		store.vertex(0, 0, 0).color(255, 255, 255, 255).next();
+
+		assertArrayEquals(new float[] { 10, 10, 10, 2 },
+				new float[] { store.generic(0, 0), store.generic(0, 1), store.generic(0, 2), store.generic(0, 3) });
+		assertEquals(0F, store.generic(1, 3));
+	}
+}
@@ -0,0 +1,115 @@
+package net.krlite.equator.render.atlas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkylinePackerTest {
+	// Whether two placements overlap once the first is grown by the padding to its right and below it
+	private static boolean overlaps(SkylinePacker.Placement padded, SkylinePacker.Placement another, int padding) {
+		return padded.x() < another.x() + another.width() && another.x() < padded.x() + padded.width() + padding
+					   && padded.y() < another.y() + another.height() && another.y() < padded.y() + padded.height() + padding;
+	}
+
+	@Test
+	void placementsNeverOverlap() {
+		Random random = new Random(14);
+
+		for (int trial = 0; trial < 2000; trial++) {
+			int width = 16 + random.nextInt(241), height = 16 + random.nextInt(241), padding = random.nextInt(3);
+			SkylinePacker packer = new SkylinePacker(width, height, padding);
+			List<SkylinePacker.Placement> placements = new ArrayList<>();
+			long area = 0;
+			int rejected = 0;
+
+			for (int i = 20 + random.nextInt(60); i >= 0; i--) {
+				int rectWidth = 1 + random.nextInt(Math.max(1, width / 3)), rectHeight = 1 + random.nextInt(Math.max(1, height / 3));
+				SkylinePacker.Placement placement = packer.pack(rectWidth, rectHeight);
+				if (placement == null) {
+					rejected++;
+					continue;
+				}
+
+				assertEquals(rectWidth, placement.width());
+				assertEquals(rectHeight, placement.height());
+				assertTrue(placement.x() >= 0 && placement.y() >= 0
+								   && placement.x() + rectWidth <= width && placement.y() + rectHeight <= height,
+						"Trial " + trial + " placed " + placement + " outside " + width + "x" + height);
+				for (SkylinePacker.Placement another : placements) {
+					assertFalse(overlaps(another, placement, padding) || overlaps(placement, another, padding),
+							"Trial " + trial + " overlapped " + another + " with " + placement);
+				}
+
+				placements.add(placement);
+				area += (long) rectWidth * rectHeight;
+			}
+
+			SkylinePacker.Report report = packer.report();
+			assertEquals(placements.size(), report.placed(), "Trial " + trial);
+			assertEquals(rejected, report.rejected(), "Trial " + trial);
+			assertEquals(area, report.usedArea(), "Trial " + trial);
+			assertTrue(report.usedHeight() <= height, "Trial " + trial);
+			assertTrue(report.efficiency() <= 1 && report.occupancy() <= report.efficiency(), "Trial " + trial);
+		}
+	}
+
+	@Test
+	void packingIsDeterministic() {
+		SkylinePacker first = new SkylinePacker(256, 256, 1), second = new SkylinePacker(256, 256, 1);
+		Random random = new Random(41);
+		for (int i = 0; i < 100; i++) {
+			int width = 1 + random.nextInt(48), height = 1 + random.nextInt(48);
+			assertEquals(first.pack(width, height), second.pack(width, height));
+		}
+	}
+
+	@Test
+	void rejectsRectsLargerThanTheArea() {
+		SkylinePacker packer = new SkylinePacker(64, 32, 1);
+		assertNull(packer.pack(65, 1));
+		assertNull(packer.pack(1, 33));
+		// The padding may hang over the edges
+		assertEquals(new SkylinePacker.Placement(0, 0, 64, 32), packer.pack(64, 32));
+		assertNull(packer.pack(1, 1));
+		assertEquals(new SkylinePacker.Report(1, 3, 64 * 32, 32, 64, 32), packer.report());
+	}
+
+	/**
+	 * Packs a set of icons and sprite sheets of typical sizes into a page, tallest first like a
+	 * resource pack usually registers them, and reports how much of the used height they fill.
+	 */
+	@Test
+	void packingEfficiency() {
+		int[] sizes = { 128, 64, 48, 32, 24, 16 };
+		int[] counts = { 4, 16, 24, 64, 48, 160 };
+		SkylinePacker packer = new SkylinePacker(RuntimeAtlas.DEFAULT_PAGE_SIZE, RuntimeAtlas.DEFAULT_PAGE_SIZE, RuntimeAtlas.DEFAULT_PADDING);
+		Random random = new Random(24);
+
+		for (int i = 0; i < sizes.length; i++) {
+			for (int j = 0; j < counts[i]; j++) {
+				// Sheets of a few frames in a row
+				int frames = 1 + random.nextInt(4);
+				assertNotNull(packer.pack(sizes[i] * frames, sizes[i]));
+			}
+		}
+
+		SkylinePacker.Report report = packer.report();
+		assertEquals(316, report.placed());
+		assertEquals(0, report.rejected());
+		assertTrue(report.efficiency() > 0.9, () -> "The efficiency dropped to " + report.efficiency());
+		assertTrue(report.occupancy() > 0.75, () -> "The occupancy dropped to " + report.occupancy());
+	}
+
+	@Test
+	void reportsMergeAsStackedAreas() {
+		SkylinePacker.Report first = new SkylinePacker.Report(2, 1, 100, 10, 20, 20), second = new SkylinePacker.Report(1, 0, 50, 5, 20, 20);
+		SkylinePacker.Report merged = first.merge(second);
+		assertEquals(new SkylinePacker.Report(3, 1, 150, 15, 20, 40), merged);
+		assertEquals(0.5, merged.efficiency(), 1E-9);
+		assertEquals(150 / 800.0, merged.occupancy(), 1E-9);
+	}
+}
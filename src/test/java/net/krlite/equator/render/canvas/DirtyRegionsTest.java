@@ -0,0 +1,178 @@
+package net.krlite.equator.render.canvas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirtyRegionsTest {
+	private static final DirtyRegions.Region LEFT = new DirtyRegions.Region(0, 0, 10, 10);
+	private static final DirtyRegions.Region RIGHT = new DirtyRegions.Region(10, 0, 10, 10);
+
+	// A target fully redrawn only above its own area, so nothing falls back to a full redraw
+	private static DirtyRegions clean(int width, int height) {
+		DirtyRegions dirtyRegions = new DirtyRegions(width, height, 2);
+		dirtyRegions.flush();
+		return dirtyRegions;
+	}
+
+	@Test
+	void startsFullyDirty() {
+		DirtyRegions dirtyRegions = new DirtyRegions(100, 50);
+		assertTrue(dirtyRegions.isDirty());
+		assertEquals(List.of(new DirtyRegions.Region(0, 0, 100, 50)), dirtyRegions.flush());
+		assertFalse(dirtyRegions.isDirty());
+		assertEquals(List.of(), dirtyRegions.flush());
+	}
+
+	@Test
+	void invalidateClipsToTheTarget() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.invalidate(new DirtyRegions.Region(-5, 90, 20, 20));
+		dirtyRegions.invalidate(new DirtyRegions.Region(200, 200, 10, 10));
+		assertEquals(List.of(new DirtyRegions.Region(0, 90, 15, 10)), dirtyRegions.flush());
+	}
+
+	@Test
+	void mergeJoinsTouchingRegions() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.invalidate(RIGHT);
+		dirtyRegions.invalidate(LEFT);
+		assertEquals(List.of(new DirtyRegions.Region(0, 0, 20, 10)), dirtyRegions.merge());
+	}
+
+	@Test
+	void mergeKeepsRegionsWhoseUnionCostsExtraPixels() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		DirtyRegions.Region diagonal = new DirtyRegions.Region(5, 5, 10, 10);
+		dirtyRegions.invalidate(LEFT);
+		dirtyRegions.invalidate(diagonal);
+		assertEquals(List.of(LEFT, diagonal), dirtyRegions.merge());
+	}
+
+	@Test
+	void mergeCascadesThroughGrownUnions() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		// The union of the bottom halves only then reaches the top one
+		dirtyRegions.invalidate(new DirtyRegions.Region(0, 0, 20, 10));
+		dirtyRegions.invalidate(new DirtyRegions.Region(0, 10, 10, 10));
+		dirtyRegions.invalidate(new DirtyRegions.Region(10, 10, 10, 10));
+		assertEquals(List.of(new DirtyRegions.Region(0, 0, 20, 20)), dirtyRegions.merge());
+	}
+
+	@Test
+	void mergeDoesNotClear() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.invalidate(LEFT);
+		assertEquals(dirtyRegions.merge(), dirtyRegions.merge());
+		assertTrue(dirtyRegions.isDirty());
+		assertEquals(List.of(LEFT), dirtyRegions.flush());
+		assertFalse(dirtyRegions.isDirty());
+	}
+
+	@Test
+	void mergeFallsBackToAFullRedraw() {
+		DirtyRegions dirtyRegions = new DirtyRegions(20, 10, 0.6);
+		dirtyRegions.flush();
+		dirtyRegions.invalidate(LEFT);
+		assertEquals(List.of(LEFT), dirtyRegions.merge());
+
+		dirtyRegions.invalidate(new DirtyRegions.Region(10, 0, 3, 10));
+		assertEquals(List.of(new DirtyRegions.Region(0, 0, 20, 10)), dirtyRegions.merge());
+	}
+
+	@Test
+	void mergeCoversEveryInvalidatedPixel() {
+		Random random = new Random(17);
+		int width = 64, height = 48;
+
+		for (int trial = 0; trial < 500; trial++) {
+			DirtyRegions dirtyRegions = clean(width, height);
+			List<DirtyRegions.Region> invalidated = new ArrayList<>();
+			for (int i = random.nextInt(12); i >= 0; i--) {
+				DirtyRegions.Region region = new DirtyRegions.Region(random.nextInt(width), random.nextInt(height),
+						1 + random.nextInt(16), 1 + random.nextInt(16)).clip(width, height);
+				invalidated.add(region);
+				dirtyRegions.invalidate(region);
+			}
+
+			List<DirtyRegions.Region> merged = dirtyRegions.merge();
+			for (DirtyRegions.Region region : invalidated) {
+				for (int x = region.x(); x < region.right(); x++) {
+					for (int y = region.y(); y < region.bottom(); y++) {
+						int px = x, py = y;
+						assertTrue(merged.stream().anyMatch(m -> px >= m.x() && px < m.right() && py >= m.y() && py < m.bottom()),
+								"Trial " + trial + " left the pixel " + x + ", " + y + " out");
+					}
+				}
+			}
+
+			// Every union costs no extra pixels, so merging never grows the redrawn area
+			assertTrue(merged.stream().mapToLong(DirtyRegions.Region::area).sum()
+							   <= invalidated.stream().mapToLong(DirtyRegions.Region::area).sum(), "Trial " + trial);
+			assertTrue(merged.size() <= invalidated.size(), "Trial " + trial);
+		}
+	}
+
+	@Test
+	void trackInvalidatesNewElements() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		assertTrue(dirtyRegions.track("score", 1, LEFT));
+		assertEquals(List.of(LEFT), dirtyRegions.flush());
+	}
+
+	@Test
+	void trackSkipsUnchangedElements() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.track("score", 1, LEFT);
+		dirtyRegions.flush();
+
+		assertFalse(dirtyRegions.track("score", 1, LEFT));
+		assertFalse(dirtyRegions.isDirty());
+
+		assertTrue(dirtyRegions.track("label", null, RIGHT));
+		assertFalse(dirtyRegions.track("label", null, RIGHT));
+	}
+
+	@Test
+	void trackInvalidatesChangedInputs() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.track("score", 1, LEFT);
+		dirtyRegions.flush();
+
+		assertTrue(dirtyRegions.track("score", 2, LEFT));
+		assertEquals(List.of(LEFT), dirtyRegions.flush());
+	}
+
+	@Test
+	void trackInvalidatesTheOldAndNewBoundsOfMovedElements() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		DirtyRegions.Region moved = new DirtyRegions.Region(50, 50, 10, 10);
+		dirtyRegions.track("score", 1, LEFT);
+		dirtyRegions.flush();
+
+		assertTrue(dirtyRegions.track("score", 1, moved));
+		assertEquals(List.of(LEFT, moved), dirtyRegions.flush());
+	}
+
+	@Test
+	void sweepForgetsUntrackedElements() {
+		DirtyRegions dirtyRegions = clean(100, 100);
+		dirtyRegions.track("score", 1, LEFT);
+		dirtyRegions.track("health", 1, RIGHT);
+		assertEquals(List.of(), dirtyRegions.sweep());
+		dirtyRegions.flush();
+
+		// Only the score is declared in the next frame
+		dirtyRegions.track("score", 1, LEFT);
+		assertEquals(List.of("health"), dirtyRegions.sweep());
+		assertEquals(List.of(RIGHT), dirtyRegions.flush());
+
+		// A forgotten element is new again once tracked
+		assertEquals(List.of("score"), dirtyRegions.sweep());
+		assertTrue(dirtyRegions.track("health", 1, RIGHT));
+	}
+}
@@ -0,0 +1,172 @@
+package net.krlite.equator.render.vertex;
+
+import com.google.common.collect.ImmutableMap;
+import net.krlite.equator.render.DrawState;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormatElement;
+import net.minecraft.client.render.VertexFormats;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingVertexSinkTest {
+	private static final DrawState COLORED = state(VertexFormats.POSITION_COLOR);
+	private static final DrawState TEXTURED = state(VertexFormats.POSITION_TEXTURE_COLOR);
+	private static final DrawState GENERIC = state(new VertexFormat(ImmutableMap.of(
+			"Position", VertexFormats.POSITION_ELEMENT,
+			"Color", VertexFormats.COLOR_ELEMENT,
+			"Shape", new VertexFormatElement(0, VertexFormatElement.ComponentType.FLOAT, VertexFormatElement.Type.GENERIC, 4)
+	)));
+
+	private static DrawState state(VertexFormat format) {
+		return new DrawState(VertexFormat.DrawMode.QUADS, format, () -> null, null, null, false, null);
+	}
+
+	/**
+	 * Snapshots the bytes of every draw call when it is submitted, and checks at every fence that they
+	 * stay untouched until the simulated GPU is done with them, which is once a fence inserted after the
+	 * draw call is awaited.
+	 */
+	private static final class CheckedRingBackend extends SimulatedRingBackend {
+		private record Live(int offset, byte[] bytes, long fencesBefore) {
+		}
+
+		private final List<Live> live = new ArrayList<>();
+		private long overwritten, checked;
+
+		private CheckedRingBackend(int capacity, int latency) {
+			super(capacity, latency);
+		}
+
+		private void check() {
+			ByteBuffer buffer = buffer();
+			for (Live draw : live) {
+				checked++;
+				for (int i = 0; i < draw.bytes.length; i++) {
+					if (buffer.get(draw.offset + i) != draw.bytes[i]) {
+						overwritten++;
+						break;
+					}
+				}
+			}
+		}
+
+		@Override
+		public long fence() {
+			check();
+			return super.fence();
+		}
+
+		@Override
+		public boolean await(long fence) {
+			check();
+			boolean signaled = super.await(fence);
+			live.removeIf(draw -> draw.fencesBefore < fence);
+			return signaled;
+		}
+
+		@Override
+		public void draw(@NotNull DrawState state, int firstVertex, int vertexCount) {
+			super.draw(state, firstVertex, vertexCount);
+			int stride = state.format().getVertexSizeByte();
+			byte[] bytes = new byte[vertexCount * stride];
+			buffer().get(firstVertex * stride, bytes);
+			live.add(new Live(firstVertex * stride, bytes, draws().get(draws().size() - 1).fencesBefore()));
+		}
+	}
+
+	// Every vertex carries the index of its draw call and its own index
+	private static void emit(StreamingVertexSink sink, DrawState state, int draw, int vertices) {
+		VertexConsumer consumer = sink.begin(state);
+		for (int i = 0; i < vertices; i++) {
+			consumer.vertex(draw, i, 0);
+			if (state.uvMapped()) consumer.texture(i, draw);
+			consumer.color(i & 0xFF, draw & 0xFF, 1, 255);
+			if (state == GENERIC) GenericVertexConsumer.generic(consumer, draw, i, -draw, -i);
+			consumer.next();
+		}
+		sink.end(state);
+	}
+
+	@Test
+	void drawsStayIntactUntilTheirFenceIsAwaited() {
+		for (int latency = 0; latency <= 3; latency++) {
+			Random random = new Random(25 + latency);
+			CheckedRingBackend backend = new CheckedRingBackend(256 * 1024, latency);
+			StreamingVertexSink sink = new StreamingVertexSink(backend, 4, new MemoryVertexSink());
+			ByteBuffer buffer = backend.buffer().duplicate().order(ByteOrder.nativeOrder());
+
+			for (int draw = 0; draw < 20_000; draw++) {
+				DrawState state = random.nextBoolean() ? COLORED : TEXTURED;
+				// Mostly small draw calls, with a few large enough to be moved to the start of the ring
+				int vertices = 4 * (1 + random.nextInt(random.nextInt(50) == 0 ? 600 : 20));
+				emit(sink, state, draw, vertices);
+
+				SimulatedRingBackend.Draw submitted = backend.draws().get(draw);
+				int stride = state.format().getVertexSizeByte(), last = submitted.firstVertex() + vertices - 1;
+				assertEquals(vertices, submitted.vertexCount());
+				assertEquals(draw, buffer.getFloat(last * stride), "Draw " + draw);
+				assertEquals(vertices - 1, buffer.getFloat(last * stride + 4), "Draw " + draw);
+			}
+
+			VertexRing ring = sink.ring();
+			assertEquals(0, backend.overwritten, "Latency " + latency);
+			assertTrue(backend.checked > 0 && ring.wraps() > 0 && ring.movedBytes() > 0, "Latency " + latency);
+			assertEquals(ring.stalls(), backend.stalls(), "Latency " + latency);
+			assertEquals(0, sink.fallbacks());
+		}
+	}
+
+	@Test
+	void oversizedDrawsFallBack() {
+		CheckedRingBackend backend = new CheckedRingBackend(64 * 1024, 1);
+		MemoryVertexSink fallback = new MemoryVertexSink();
+		StreamingVertexSink sink = new StreamingVertexSink(backend, 4, fallback);
+
+		emit(sink, COLORED, 0, 100);
+		// Far larger than the ring, after it has already been partly filled
+		emit(sink, GENERIC, 1, 10_000);
+		emit(sink, TEXTURED, 2, 100);
+
+		assertEquals(1, sink.fallbacks());
+		assertEquals(2, backend.draws().size());
+		assertEquals(0, backend.overwritten);
+
+		assertEquals(1, fallback.drawCount());
+		assertSame(GENERIC, fallback.state(0));
+		VertexStore vertices = fallback.vertices();
+		assertEquals(10_000, vertices.count());
+		for (int i = 0; i < vertices.count(); i++) {
+			assertEquals(1, vertices.x(i));
+			assertEquals(i, vertices.y(i));
+			assertEquals(0xFF000000 | (i & 0xFF) << 16 | 1 << 8 | 1, vertices.color(i), "Vertex " + i);
+			assertEquals(-i, vertices.generic(i, 3), "Vertex " + i);
+		}
+	}
+
+	@Test
+	void drawsMovedToTheStartKeepTheirVertices() {
+		CheckedRingBackend backend = new CheckedRingBackend(64 * 1024, 0);
+		StreamingVertexSink sink = new StreamingVertexSink(backend, 4, new MemoryVertexSink());
+		ByteBuffer buffer = backend.buffer().duplicate().order(ByteOrder.nativeOrder());
+
+		// Fills most of the ring, so that the next draw call runs over its end
+		emit(sink, COLORED, 0, 3000);
+		emit(sink, COLORED, 1, 1500);
+
+		assertEquals(1, sink.ring().wraps());
+		assertTrue(sink.ring().movedBytes() > 0);
+		SimulatedRingBackend.Draw moved = backend.draws().get(1);
+		assertEquals(0, moved.firstVertex());
+		for (int i = 0; i < moved.vertexCount(); i++)
+			assertEquals(i, buffer.getFloat(i * 16 + 4), "Vertex " + i);
+	}
+}
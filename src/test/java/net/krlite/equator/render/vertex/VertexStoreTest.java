@@ -0,0 +1,21 @@
+package net.krlite.equator.render.vertex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexStoreTest {
+	@Test
+	void fixedColorOverridesTheVertexColors() {
+		VertexStore store = new VertexStore();
+		store.vertex(0, 0, 0).color(255, 0, 0, 255).next();
+		store.fixedColor(0, 255, 0, 128);
+		for (int i = 0; i < 100; i++) store.vertex(i, 0, 0).color(255, 0, 0, 255).next();
+		store.unfixColor();
+		store.vertex(0, 0, 0).color(0, 0, 255, 255).next();
+
+		assertEquals(0xFFFF0000, store.color(0));
+		for (int i = 1; i <= 100; i++) assertEquals(0x8000FF00, store.color(i), "Vertex " + i);
+		assertEquals(0xFF0000FF, store.color(101));
+	}
+}
@@ -0,0 +1,88 @@
+package net.krlite.equator.color.kernel;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link ColorKernels} on the Java Vector API, only ever loaded reflectively by
+ * {@link ColorKernels#get()} when the {@code jdk.incubator.vector} module is enabled.
+ * The tails of the arrays are handed to the scalar implementation.
+ */
+final class VectorColorKernels extends ScalarColorKernels {
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+	private static final VectorMask<Float> ALPHA = VectorMask.fromLong(SPECIES, alphaLanes());
+	private static final VectorShuffle<Float> BROADCAST_ALPHA = VectorShuffle.fromOp(SPECIES, lane -> lane | 3);
+
+	private VectorColorKernels() {
+	}
+
+	/**
+	 * @return	The kernels, or the scalar ones if the preferred vectors cannot hold whole colors.
+	 */
+	public static ColorKernels create() {
+		return SPECIES.length() % 4 == 0 ? new VectorColorKernels() : ScalarColorKernels.INSTANCE;
+	}
+
+	private static long alphaLanes() {
+		long lanes = 0;
+		for (int lane = 3; lane < SPECIES.length(); lane += 4) lanes |= 1L << lane;
+		return lanes;
+	}
+
+	@Override
+	public boolean vectorized() {
+		return true;
+	}
+
+	@Override
+	public void blend(float[] from, float[] to, float[] ratios, float[] out, int length) {
+		int i = 0, bound = SPECIES.loopBound(length);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector first = FloatVector.fromArray(SPECIES, from, i);
+			FloatVector.fromArray(SPECIES, to, i).sub(first)
+					.fma(FloatVector.fromArray(SPECIES, ratios, i), first).intoArray(out, i);
+		}
+		blend(from, to, ratios, out, i, length);
+	}
+
+	@Override
+	public void blend(float[] from, float[] to, float ratio, float[] out, int length) {
+		FloatVector factor = FloatVector.broadcast(SPECIES, ratio);
+		int i = 0, bound = SPECIES.loopBound(length);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector first = FloatVector.fromArray(SPECIES, from, i);
+			FloatVector.fromArray(SPECIES, to, i).sub(first).fma(factor, first).intoArray(out, i);
+		}
+		blend(from, to, ratio, out, i, length);
+	}
+
+	@Override
+	public void premultiply(float[] rgba, int length) {
+		int i = 0, bound = SPECIES.loopBound(length);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector colors = FloatVector.fromArray(SPECIES, rgba, i);
+			colors.mul(colors.rearrange(BROADCAST_ALPHA)).blend(colors, ALPHA).intoArray(rgba, i);
+		}
+		premultiply(rgba, i, length);
+	}
+
+	@Override
+	public void fade(float[] rgba, float opacity, int length) {
+		int i = 0, bound = SPECIES.loopBound(length);
+		for (; i < bound; i += SPECIES.length()) {
+			FloatVector colors = FloatVector.fromArray(SPECIES, rgba, i);
+			colors.blend(colors.mul(opacity), ALPHA).intoArray(rgba, i);
+		}
+		fade(rgba, opacity, i, length);
+	}
+
+	@Override
+	public void clamp(float[] values, int length) {
+		int i = 0, bound = SPECIES.loopBound(length);
+		for (; i < bound; i += SPECIES.length())
+			FloatVector.fromArray(SPECIES, values, i).max(0).min(1).intoArray(values, i);
+		clamp(values, i, length);
+	}
+}